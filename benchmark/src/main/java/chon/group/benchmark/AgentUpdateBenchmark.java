@@ -0,0 +1,75 @@
+package chon.group.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chon.group.game.domain.environment.AgentUpdate;
+import chon.group.game.domain.environment.Environment;
+
+/**
+ * Measures how {@link Environment#updateAgents(AgentUpdate)} scales with the
+ * number of worker threads. Agents chase a target that alternates between
+ * two sides of the world, so every agent moves back and forth on every
+ * invocation. With one thread
+ * the update runs sequentially, which is the baseline of the scaling curve.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AgentUpdateBenchmark {
+
+    @Param({ "10000", "100000" })
+    public int agents;
+
+    @Param({ "1", "2", "4", "8" })
+    public int threads;
+
+    private Environment environment;
+
+    private ForkJoinPool pool;
+
+    private int targetX = 0;
+
+    private final AgentUpdate chase = (agent, index, effects) -> agent.chase(this.targetX, 0);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.environment = Fixtures.environment();
+        Fixtures.addAgents(this.environment, this.agents, new Random(42));
+        this.pool = new ForkJoinPool(this.threads);
+        this.environment.setAgentPool(this.pool);
+        /* Parallel from the first agent, so only the thread count varies. */
+        this.environment.setParallelThreshold(this.threads > 1 ? 0 : Integer.MAX_VALUE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.pool.shutdown();
+        this.environment.dispose();
+    }
+
+    @Benchmark
+    public void updateAgents() {
+        this.environment.updateAgents(this.chase);
+        this.targetX = (this.targetX == 0) ? Fixtures.WIDTH : 0;
+    }
+
+}
@@ -0,0 +1,54 @@
+package chon.group.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chon.group.game.domain.environment.Environment;
+
+/**
+ * Measures {@link Environment#detectCollision()} against growing agent
+ * populations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+
+    @Param({ "10", "100", "1000", "10000", "100000" })
+    public int agents;
+
+    private Environment environment;
+
+    @Setup
+    public void setUp() {
+        this.environment = Fixtures.environment();
+        Fixtures.addAgents(this.environment, this.agents, new Random(42));
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.environment.dispose();
+    }
+
+    @Benchmark
+    public void detectCollision() {
+        this.environment.detectCollision();
+    }
+
+}
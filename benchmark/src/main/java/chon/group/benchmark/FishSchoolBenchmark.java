@@ -0,0 +1,70 @@
+package chon.group.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chon.group.game.core.GameRandom;
+import chon.group.game.domain.environment.Environment;
+import chon.group.game.domain.fishing.FishSchool;
+
+/**
+ * Measures {@link FishSchool#update()} for growing schools swimming in the
+ * sea of the game. The school is left to swim for a while before measuring,
+ * so the fish have gathered into shoals as they do in a session. A tick
+ * must stay well under the 16.7 ms of a frame at 60 FPS.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FishSchoolBenchmark {
+
+    /** The width of the game screen. */
+    private static final int WIDTH = 320;
+
+    /** The height of the game screen. */
+    private static final int HEIGHT = 280;
+
+    /** Ticks the school swims before measuring. */
+    private static final int SETTLE_TICKS = 600;
+
+    @Param({ "1000", "5000", "20000" })
+    public int fish;
+
+    private FishSchool school;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.school = new FishSchool(0, Environment.SEA_LINE, WIDTH, HEIGHT,
+                this.fish, new GameRandom(42));
+        this.school.spawn(this.fish);
+        for (int i = 0; i < SETTLE_TICKS; i++) {
+            this.school.update();
+        }
+    }
+
+    @Benchmark
+    public void update() {
+        this.school.update();
+    }
+
+    @Benchmark
+    public int findIn() {
+        return this.school.findIn(150, 230, 48, 48);
+    }
+
+}
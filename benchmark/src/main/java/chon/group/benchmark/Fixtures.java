@@ -0,0 +1,80 @@
+package chon.group.benchmark;
+
+import java.util.Random;
+
+import chon.group.game.domain.agent.Agent;
+import chon.group.game.domain.agent.Shot;
+import chon.group.game.domain.environment.Environment;
+
+/**
+ * Builds the environments shared by the benchmarks. Entities are placed so
+ * that the measured state does not change between invocations: agents stay
+ * in the upper half of the world, shots and the protagonist in the lower
+ * half, and shots have no speed.
+ */
+final class Fixtures {
+
+    /** The width of the benchmark world. */
+    static final int WIDTH = 4096;
+
+    /** The height of the benchmark world. */
+    static final int HEIGHT = 4096;
+
+    private Fixtures() {
+    }
+
+    /**
+     * Creates an empty environment with a protagonist far from the agents.
+     *
+     * @return the environment
+     */
+    static Environment environment() {
+        Environment environment = new Environment(0, 0, WIDTH, HEIGHT, "/images/environment/Sky.png");
+        environment.setProtagonist(new Agent(0, HEIGHT - 32, 32, 32, 2, 500, "/images/agents/chonBota.png"));
+        return environment;
+    }
+
+    /**
+     * Adds agents spread over the upper half of the world.
+     *
+     * @param environment the environment
+     * @param count       the number of agents
+     * @param random      the random generator
+     */
+    static void addAgents(Environment environment, int count, Random random) {
+        for (int i = 0; i < count; i++) {
+            environment.addAgent(new Agent(random.nextInt(WIDTH - 30), random.nextInt(HEIGHT / 2 - 64),
+                    22, 30, 1, 500, "/images/agents/chonBot.png"));
+        }
+    }
+
+    /**
+     * Adds motionless shots spread over the lower half of the world.
+     *
+     * @param environment the environment
+     * @param count       the number of shots
+     * @param random      the random generator
+     */
+    static void addShots(Environment environment, int count, Random random) {
+        for (int i = 0; i < count; i++) {
+            environment.getShots().add(new Shot(64 + random.nextInt(WIDTH - 192),
+                    HEIGHT / 2 + random.nextInt(HEIGHT / 2 - 128), 42, 64, 0, 0,
+                    "/images/weapons/missile/missile001.png", false, 100, "RIGHT"));
+        }
+    }
+
+    /**
+     * Adds fresh damage messages spread over the world.
+     *
+     * @param environment the environment
+     * @param count       the number of messages
+     * @param random      the random generator
+     */
+    static void addMessages(Environment environment, int count, Random random) {
+        for (int i = 0; i < count; i++) {
+            environment.getMessages().addDamage(random.nextInt(100),
+                    random.nextInt(WIDTH), random.nextInt(HEIGHT), 25);
+        }
+    }
+
+}
@@ -0,0 +1,65 @@
+package chon.group.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chon.group.game.domain.environment.Environment;
+import chon.group.game.messaging.MessageBuffer;
+
+/**
+ * Measures {@link Environment#updateMessages()} for growing message counts.
+ * Messages expire by wall-clock age, so the buffer is refilled before each
+ * invocation to keep the measured population constant.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageBenchmark {
+
+    @Param({ "10", "100", "1000", "10000", "100000" })
+    public int messages;
+
+    private Environment environment;
+
+    private final Random random = new Random(42);
+
+    @Setup
+    public void setUp() {
+        this.environment = Fixtures.environment();
+        this.environment.setMessages(new MessageBuffer(this.messages));
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.environment.dispose();
+    }
+
+    @Setup(Level.Invocation)
+    public void refill() {
+        this.environment.getMessages().clear();
+        Fixtures.addMessages(this.environment, this.messages, this.random);
+    }
+
+    @Benchmark
+    public void updateMessages() {
+        this.environment.updateMessages();
+    }
+
+}
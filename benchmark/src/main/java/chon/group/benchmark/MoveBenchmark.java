@@ -0,0 +1,66 @@
+package chon.group.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chon.group.game.core.InputState;
+import chon.group.game.core.Key;
+import chon.group.game.domain.environment.Environment;
+
+/**
+ * Measures {@link Environment#moveAgents(InputState)}, moving every agent of
+ * the environment through the entity store, alternating directions so
+ * positions stay bounded.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveBenchmark {
+
+    private final InputState right = new InputState();
+
+    private final InputState left = new InputState();
+
+    @Param({ "10", "100", "1000", "10000", "100000" })
+    public int agents;
+
+    private Environment environment;
+
+    private boolean toRight = true;
+
+    @Setup
+    public void setUp() {
+        this.environment = Fixtures.environment();
+        Fixtures.addAgents(this.environment, this.agents, new Random(42));
+        this.right.press(Key.RIGHT, 0);
+        this.left.press(Key.LEFT, 0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.environment.dispose();
+    }
+
+    @Benchmark
+    public void move() {
+        this.environment.moveAgents(this.toRight ? this.right : this.left);
+        this.toRight = !this.toRight;
+    }
+
+}
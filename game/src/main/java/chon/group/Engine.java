@@ -1,30 +1,56 @@
 package chon.group;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import chon.group.game.asset.AssetLoader;
+import chon.group.game.asset.AssetManifest;
+import chon.group.game.asset.AssetManifest.Tier;
+import chon.group.game.asset.SpriteCache;
+import chon.group.game.audio.AudioMixer;
+import chon.group.game.audio.JavaFxAudio;
+import chon.group.game.audio.Sound;
+import chon.group.game.core.FixedTimestep;
+import chon.group.game.core.FrameProfiler;
+import chon.group.game.core.GameRandom;
+import chon.group.game.core.InputQueue;
+import chon.group.game.core.InputRecorder;
+import chon.group.game.core.InputReplay;
+import chon.group.game.core.InputState;
+import chon.group.game.core.Key;
+import chon.group.game.core.StartupTrace;
+import chon.group.game.core.TimerWheel;
 import chon.group.game.domain.agent.Agent;
-import chon.group.game.domain.agent.Cannon;
-import chon.group.game.domain.agent.Fireball;
-import chon.group.game.domain.agent.Weapon;
 import chon.group.game.domain.environment.Environment;
+import chon.group.game.domain.fishing.FishSchool;
+import chon.group.game.domain.fishing.FishingEvent;
+import chon.group.game.domain.fishing.FishingLine;
+import chon.group.game.domain.fishing.FishingState;
 import chon.group.game.drawer.EnvironmentDrawer;
-import chon.group.game.drawer.JavaFxMediator;
+import chon.group.game.drawer.GameFonts;
+import chon.group.game.drawer.LayeredCanvas;
+import chon.group.game.drawer.LayeredCanvas.Layer;
+import chon.group.game.drawer.LoadingScreen;
+import chon.group.game.drawer.VirtualScreen;
+import chon.group.game.logging.AsyncLog;
+import chon.group.game.logging.Logger;
 import javafx.animation.AnimationTimer;
-import javafx.animation.PauseTransition;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.event.EventHandler;
 import javafx.scene.Scene;
-import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.StackPane;
-import javafx.scene.text.Font;
 import javafx.stage.Stage;
-import javafx.util.Duration;
-import javafx.scene.media.AudioClip;
-import javafx.scene.media.Media;
-import javafx.scene.media.MediaPlayer;
 
 /**
  * The {@code Engine} class represents the main entry point of the application
@@ -44,23 +70,63 @@ import javafx.scene.media.MediaPlayer;
  */
 public class Engine extends Application {
 
+    /* The game keys matching each JavaFX key code. */
+    private static final Map<KeyCode, Key> KEYS = new EnumMap<KeyCode, Key>(KeyCode.class);
+
+    static {
+        for (Key key : Key.values()) {
+            KEYS.put(KeyCode.valueOf(key.name()), key);
+        }
+    }
+
+    /* When the application was launched, to time the startup. */
+    private static final long LAUNCH_NANOS = System.nanoTime();
+    /* Startup runs are appended here by --startup-trace unless a path is given. */
+    private static final String DEFAULT_TRACE_FILE = "startup-trace.csv";
+
+    private static final Logger LOG = Logger.get("engine");
+    private static final Logger FISHING = Logger.get("fishing");
+
     /* If the game is paused or not. */
     private boolean isPaused = false;
     final static int WIDTH = 320;
     final static int HEIGHT = 280;
     final static double ASPECT_RATIO = (double) WIDTH / HEIGHT;
-    private boolean isSlowMoving = false;
-    private boolean isSlowMovingUp = false;
-    private boolean isWaitingForFish = false;
-    private String inputKey = "";
-    private String[] keysArray = {"A", "E", "M", "V", "UP", "DOWN", "RIGHT", "LEFT"};
-    private boolean isWaitingForInputKey = false;
-    private PauseTransition inputKeyTimer;
-    private int score = 0;
-    private AudioClip pickUp;
-    private AudioClip powerUp;
-    private AudioClip synth;
-    private MediaPlayer musicPlayer;
+    /* Fish swimming in the sea unless set by --fish. */
+    private static final int DEFAULT_FISH = 300;
+    /* The fishing line of the player. */
+    private FishingLine playerLine;
+    /* The sound effects, most important first, with their length in milliseconds. */
+    private static final Sound PICK_UP = new Sound("/sounds/pickupCoin.mp3", 3, 2, 370);
+    private static final Sound SYNTH = new Sound("/sounds/synth.mp3", 2, 1, 810);
+    private static final Sound POWER_UP = new Sound("/sounds/powerUp.mp3", 1, 2, 420);
+    private static final String MUSIC = "/sounds/music.mp3";
+    /* Plays the sound effects and the music. */
+    private JavaFxAudio audioBackend;
+    private AudioMixer audio;
+    private LayeredCanvas layers;
+    private final FrameProfiler profiler = new FrameProfiler();
+    private final int framePhase = profiler.phase("frame");
+    private final int tickPhase = profiler.phase("tick");
+    private final int inputPhase = profiler.phase("input");
+    /* Shows the layers drawn at the logical resolution, with --render=virtual. */
+    private VirtualScreen screen;
+    private boolean showProfiler = false;
+    /* Time spent replaying per frame when replaying as fast as possible. */
+    private static final long FAST_REPLAY_BUDGET_NANOS = 12_000_000L;
+    /* The source of every random outcome of the session. */
+    private GameRandom random;
+    /* The log of the session being recorded, if any. */
+    private InputRecorder recorder;
+    /* The session being replayed, if any. */
+    private InputReplay replay;
+    /* If the replay runs as fast as possible instead of at the original pace. */
+    private boolean fastReplay = false;
+    /* Decodes the assets of the manifest on worker threads. */
+    private AssetLoader assets;
+    /* The stages of the startup, and where to append them, if traced. */
+    private final StartupTrace trace = new StartupTrace(LAUNCH_NANOS);
+    private Path traceFile;
 
     /**
      * Main entry point of the application.
@@ -73,11 +139,11 @@ public class Engine extends Application {
     }
 
     /**
-     * Starts the JavaFX application and initializes the game environment, agents,
-     * and graphical components.
+     * Starts the JavaFX application, showing a loading screen while the assets
+     * of the manifest are decoded on worker threads, then starts the game.
      * <p>
-     * This method sets up the game scene, handles input events, and starts the
-     * game loop using {@link AnimationTimer}.
+     * Nothing is decoded on the JavaFX application thread: the loading screen
+     * only polls the progress of the loader on each frame.
      * </p>
      *
      * @param theStage the primary stage for the application.
@@ -85,319 +151,607 @@ public class Engine extends Application {
     @Override
     public void start(Stage theStage) {
         try {
-            /* Initialize the game environment and agents */
-            Environment environment = new Environment(0, 0, WIDTH, HEIGHT, "/images/environment/Sky.png");
-            //Agent chonBota = new Agent(0, 0, 30, 22, 3, 1000, "/images/agents/chonBota.png", false);
-            Weapon cannon = new Cannon(320, 390, 0, 0, 3, 0, "", false);
-            Weapon fireball = new Fireball(400, 390, 0, 0, 3, 0, "", false);
-            //chonBota.setWeapon(fireball);
-
-            //Agent chonBot = new Agent(290, 138, 30, 22, 1, 500, "/images/agents/chonBot.png", true);
-            //environment.setProtagonist(chonBota);
-            //environment.getAgents().add(chonBot);
-            Agent fishingRod = new Agent(144, -138, 250, 32, 8, 500, "/images/agents/fishingRod.png", false);
-            Agent fish = new Agent(-27, -52, 52, 27, 1, 500, "/images/agents/fish.png", false);
-            environment.setFish(fish);
-            environment.setProtagonist(fishingRod);
-            environment.setPauseImage("/images/environment/pause.png");
-            environment.setSeaImage("/images/environment/Sea.png");
-            environment.setCatchKeyImage("/images/Agents/UpKey.png");
-            environment.setGameOverImage("/images/environment/gameover.png");
-            Font customFont = Font.loadFont(getClass().getResourceAsStream("/fonts/Daydream.ttf"), 14);
-            synth = new AudioClip(getClass().getResource("/sounds/synth.mp3").toExternalForm());
-            powerUp = new AudioClip(getClass().getResource("/sounds/powerUp.mp3").toExternalForm());
-            pickUp = new AudioClip(getClass().getResource("/sounds/pickupCoin.mp3").toExternalForm());
-            Media music = new Media(getClass().getResource("/sounds/music.mp3").toExternalForm());
-            musicPlayer = new MediaPlayer(music);
-            musicPlayer.setCycleCount(MediaPlayer.INDEFINITE); // Loop forever
-            musicPlayer.setVolume(0.1); // Optional: set volume (0.0 to 1.0)
-            musicPlayer.play();
-
-            /* Set up the graphical canvas */
-            Canvas canvas = new Canvas(environment.getWidth(), environment.getHeight());
-            GraphicsContext gc = canvas.getGraphicsContext2D();
-            gc.setImageSmoothing(false);
-            gc.setFont(customFont);
-            EnvironmentDrawer mediator = new JavaFxMediator(environment, gc);
-
-            /* Set up the scene and stage */
+            trace.mark(StartupTrace.START);
+            configureLogging();
+            configureSession();
+            trace.mark(StartupTrace.SESSION);
+            assets = new AssetLoader(AssetManifest.load(AssetManifest.DEFAULT_PATH));
+            /* The fonts are baked once, on the application thread, before the game starts */
+            CompletableFuture<Void> startup = assets.load(Tier.STARTUP)
+                    .thenRun(() -> trace.mark(StartupTrace.STARTUP_ASSETS))
+                    .thenRunAsync(GameFonts::bake, Platform::runLater);
+
+            /* Set up the scene and stage, showing the progress of the loader */
             StackPane root = new StackPane();
-            Scene scene = new Scene(root, environment.getWidth(), environment.getHeight());
+            Scene scene = new Scene(root, WIDTH, HEIGHT);
+            LoadingScreen loading = new LoadingScreen(WIDTH, HEIGHT);
+            loading.getCanvas().widthProperty().bind(scene.widthProperty());
+            loading.getCanvas().heightProperty().bind(scene.heightProperty());
+            root.getChildren().add(loading.getCanvas());
             theStage.setTitle("Chon: The Learning Game");
             theStage.setScene(scene);
-
-            root.getChildren().add(canvas);
             theStage.show();
-            
-            adjustCanvasSize(canvas, scene.getWidth(), scene.getHeight());
-            double decorationWidth = theStage.getWidth() - scene.getWidth();
-            double decorationHeight = theStage.getHeight() - scene.getHeight();
-
-            /* Adjust the stage size to maintain the aspect ratio */
-            theStage.widthProperty().addListener((obs, oldWidth, newWidth) -> {
-                double contentWidth = newWidth.doubleValue() - decorationWidth;
-                double newContentHeight = contentWidth / ASPECT_RATIO;
-                double newStageHeight = newContentHeight + decorationHeight;
-
-                if (Math.abs(theStage.getHeight() - newStageHeight) > 1) {
-                    theStage.setHeight(newStageHeight);
+            trace.mark(StartupTrace.STAGE_SHOWN);
+
+            new AnimationTimer() {
+                @Override
+                public void handle(long now) {
+                    loading.draw(assets.getProgress());
+                    if (!startup.isDone()) {
+                        return;
+                    }
+                    stop();
+                    try {
+                        startup.join();
+                        root.getChildren().remove(loading.getCanvas());
+                        startGame(theStage, scene, root);
+                        trace.mark(StartupTrace.GAME_BUILT);
+                    } catch (CompletionException e) {
+                        LOG.error("The assets could not be loaded", e.getCause());
+                        Platform.exit();
+                    } catch (Exception e) {
+                        LOG.error("The game could not start", e);
+                        Platform.exit();
+                    }
                 }
-            });
-            theStage.heightProperty().addListener((obs, oldHeight, newHeight) -> {
-                double contentHeight = newHeight.doubleValue() - decorationHeight;
-                double newContentWidth = contentHeight * ASPECT_RATIO;
-                double newStageWidth = newContentWidth + decorationWidth;
-
-                if (Math.abs(theStage.getWidth() - newStageWidth) > 1) {
-                    theStage.setWidth(newStageWidth);
+            }.start();
+        } catch (Exception e) {
+            LOG.error("The game could not start", e);
+        }
+    }
+
+    /**
+     * Initializes the game environment, agents, and graphical components once
+     * the startup assets are loaded.
+     * <p>
+     * This method sets up the game scene, handles input events, and starts the
+     * game loop using {@link AnimationTimer}.
+     * </p>
+     *
+     * @param theStage the primary stage for the application.
+     * @param scene    the scene of the stage
+     * @param root     the root pane of the scene
+     */
+    private void startGame(Stage theStage, Scene scene, StackPane root) {
+        /* Initialize the game environment and agents */
+        Environment environment = new Environment(0, 0, WIDTH, HEIGHT, "/images/environment/Sky.png");
+        //Agent chonBota = new Agent(0, 0, 30, 22, 3, 1000, "/images/agents/chonBota.png", false);
+        //chonBota.setWeapon(new Fireball(400, 390, 0, 0, 3, 0, "", false));
+
+        //Agent chonBot = new Agent(290, 138, 30, 22, 1, 500, "/images/agents/chonBot.png", true);
+        //environment.setProtagonist(chonBota);
+        //environment.addAgent(chonBot);
+        Agent fishingRod = new Agent(144, -138, 250, 32, 8, 500, "/images/agents/FishingRod.png", false);
+        Agent fish = new Agent(-27, -52, 52, 27, 1, 500, "/images/agents/Fish.png", false);
+        environment.setFish(fish);
+        environment.setProtagonist(fishingRod);
+        InputState input = new InputState();
+        playerLine = new FishingLine(fishingRod, fish, input, random);
+        playerLine.setListener((line, event) -> onFishingEvent(environment, event));
+        environment.addLine(playerLine);
+        environment.setSchool(createSchool());
+        environment.setPauseImage("/images/environment/pause.png");
+        environment.setSeaImage("/images/environment/Sea.png");
+        environment.setCatchKeyImage(keyImagePath(Key.UP));
+        environment.setGameOverImage("/images/environment/gameover.png");
+        /* Sound effects stay silent until the deferred assets are loaded */
+        audioBackend = new JavaFxAudio(assets);
+        audio = new AudioMixer(audioBackend);
+        audio.register(PICK_UP);
+        audio.register(SYNTH);
+        audio.register(POWER_UP);
+
+        /* Set up the graphical canvases, one per layer */
+        layers = new LayeredCanvas(environment, WIDTH, HEIGHT);
+        layers.setProfiler(profiler);
+        environment.setProfiler(profiler);
+
+        /* Add the layers to the scene, or draw them at the logical size and scale the whole stack */
+        if ("virtual".equals(getParameters().getNamed().get("render"))) {
+            screen = new VirtualScreen(layers.getCanvases(), WIDTH, HEIGHT);
+            root.getChildren().add(screen.getNode());
+        } else {
+            root.getChildren().addAll(layers.getCanvases());
+        }
+
+        adjustCanvasSize(scene.getWidth(), scene.getHeight());
+        double decorationWidth = theStage.getWidth() - scene.getWidth();
+        double decorationHeight = theStage.getHeight() - scene.getHeight();
+
+        /* Adjust the stage size to maintain the aspect ratio */
+        theStage.widthProperty().addListener((obs, oldWidth, newWidth) -> {
+            double contentWidth = newWidth.doubleValue() - decorationWidth;
+            double newContentHeight = contentWidth / ASPECT_RATIO;
+            double newStageHeight = newContentHeight + decorationHeight;
+
+            if (Math.abs(theStage.getHeight() - newStageHeight) > 1) {
+                theStage.setHeight(newStageHeight);
+            }
+        });
+        theStage.heightProperty().addListener((obs, oldHeight, newHeight) -> {
+            double contentHeight = newHeight.doubleValue() - decorationHeight;
+            double newContentWidth = contentHeight * ASPECT_RATIO;
+            double newStageWidth = newContentWidth + decorationWidth;
+
+            if (Math.abs(theStage.getWidth() - newStageWidth) > 1) {
+                theStage.setWidth(newStageWidth);
+            }
+        });
+        scene.widthProperty().addListener((obs, oldVal, newVal) -> {
+            adjustCanvasSize(scene.getWidth(), scene.getHeight());
+        });
+        scene.heightProperty().addListener((obs, oldVal, newVal) -> {
+            adjustCanvasSize(scene.getWidth(), scene.getHeight());
+        });
+
+        /* Queue keyboard events, consumed by the simulation on each tick */
+        InputQueue events = new InputQueue();
+        scene.setOnKeyPressed(new EventHandler<KeyEvent>() {
+            public void handle(KeyEvent e) {
+                Key key = KEYS.get(e.getCode());
+                if (key != null) {
+                    events.offer(key, true, System.nanoTime());
                 }
-            });
-            scene.widthProperty().addListener((obs, oldVal, newVal) -> {
-                adjustCanvasSize(canvas, scene.getWidth(), scene.getHeight());
-            });
-            scene.heightProperty().addListener((obs, oldVal, newVal) -> {
-                adjustCanvasSize(canvas, scene.getWidth(), scene.getHeight());
-            });
-
-            /* Handle keyboard input */
-            ArrayList<String> input = new ArrayList<String>();
-            scene.setOnKeyPressed(new EventHandler<KeyEvent>() {
-                public void handle(KeyEvent e) {
-                    String code = e.getCode().toString();
-                    input.clear();
-
-                    System.out.println("Pressed: " + code);
-
-                    if (code.equals("P")) {
-                        isPaused = !isPaused;
-                    }
+            }
+        });
 
-                    if (isWaitingForInputKey) {
-                        if (code.equals(inputKey)) {
-                            if (pickUp != null) pickUp.play();
-                            isWaitingForInputKey = false;
-                            if (inputKeyTimer != null) inputKeyTimer.stop();
-                            isSlowMovingUp = true;
-                            Agent rod = environment.getProtagonist();
-                            environment.getFish().setPosY(rod.getPosY() + rod.getHeight() - 21);
-                            environment.getFish().setPosX(rod.getPosX() - 5);
-                            score++;
-                            System.out.println("Success! Correct key pressed.");
-                            // Add success logic here
-                        } else {
-                            // Optionally, handle wrong key press (fail immediately or ignore)
-                            if (inputKeyTimer != null) inputKeyTimer.stop();
-                            isWaitingForInputKey = false;
-                            isSlowMovingUp = true;
-                            score = 0;
-                            System.out.println("Wrong key!");
-
-                        }
-                        return; // Don't process other input while waiting for key
-                    }
+        scene.setOnKeyReleased(new EventHandler<KeyEvent>() {
+            public void handle(KeyEvent e) {
+                Key key = KEYS.get(e.getCode());
+                if (key != null) {
+                    events.offer(key, false, System.nanoTime());
+                }
+            }
+        });
 
-                    if (!isPaused && !input.contains(code)) {
-                        input.add(code);
+        /* Start the game loop */
+        FixedTimestep timestep = createTimestep();
+        /* Gameplay timers run on the simulation ticks */
+        environment.setTimers(new TimerWheel(timestep.getTickNanos()));
+        new AnimationTimer() {
+            /* The state last drawn by the static layers. */
+            private int drawnScore = -1;
+            private boolean drawnPaused;
+            private boolean drawnDead;
+            /* The index of the next simulation tick. */
+            private long tick = 0;
+            /* When the replay started. */
+            private final long replayStart = System.nanoTime();
+            /* If a frame has been drawn yet. */
+            private boolean drawn = false;
+
+            /**
+             * The game loop, called on each frame. The simulation advances in
+             * fixed ticks and the frame is drawn with interpolated positions.
+             * Static layers are only redrawn when what they show changes.
+             * With {@code --render=virtual}, the layers are drawn at the
+             * logical size and upscaled by the scene graph.
+             *
+             * @param now the timestamp of the current frame in nanoseconds.
+             */
+            @Override
+            public void handle(long now) {
+                profiler.begin(framePhase);
+                int ticks = timestep.advance(now);
+                if (replay != null && fastReplay) {
+                    /* Replays as many ticks as fit in the frame */
+                    long budgetEnd = System.nanoTime() + FAST_REPLAY_BUDGET_NANOS;
+                    do {
+                        runTick(0);
+                    } while (replay != null && System.nanoTime() - budgetEnd < 0);
+                } else {
+                    for (int i = 0; i < ticks; i++) {
+                        runTick(timestep.getTickTime(i));
                     }
+                }
 
+                boolean dead = environment.getProtagonist().isDead();
+                if (dead != drawnDead || isPaused != drawnPaused) {
+                    /* The sea is hidden behind the pause and game over screens */
+                    layers.markDirty(Layer.SEA);
+                    layers.markDirty(Layer.HUD);
+                    drawnDead = dead;
+                    drawnPaused = isPaused;
+                }
+                if (playerLine.getScore() != drawnScore) {
+                    layers.markDirty(Layer.HUD);
+                    drawnScore = playerLine.getScore();
                 }
-            });
 
-            scene.setOnKeyReleased(new EventHandler<KeyEvent>() {
-                public void handle(KeyEvent e) {
-                    String code = e.getCode().toString();
-                    System.out.println("Released: " + code);
-                    input.remove(code);
+                for (Layer layer : Layer.values()) {
+                    if (layers.isDirty(layer)) {
+                        EnvironmentDrawer mediator = layers.begin(layer, timestep.getAlpha());
+                        drawLayer(layer, mediator, dead);
+                        layers.end(layer);
+                    }
                 }
-            });
+                /* Sounds triggered by the ticks of the frame start together */
+                audio.flush(now);
+                profiler.end(framePhase);
+                if (!drawn) {
+                    drawn = true;
+                    onFirstFrame();
+                }
+            }
 
-            /* Start the game loop */
-            new AnimationTimer() {
-                /**
-                 * The game loop, called on each frame.
-                 *
-                 * @param now the timestamp of the current frame in nanoseconds.
-                 */
-                @Override
-                public void handle(long arg0) {
-                    /* Helps scaling the screen. */
-                    double canvasWidth = canvas.getWidth();
-                    double canvasHeight = canvas.getHeight();
-                    double scaleX = canvas.getWidth() / WIDTH;
-                    double scaleY = canvas.getHeight() / HEIGHT;
-                    gc.save();
-                    gc.clearRect(0, 0, canvasWidth, canvasHeight);
-                    gc.scale(scaleX, scaleY);
-
-                    mediator.clearEnvironment();
-                    /* Branching the Game Loop */
-                    /* If the agent died in the last loop */
-                    if (environment.getProtagonist().isDead()) {
-                        /* Still prints ongoing messages (e.g., last hit taken) */
-                        environment.updateMessages();
-                        environment.updateShots();
-                        mediator.drawBackground();
-                        mediator.drawAgents();
-                        mediator.drawShots();
-                        mediator.drawMessages();
-                        /* Rendering the Game Over Screen */
-                        mediator.drawGameOver();
-                    } else {
-                        if (isPaused) {
-                            mediator.drawBackground();
-                            mediator.drawAgents();
-                            mediator.drawMessages();
-                            mediator.drawShots();
-                            /* Rendering the Pause Screen */
-                            mediator.drawPauseScreen();
-                        } else {
-                            /* Forces up or down movement if space is pressed or no fish caught. */
-                            if (isSlowMovingUp || isSlowMoving) {
-                                int posY = environment.getProtagonist().getPosY();
-
-                                if (isSlowMoving) {
-                                    int delta = 10;
-                                    if (posY + delta >= 0) {
-                                        environment.getProtagonist().setPosY(0);
-                                        isSlowMoving = false;
-                                        environment.getProtagonist().setSpeed(8);
-                                        startFishingWait(environment);
-                                    } else {
-                                        environment.getProtagonist().setPosY(posY + delta);
-                                    }
-                                }
-
-                                if (isSlowMovingUp) {
-                                    int delta = -10;
-                                    if (posY + delta <= -138) {
-                                        environment.getProtagonist().setPosY(-138);
-                                        isSlowMovingUp = false;
-                                        environment.getProtagonist().setSpeed(8);
-                                    } else {
-                                        environment.getFish().setPosY(environment.getFish().getPosY() + delta);
-                                        environment.getProtagonist().setPosY(posY + delta);
-                                    }
-                                }
-                            }
-                            /* Update the protagonist's movements if input exists */
-                            if (!input.isEmpty()) {
-                                /* Fishing Rod goes to the sea */
-                                if (input.contains("SPACE")) {
-                                    input.remove("SPACE");
-                                    if (!isSlowMoving && !isSlowMovingUp && !isWaitingForInputKey && !isWaitingForFish) {
-                                        powerUp.play();
-                                        isSlowMoving = true;
-                                        environment.getFish().setPosY(-52);
-                                        environment.getFish().setPosX(-27);
-                                    }
-                                }
-                                /* Fishing Rod's Movements (LEFT AND RIGHT ONLY) */
-                                if (!isSlowMoving && !isWaitingForFish) {
-                                    environment.getProtagonist().move(input);
-                                    environment.getFish().setPosY(-52);
-                                    environment.getFish().setPosX(-27);
-                                }
-                                environment.checkBorders();
-                            }
-                            /* Render the game environment and agents */
-                            environment.detectCollision();
-                            environment.updateShots();
-                            environment.updateMessages();
-                            mediator.drawBackground();
-                            mediator.drawAgents();
-                            mediator.drawFish();
-                            mediator.drawSea();
-                            mediator.drawShots();
-                            if (isWaitingForInputKey) {
-                                mediator.drawInputKey();
-                            }
-                            mediator.drawMessages();
-                            double x = 5;
-                            double y = 20;
-                            gc.setFont(customFont);
-                            gc.setFill(javafx.scene.paint.Color.BLACK);
-                            for (int dx = -2; dx <= 2; dx++) {
-                                for (int dy = -2; dy <= 2; dy++) {
-                                    if (dx != 0 || dy != 0) {
-                                        gc.fillText("Score: " + score, x + dx, y + dy);
-                                    }
-                                }
-                            }
-                            gc.setFill(javafx.scene.paint.Color.WHITE);
-                            gc.fillText("Score: " + score, x, y);
-                        }
+            /**
+             * Runs a single simulation tick, taking the keys from the
+             * replay when there is one and from the keyboard otherwise.
+             *
+             * @param deadline the end time of the tick in nanoseconds
+             */
+            private void runTick(long deadline) {
+                profiler.begin(tickPhase);
+                if (replay != null) {
+                    replay.feed(tick, input);
+                    if (replay.isFinished()) {
+                        LOG.info("Replay finished at tick {}", tick);
+                        LOG.info("Replay took {} ms", (System.nanoTime() - replayStart) / 1_000_000);
+                        replay = null;
+                    }
+                } else {
+                    try {
+                        events.drain(input, deadline, recorder, tick);
+                    } catch (UncheckedIOException e) {
+                        LOG.error("The input log could not be written", e);
+                        closeRecorder();
                     }
-                    gc.restore();
                 }
-            }.start();
-            theStage.show();
+                environment.getClock().advance(timestep.getTickNanos());
+                update(environment, input, timestep.getTickNanos());
+                input.endTick();
+                tick++;
+                profiler.end(tickPhase);
+            }
+        }.start();
+    }
 
-        } catch (
+    /**
+     * Reports the time from the launch to the first interactive frame, then
+     * seals the sprite cache and loads the deferred assets in the background:
+     * the pause and game over screens, the sounds and the music. The music
+     * starts once they are loaded, and the startup trace is written then.
+     */
+    private void onFirstFrame() {
+        trace.mark(StartupTrace.FIRST_FRAME);
+        LOG.info("First frame {} ms after launch", trace.getMillis(StartupTrace.FIRST_FRAME));
+        SpriteCache.getInstance().seal();
+        assets.load(Tier.DEFERRED).whenComplete((ignored, error) -> {
+            if (error != null) {
+                LOG.error("The deferred assets could not be loaded", error);
+            } else {
+                trace.mark(StartupTrace.DEFERRED_ASSETS);
+                Platform.runLater(() -> audioBackend.playMusic(MUSIC, 0.1));
+            }
+            assets.shutdown();
+            writeTrace();
+        });
+    }
 
-        Exception e) {
-            e.printStackTrace();
+    /**
+     * Logs the startup trace and appends it to the trace file, when the
+     * startup is traced.
+     */
+    private void writeTrace() {
+        if (traceFile == null) {
+            return;
+        }
+        LOG.info(trace.report());
+        try {
+            trace.appendCsv(traceFile);
+            LOG.info("Startup trace appended to {}", traceFile.toAbsolutePath());
+        } catch (IOException e) {
+            LOG.error("The startup trace could not be written", e);
         }
     }
 
-    private void adjustCanvasSize(Canvas canvas, double maxWidth, double maxHeight) {
-        double aspectRatio = (double) WIDTH / HEIGHT;
+    /**
+     * Draws the elements of a layer, branching on the state of the game.
+     *
+     * @param layer    the layer being redrawn
+     * @param mediator the drawer of the layer
+     * @param dead     if the protagonist died
+     */
+    private void drawLayer(Layer layer, EnvironmentDrawer mediator, boolean dead) {
+        boolean playing = !dead && !isPaused;
+        switch (layer) {
+            case BACKGROUND:
+                mediator.drawBackground();
+                break;
+            case SPRITES:
+                mediator.drawAgents();
+                if (playing) {
+                    mediator.drawFish();
+                }
+                break;
+            case SEA:
+                if (playing) {
+                    mediator.drawSea();
+                }
+                break;
+            case EFFECTS:
+                mediator.drawShots();
+                if (playing) {
+                    mediator.drawSchool();
+                }
+                if (playing && playerLine.getState() == FishingState.PROMPT) {
+                    mediator.drawInputKey();
+                }
+                mediator.drawMessages();
+                if (showProfiler) {
+                    mediator.drawProfiler(profiler);
+                }
+                break;
+            case HUD:
+                /* Rendering the Game Over or Pause Screen */
+                if (dead) {
+                    mediator.drawGameOver();
+                } else if (isPaused) {
+                    mediator.drawPauseScreen();
+                } else {
+                    mediator.drawScore(playerLine.getScore());
+                }
+                break;
+        }
+    }
 
-        double newWidth = maxWidth;
-        double newHeight = maxWidth / aspectRatio;
+    /**
+     * Reacts to the keys pressed in the tick that are not meant for the
+     * fishing line: the pause and the profiler keys.
+     *
+     * @param environment the game environment
+     * @param input       the keys of the tick
+     */
+    private void handleKeys(Environment environment, InputState input) {
+        if (input.getLastPressed() == null) {
+            return;
+        }
+        if (input.wasPressed(Key.P)) {
+            isPaused = !isPaused;
+            /* Messages and invulnerability stop aging during the pause */
+            environment.getClock().setPaused(isPaused);
+            input.consume(Key.P);
+        }
+        /* Profiler keys: F3 toggles the overlay, F4 dumps the histograms */
+        if (input.wasPressed(Key.F3)) {
+            showProfiler = !showProfiler;
+            input.consume(Key.F3);
+        }
+        if (input.wasPressed(Key.F4)) {
+            dumpProfiler();
+            input.consume(Key.F4);
+        }
+    }
 
-        if (newHeight > maxHeight) {
-            newHeight = maxHeight;
-            newWidth = newHeight * aspectRatio;
+    /**
+     * Plays the sounds of the fishing line of the player and shows its
+     * prompted key.
+     *
+     * @param environment the game environment
+     * @param event       the event raised by the line
+     */
+    private void onFishingEvent(Environment environment, FishingEvent event) {
+        switch (event) {
+            case CAST:
+                audio.trigger(POWER_UP);
+                break;
+            case BITE:
+                environment.setCatchKeyImage(keyImagePath(playerLine.getPromptKey()));
+                FISHING.info("You caught a fish!");
+                break;
+            case NO_BITE:
+                audio.trigger(SYNTH);
+                FISHING.info("No fish this time.");
+                break;
+            case CAUGHT:
+                audio.trigger(PICK_UP);
+                FISHING.info("Success! Correct key pressed. Score: {}", playerLine.getScore());
+                break;
+            case WRONG_KEY:
+                FISHING.info("Wrong key: {}", playerLine.getInput().getLastPressed());
+                break;
+            case TIMED_OUT:
+                FISHING.info("Failed: Time ran out!");
+                break;
         }
+    }
 
-        canvas.setWidth(newWidth);
-        canvas.setHeight(newHeight);
+    /**
+     * Writes the profiler histograms to a CSV file in the working directory.
+     */
+    private void dumpProfiler() {
+        Path path = Paths.get("profile-" + System.currentTimeMillis() + ".csv");
+        try (Writer writer = Files.newBufferedWriter(path)) {
+            profiler.writeCsv(writer);
+            LOG.info("Profile written to {}", path.toAbsolutePath());
+        } catch (IOException e) {
+            LOG.error("The profile could not be written", e);
+        }
     }
 
-    private void startFishingWait(Environment environment) {
-        isWaitingForFish = true;
-        
-        int waitMillis = 2000 + (int)(Math.random() * 2000); // 2000–4000ms
-        PauseTransition wait = new PauseTransition(Duration.millis(waitMillis));
+    /**
+     * Advances the simulation by a single fixed tick.
+     *
+     * @param environment the game environment
+     * @param input       the keys of the tick
+     * @param tickNanos   the length of a tick in nanoseconds
+     */
+    private void update(Environment environment, InputState input, long tickNanos) {
+        profiler.begin(inputPhase);
+        handleKeys(environment, input);
+        profiler.end(inputPhase);
+        environment.storePreviousPositions();
+        /* If the agent died in the last tick */
+        if (environment.getProtagonist().isDead()) {
+            /* Still updates ongoing messages (e.g., last hit taken) */
+            environment.updateMessages();
+            environment.updateShots();
+            environment.updateAnimations(tickNanos);
+            return;
+        }
+        if (isPaused) {
+            return;
+        }
+        /* The fishing lines are updated by the environment */
+        environment.step(tickNanos);
+    }
 
-        wait.setOnFinished(event -> {
-            isWaitingForFish = false;
+    /**
+     * Creates the simulation timestep from the named parameters
+     * {@code --tick-rate=<ticks per second>} and
+     * {@code --time-scale=<multiplier>}.
+     *
+     * @return the configured timestep
+     */
+    private FixedTimestep createTimestep() {
+        FixedTimestep timestep = new FixedTimestep(getTickRate());
+        timestep.setTimeScale(Double.parseDouble(getParameters().getNamed().getOrDefault("time-scale", "1.0")));
+        return timestep;
+    }
 
-            // 🎣 Determine fishing outcome
-            boolean caughtFish = Math.random() < 0.85; // 50% chance
+    /**
+     * Gets the tick rate of the session: the recorded one when replaying,
+     * otherwise the named parameter {@code --tick-rate=<ticks per second>}.
+     *
+     * @return the number of ticks per second
+     */
+    private int getTickRate() {
+        if (replay != null) {
+            return replay.getTickRate();
+        }
+        return Integer.parseInt(getParameters().getNamed()
+                .getOrDefault("tick-rate", String.valueOf(FixedTimestep.DEFAULT_TICK_RATE)));
+    }
 
-            if (caughtFish) {
-                System.out.println("You caught a fish!");
-                decideKey(environment);
-                // You can trigger animation, sound, or add to inventory here
-            } else {
-                isSlowMovingUp = true;
-                synth.play();
-                System.out.println("No fish this time.");
-            }
-        });
+    /**
+     * Creates the fish swimming below the sea line, as many as the named
+     * parameter {@code --fish=<count>} asks for.
+     *
+     * @return the school
+     */
+    private FishSchool createSchool() {
+        int count = Integer.parseInt(getParameters().getNamed().getOrDefault("fish", String.valueOf(DEFAULT_FISH)));
+        FishSchool school = new FishSchool(0, Environment.SEA_LINE,
+                WIDTH - FishSchool.FISH_WIDTH, HEIGHT - FishSchool.FISH_HEIGHT, count, random);
+        school.setSprite("/images/agents/Fish.png");
+        school.spawn(count);
+        return school;
+    }
 
-        wait.play();
+    /**
+     * Sets up the randomness, recording and replay of the session from the
+     * named parameters {@code --seed=<number>}, {@code --record=<path>},
+     * {@code --replay=<path>} and {@code --replay-speed=real|fast}, and
+     * whether the startup is traced, with {@code --startup-trace} or
+     * {@code --startup-trace=<path>}.
+     * <p>
+     * A replay takes its seed and tick rate from the log and ignores the
+     * keyboard until its last event, after which the game goes on live.
+     * </p>
+     *
+     * @throws IOException if the log cannot be read or written
+     */
+    private void configureSession() throws IOException {
+        Map<String, String> named = getParameters().getNamed();
+        long seed;
+        if (named.containsKey("replay")) {
+            replay = InputReplay.load(Paths.get(named.get("replay")));
+            fastReplay = "fast".equals(named.get("replay-speed"));
+            seed = replay.getSeed();
+            LOG.info("Replaying {} ticks", replay.getLastTick());
+        } else if (named.containsKey("seed")) {
+            seed = Long.parseLong(named.get("seed"));
+        } else {
+            seed = GameRandom.newSeed();
+        }
+        random = new GameRandom(seed);
+        LOG.info("Random seed: {}", seed);
+        if (named.containsKey("record")) {
+            recorder = new InputRecorder(Paths.get(named.get("record")), seed, getTickRate());
+        }
+        if (named.containsKey("startup-trace")) {
+            traceFile = Paths.get(named.get("startup-trace"));
+        } else if (getParameters().getUnnamed().contains("--startup-trace")) {
+            traceFile = Paths.get(DEFAULT_TRACE_FILE);
+        }
     }
 
-    private void decideKey(Environment environment) {
-        Random random = new Random();
-        int randomIndex = random.nextInt(keysArray.length);
-        inputKey = keysArray[randomIndex];
-        environment.setCatchKeyImage("/images/Agents/" + inputKey + "Key.png");
-        isWaitingForInputKey = true; // <-- Add this line
-        if (inputKeyTimer != null) inputKeyTimer.stop();
-        double seconds = Math.max(0.85, 2.0 - score * 0.07);
-        inputKeyTimer = new PauseTransition(Duration.seconds(seconds));
-        inputKeyTimer.setOnFinished(event -> {
-            if (isWaitingForInputKey) {
-                isWaitingForInputKey = false;
-                System.out.println("Failed: Time ran out!");
-                score = 0;
-                isSlowMovingUp = true;
-                // You can add fail logic here
-            }
-        });
-        inputKeyTimer.play();
+    /**
+     * Closes the input log being recorded, if any.
+     */
+    private void closeRecorder() {
+        if (recorder == null) {
+            return;
+        }
+        try {
+            recorder.close();
+        } catch (IOException e) {
+            LOG.error("The input log could not be written", e);
+        }
+        recorder = null;
+    }
+
+    /**
+     * Configures the log from the named parameters
+     * {@code --log-level=<levels>}, such as {@code WARN,fishing=DEBUG}, and
+     * {@code --log-file=<path>}, which writes the log to a file instead of
+     * stdout.
+     *
+     * @throws IOException if the log file cannot be opened
+     */
+    private void configureLogging() throws IOException {
+        Map<String, String> named = getParameters().getNamed();
+        if (named.containsKey("log-level")) {
+            AsyncLog.getInstance().configure(named.get("log-level"));
+        }
+        if (named.containsKey("log-file")) {
+            AsyncLog.getInstance().setOutput(Paths.get(named.get("log-file")));
+        }
+    }
+
+    /**
+     * Called when the application exits, reporting the sprite cache usage and
+     * flushing the logs.
+     */
+    @Override
+    public void stop() {
+        closeRecorder();
+        LOG.info(SpriteCache.getInstance().report());
+        if (layers != null) {
+            LOG.info(layers.report());
+        }
+        if (audio != null) {
+            LOG.info(audio.report());
+            audioBackend.stopMusic();
+        }
+        AsyncLog.getInstance().shutdown();
+    }
+
+    private void adjustCanvasSize(double maxWidth, double maxHeight) {
+        if (layers == null) {
+            return;
+        }
+        /* The layers keep the logical size, only their upscale changes */
+        if (screen != null) {
+            screen.resize(maxWidth, maxHeight);
+            return;
+        }
+        double aspectRatio = (double) WIDTH / HEIGHT;
+
+        double newWidth = maxWidth;
+        double newHeight = maxWidth / aspectRatio;
+
+        if (newHeight > maxHeight) {
+            newHeight = maxHeight;
+            newWidth = newHeight * aspectRatio;
+        }
+
+        layers.resize(newWidth, newHeight);
+    }
+
+    private String keyImagePath(Key key) {
+        /* Resource names are case-sensitive inside the jar (e.g. "UP" -> UpKey.png). */
+        String name = key.name().charAt(0) + key.name().substring(1).toLowerCase();
+        return "/images/agents/" + name + "Key.png";
     }
 }
\ No newline at end of file
@@ -0,0 +1,164 @@
+package chon.group;
+
+import java.util.concurrent.ForkJoinPool;
+
+import chon.group.game.core.FixedTimestep;
+import chon.group.game.core.GameRandom;
+import chon.group.game.core.InputState;
+import chon.group.game.core.Key;
+import chon.group.game.domain.agent.Agent;
+import chon.group.game.domain.agent.Cannon;
+import chon.group.game.domain.agent.ShotPool;
+import chon.group.game.domain.agent.Weapon;
+import chon.group.game.domain.environment.Environment;
+import chon.group.game.domain.fishing.FishingEvent;
+import chon.group.game.domain.fishing.FishingLine;
+import chon.group.game.domain.fishing.FishingState;
+
+/**
+ * The {@code HeadlessRunner} class steps the game simulation without any
+ * graphics toolkit, as fast as the CPU allows.
+ * <p>
+ * The simulation core only references sprites by identifier, so this runner
+ * needs no JavaFX runtime and no display. It is meant for running simulated
+ * sessions on build machines.
+ * </p>
+ * <p>
+ * Usage: {@code java -cp game.jar chon.group.HeadlessRunner [ticks] [agents] [seed] [threads] [lines]}
+ * </p>
+ */
+public class HeadlessRunner {
+
+    /** The width of the simulated environment. */
+    private static final int WIDTH = 320;
+
+    /** The height of the simulated environment. */
+    private static final int HEIGHT = 280;
+
+    /** Ticks between two shots fired by each agent. */
+    private static final int FIRE_INTERVAL = 30;
+
+    /** Ticks between two answers of the bots playing the fishing lines. */
+    private static final int BOT_REACTION_TICKS = 20;
+
+    /**
+     * Entry point of the headless simulation.
+     *
+     * @param args the number of ticks, the number of agents, the random seed,
+     *             the number of threads updating the agents and the number of
+     *             fishing lines played by bots
+     */
+    public static void main(String[] args) {
+        long ticks = (args.length > 0) ? Long.parseLong(args[0]) : 100_000;
+        int agents = (args.length > 1) ? Integer.parseInt(args[1]) : 100;
+        long seed = (args.length > 2) ? Long.parseLong(args[2]) : 42;
+        int threads = (args.length > 3) ? Integer.parseInt(args[3]) : ForkJoinPool.getCommonPoolParallelism();
+        int lines = (args.length > 4) ? Integer.parseInt(args[4]) : 0;
+
+        GameRandom random = new GameRandom(seed);
+        Environment environment = createEnvironment(agents, random);
+        environment.setAgentPool(new ForkJoinPool(threads));
+        int[] caught = new int[1];
+        for (int i = 0; i < lines; i++) {
+            FishingLine line = new FishingLine(
+                    new Agent(random.nextInt(WIDTH - 32), FishingLine.ROD_TOP, 250, 32, 8, 500,
+                            "/images/agents/FishingRod.png"),
+                    new Agent(-27, -52, 52, 27, 1, 500, "/images/agents/Fish.png"),
+                    new InputState(), random);
+            line.setListener((l, event) -> {
+                if (event == FishingEvent.CAUGHT)
+                    caught[0]++;
+            });
+            environment.addLine(line);
+        }
+        long tickNanos = new FixedTimestep().getTickNanos();
+
+        long start = System.nanoTime();
+        for (long tick = 0; tick < ticks; tick++) {
+            playLines(environment, tick);
+            step(environment, tick, tickNanos);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("Simulated %d ticks with %d agents in %.3f s (%.0f ticks/s)%n",
+                ticks, agents, seconds, ticks / seconds);
+        System.out.printf("Agents alive: %d, shots: %d, messages: %d, protagonist health: %d%n",
+                environment.getAgents().size(),
+                environment.getShots().size(),
+                environment.getMessages().size(),
+                environment.getProtagonist().getHealth());
+        if (lines > 0)
+            System.out.printf("Fishing lines: %d, fish caught: %d%n", lines, caught[0]);
+        for (ShotPool pool : environment.getShotPools())
+            System.out.println(pool);
+    }
+
+    /**
+     * Creates an environment with a protagonist in the center and armed agents
+     * spread around it.
+     *
+     * @param agents the number of agents
+     * @param random the random generator used to place the agents
+     * @return the populated environment
+     */
+    static Environment createEnvironment(int agents, GameRandom random) {
+        Environment environment = new Environment(0, 0, WIDTH, HEIGHT, "/images/environment/Sky.png");
+        Agent protagonist = new Agent(WIDTH / 2, HEIGHT / 2, 32, 32, 2, 500, "/images/agents/chonBota.png");
+        environment.setProtagonist(protagonist);
+        for (int i = 0; i < agents; i++) {
+            Agent agent = new Agent(random.nextInt(WIDTH), random.nextInt(HEIGHT), 22, 30, 1, 500,
+                    "/images/agents/chonBot.png");
+            agent.setWeapon(new Cannon(0, 0, 0, 0, 3, 0, "", false));
+            environment.addAgent(agent);
+        }
+        return environment;
+    }
+
+    /**
+     * Presses the keys of the bots playing the fishing lines: each bot casts
+     * as soon as its line is idle and answers the prompt a few ticks after
+     * the bite, sometimes with a wrong key.
+     *
+     * @param environment the simulated environment
+     * @param tick        the index of the tick
+     */
+    static void playLines(Environment environment, long tick) {
+        for (int i = 0; i < environment.getLines().size(); i++) {
+            FishingLine line = environment.getLines().get(i);
+            InputState input = line.getInput();
+            input.endTick();
+            input.clear();
+            if (line.getState() == FishingState.IDLE) {
+                input.press(Key.SPACE, tick);
+            } else if (line.getState() == FishingState.PROMPT && (tick + i) % BOT_REACTION_TICKS == 0) {
+                input.press((tick + i) % (BOT_REACTION_TICKS * 5) == 0 ? Key.P : line.getPromptKey(), tick);
+            }
+        }
+    }
+
+    /**
+     * Advances the simulation by a single tick: agents chase the protagonist,
+     * fire periodically, and the environment resolves the tick.
+     *
+     * @param environment the simulated environment
+     * @param tick        the index of the tick
+     * @param tickNanos   the length of a tick in nanoseconds
+     */
+    static void step(Environment environment, long tick, long tickNanos) {
+        Agent protagonist = environment.getProtagonist();
+        int targetX = protagonist.getPosX();
+        int targetY = protagonist.getPosY();
+        environment.getClock().advance(tickNanos);
+        environment.storePreviousPositions();
+        environment.updateAgents((agent, i, effects) -> {
+            agent.chase(targetX, targetY);
+            Weapon weapon = agent.getWeapon();
+            if (weapon != null && (tick + i) % FIRE_INTERVAL == 0) {
+                String direction = (targetX > agent.getPosX()) ? "RIGHT" : "LEFT";
+                effects.fire(weapon, agent.getPosX(), agent.getPosY(), direction);
+            }
+        });
+        environment.step(tickNanos);
+    }
+
+}
@@ -0,0 +1,244 @@
+package chon.group.game.asset;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import chon.group.game.asset.AssetManifest.Entry;
+import chon.group.game.asset.AssetManifest.Tier;
+import chon.group.game.asset.AssetManifest.Type;
+import chon.group.game.logging.Logger;
+import javafx.scene.image.Image;
+import javafx.scene.media.AudioClip;
+import javafx.scene.media.Media;
+import javafx.scene.text.Font;
+
+/**
+ * The {@code AssetLoader} class decodes the assets of an {@link AssetManifest}
+ * on a pool of worker threads, so the JavaFX application thread only has to
+ * poll the progress while a loading screen is shown.
+ * <p>
+ * Images go into the {@link SpriteCache}, atlas sprites are decoded in
+ * parallel and packed into a single {@link TextureAtlas} once all of them are
+ * ready, and sounds, music and fonts are kept by the loader. A missing
+ * required asset fails the load; a missing optional one is only reported.
+ * </p>
+ */
+public final class AssetLoader {
+
+    private static final Logger LOG = Logger.get("assets");
+
+    /** Size of the font loaded to register a family. */
+    private static final double FONT_SIZE = 14;
+
+    /** The assets of the game. */
+    private final AssetManifest manifest;
+
+    /** The worker threads decoding the assets. */
+    private final ExecutorService workers;
+
+    /** The sound effects, keyed by resource path. */
+    private final ConcurrentMap<String, AudioClip> sounds = new ConcurrentHashMap<>();
+
+    /** The music tracks, keyed by resource path. */
+    private final ConcurrentMap<String, Media> music = new ConcurrentHashMap<>();
+
+    /** Number of assets requested so far. */
+    private final AtomicInteger total = new AtomicInteger();
+
+    /** Number of assets loaded, or skipped, so far. */
+    private final AtomicInteger done = new AtomicInteger();
+
+    /**
+     * Constructor to initialize a loader with one worker per available core.
+     *
+     * @param manifest the assets of the game
+     */
+    public AssetLoader(AssetManifest manifest) {
+        this(manifest, Math.max(1, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Constructor to initialize a loader.
+     *
+     * @param manifest the assets of the game
+     * @param threads  the number of worker threads
+     */
+    public AssetLoader(AssetManifest manifest, int threads) {
+        this.manifest = manifest;
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "asset-loader-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts loading the assets of a tier in the background.
+     *
+     * @param tier the tier to load
+     * @return a future completed once every asset of the tier is ready, or
+     *         completed exceptionally if a required asset is missing
+     */
+    public CompletableFuture<Void> load(Tier tier) {
+        List<Entry> entries = this.manifest.getEntries(tier);
+        this.total.addAndGet(entries.size());
+        long start = System.nanoTime();
+
+        List<CompletableFuture<Void>> tasks = new ArrayList<CompletableFuture<Void>>();
+        List<Entry> atlasEntries = new ArrayList<Entry>();
+        for (Entry entry : entries) {
+            if (entry.getType() == Type.ATLAS) {
+                atlasEntries.add(entry);
+            } else {
+                tasks.add(CompletableFuture.runAsync(() -> this.loadEntry(entry), this.workers));
+            }
+        }
+        if (!atlasEntries.isEmpty()) {
+            tasks.add(this.loadAtlas(atlasEntries));
+        }
+        return CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0]))
+                .thenRun(() -> {
+                    LOG.info("Loaded the {} assets", tier);
+                    LOG.info("The load took {} ms", (System.nanoTime() - start) / 1_000_000);
+                });
+    }
+
+    /**
+     * Decodes the sprites of an atlas in parallel, then packs them in the
+     * order of the manifest and registers the atlas.
+     *
+     * @param entries the atlas entries of a tier
+     * @return a future completed once the atlas is registered
+     */
+    private CompletableFuture<Void> loadAtlas(List<Entry> entries) {
+        ConcurrentMap<String, Image> decoded = new ConcurrentHashMap<>();
+        List<CompletableFuture<Void>> decodes = new ArrayList<CompletableFuture<Void>>();
+        for (Entry entry : entries) {
+            decodes.add(CompletableFuture.runAsync(() -> {
+                if (this.find(entry) != null) {
+                    decoded.put(entry.getPath(), SpriteCache.decodeResource(entry.getPath()));
+                }
+            }, this.workers));
+        }
+        return CompletableFuture.allOf(decodes.toArray(new CompletableFuture<?>[0])).thenRunAsync(() -> {
+            /* Packs in manifest order, whichever sprite was decoded first */
+            Map<String, Image> sources = new LinkedHashMap<String, Image>();
+            for (Entry entry : entries) {
+                Image image = decoded.get(entry.getPath());
+                if (image != null) {
+                    sources.put(entry.getPath(), image);
+                }
+            }
+            if (!sources.isEmpty()) {
+                SpriteCache.getInstance().register(TextureAtlas.pack(sources, TextureAtlas.DEFAULT_MAX_WIDTH));
+            }
+            this.done.addAndGet(entries.size());
+        }, this.workers);
+    }
+
+    /**
+     * Decodes a single asset that is not part of an atlas.
+     *
+     * @param entry the asset
+     */
+    private void loadEntry(Entry entry) {
+        URL resource = this.find(entry);
+        if (resource != null) {
+            switch (entry.getType()) {
+                case IMAGE:
+                    SpriteCache.getInstance().get(entry.getPath());
+                    break;
+                case SOUND:
+                    this.sounds.put(entry.getPath(), new AudioClip(resource.toExternalForm()));
+                    break;
+                case MUSIC:
+                    this.music.put(entry.getPath(), new Media(resource.toExternalForm()));
+                    break;
+                case FONT:
+                    loadFont(resource);
+                    break;
+                case ATLAS:
+                    throw new IllegalStateException("Atlas sprites are packed together: " + entry);
+            }
+        }
+        this.done.incrementAndGet();
+    }
+
+    /**
+     * Locates an asset on the classpath.
+     *
+     * @param entry the asset
+     * @return the resource, or null if an optional asset is missing
+     * @throws IllegalArgumentException if a required asset is missing
+     */
+    private URL find(Entry entry) {
+        URL resource = AssetLoader.class.getResource(entry.getPath());
+        if (resource == null) {
+            if (!entry.isOptional()) {
+                throw new IllegalArgumentException("Asset not found: " + entry.getPath());
+            }
+            LOG.warn("Optional asset not found: {}", entry.getPath());
+        }
+        return resource;
+    }
+
+    private static void loadFont(URL resource) {
+        try (InputStream stream = resource.openStream()) {
+            if (Font.loadFont(stream, FONT_SIZE) == null) {
+                LOG.warn("The font {} could not be loaded", resource);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Gets the share of the requested assets that are ready.
+     *
+     * @return the progress, from 0 to 1
+     */
+    public double getProgress() {
+        int requested = this.total.get();
+        return (requested == 0) ? 1.0 : (double) this.done.get() / requested;
+    }
+
+    /**
+     * Gets a loaded sound effect.
+     *
+     * @param path the classpath resource path of the sound
+     * @return the sound, or null if it was optional and missing
+     */
+    public AudioClip getSound(String path) {
+        return this.sounds.get(path);
+    }
+
+    /**
+     * Gets a loaded music track.
+     *
+     * @param path the classpath resource path of the music
+     * @return the music, or null if it was optional and missing
+     */
+    public Media getMusic(String path) {
+        return this.music.get(path);
+    }
+
+    /**
+     * Stops the worker threads once the pending assets are loaded.
+     */
+    public void shutdown() {
+        this.workers.shutdown();
+    }
+}
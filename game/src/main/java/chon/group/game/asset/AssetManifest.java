@@ -0,0 +1,211 @@
+package chon.group.game.asset;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The {@code AssetManifest} class lists every asset of the game, read from a
+ * plain text resource so that adding a sprite or a sound does not touch the
+ * loading code.
+ * <p>
+ * Each line of the manifest holds a {@link Tier}, a {@link Type}, the
+ * classpath resource path and, optionally, the word {@code optional}. Blank
+ * lines and lines starting with {@code #} are ignored.
+ * </p>
+ */
+public final class AssetManifest {
+
+    /** The classpath location of the manifest of the game. */
+    public static final String DEFAULT_PATH = "/assets.manifest";
+
+    /**
+     * The kinds of assets, which tell how each one is decoded.
+     */
+    public enum Type {
+        /** An image decoded into the {@link SpriteCache}. */
+        IMAGE,
+        /** An image packed into the shared {@link TextureAtlas}. */
+        ATLAS,
+        /** A short sound effect, decoded into memory. */
+        SOUND,
+        /** A music track, streamed while it plays. */
+        MUSIC,
+        /** A font family registered for the whole application. */
+        FONT
+    }
+
+    /**
+     * The moments at which assets are loaded.
+     */
+    public enum Tier {
+        /** Loaded behind the progress screen, before the first frame. */
+        STARTUP,
+        /** Loaded in the background once the game is running. */
+        DEFERRED
+    }
+
+    /**
+     * A single asset of the manifest.
+     */
+    public static final class Entry {
+
+        /** When the asset is loaded. */
+        private final Tier tier;
+
+        /** How the asset is decoded. */
+        private final Type type;
+
+        /** The classpath resource path of the asset. */
+        private final String path;
+
+        /** If the game can run without the asset. */
+        private final boolean optional;
+
+        /**
+         * Constructor to initialize an entry.
+         *
+         * @param tier     when the asset is loaded
+         * @param type     how the asset is decoded
+         * @param path     the classpath resource path
+         * @param optional if the game can run without the asset
+         */
+        public Entry(Tier tier, Type type, String path, boolean optional) {
+            this.tier = tier;
+            this.type = type;
+            this.path = path;
+            this.optional = optional;
+        }
+
+        /**
+         * Gets when the asset is loaded.
+         *
+         * @return the tier
+         */
+        public Tier getTier() {
+            return tier;
+        }
+
+        /**
+         * Gets how the asset is decoded.
+         *
+         * @return the type
+         */
+        public Type getType() {
+            return type;
+        }
+
+        /**
+         * Gets the classpath resource path of the asset.
+         *
+         * @return the path
+         */
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * Checks whether the game can run without the asset.
+         *
+         * @return true if a missing asset is only reported
+         */
+        public boolean isOptional() {
+            return optional;
+        }
+
+        @Override
+        public String toString() {
+            return this.tier + " " + this.type + " " + this.path + (this.optional ? " optional" : "");
+        }
+    }
+
+    /** The entries, in the order of the manifest. */
+    private final List<Entry> entries;
+
+    private AssetManifest(List<Entry> entries) {
+        this.entries = Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Reads a manifest from the classpath.
+     *
+     * @param resource the classpath resource path of the manifest
+     * @return the manifest
+     * @throws IOException              if the manifest cannot be read
+     * @throws IllegalArgumentException if a line is malformed
+     */
+    public static AssetManifest load(String resource) throws IOException {
+        InputStream stream = AssetManifest.class.getResourceAsStream(resource);
+        if (stream == null) {
+            throw new IOException("Asset manifest not found: " + resource);
+        }
+        List<Entry> entries = new ArrayList<Entry>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+            String line;
+            int number = 0;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                entries.add(parse(line, number));
+            }
+        }
+        return new AssetManifest(entries);
+    }
+
+    /**
+     * Parses a single line of the manifest.
+     *
+     * @param line   the trimmed line
+     * @param number the line number, for the error message
+     * @return the entry
+     * @throws IllegalArgumentException if the line is malformed
+     */
+    private static Entry parse(String line, int number) {
+        String[] fields = line.split("\\s+");
+        if (fields.length < 3 || fields.length > 4
+                || (fields.length == 4 && !"optional".equals(fields[3]))) {
+            throw new IllegalArgumentException("Malformed asset at line " + number + ": " + line);
+        }
+        try {
+            Tier tier = Tier.valueOf(fields[0].toUpperCase(Locale.ROOT));
+            Type type = Type.valueOf(fields[1].toUpperCase(Locale.ROOT));
+            return new Entry(tier, type, fields[2], fields.length == 4);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown tier or type at line " + number + ": " + line, e);
+        }
+    }
+
+    /**
+     * Gets every entry of the manifest.
+     *
+     * @return the entries, in the order of the manifest
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Gets the entries loaded at a given moment.
+     *
+     * @param tier the tier
+     * @return the entries of the tier, in the order of the manifest
+     */
+    public List<Entry> getEntries(Tier tier) {
+        List<Entry> list = new ArrayList<Entry>();
+        for (Entry entry : this.entries) {
+            if (entry.getTier() == tier) {
+                list.add(entry);
+            }
+        }
+        return list;
+    }
+}
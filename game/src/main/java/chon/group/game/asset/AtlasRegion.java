@@ -0,0 +1,99 @@
+package chon.group.game.asset;
+
+import javafx.scene.image.Image;
+
+/**
+ * Represents a rectangular area of a texture holding a single sprite.
+ * Sprites packed in a {@link TextureAtlas} share the same texture, while
+ * standalone images are described by a region covering the whole image.
+ */
+public class AtlasRegion {
+
+    /** The texture holding the sprite. */
+    private final Image texture;
+
+    /** The X (horizontal) position of the sprite inside the texture. */
+    private final int x;
+
+    /** The Y (vertical) position of the sprite inside the texture. */
+    private final int y;
+
+    /** The width of the sprite. */
+    private final int width;
+
+    /** The height of the sprite. */
+    private final int height;
+
+    /**
+     * Constructor to initialize the region.
+     *
+     * @param texture the texture holding the sprite
+     * @param x       the X (horizontal) position inside the texture
+     * @param y       the Y (vertical) position inside the texture
+     * @param width   the width of the sprite
+     * @param height  the height of the sprite
+     */
+    public AtlasRegion(Image texture, int x, int y, int width, int height) {
+        this.texture = texture;
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Creates a region covering a whole image.
+     *
+     * @param image the standalone image
+     * @return the region covering the image
+     */
+    public static AtlasRegion of(Image image) {
+        return new AtlasRegion(image, 0, 0, (int) image.getWidth(), (int) image.getHeight());
+    }
+
+    /**
+     * Gets the texture holding the sprite.
+     *
+     * @return the texture
+     */
+    public Image getTexture() {
+        return texture;
+    }
+
+    /**
+     * Gets the X (horizontal) position of the sprite inside the texture.
+     *
+     * @return the X position
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Gets the Y (vertical) position of the sprite inside the texture.
+     *
+     * @return the Y position
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Gets the width of the sprite.
+     *
+     * @return the width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the height of the sprite.
+     *
+     * @return the height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+}
@@ -0,0 +1,276 @@
+package chon.group.game.asset;
+
+import java.net.URL;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import chon.group.game.core.SpriteRegistry;
+import chon.group.game.logging.Logger;
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+
+/**
+ * The {@code SpriteCache} class is the central store for every decoded image
+ * used by the game. Images are keyed by their classpath resource path and
+ * decoded only once, so every entity, shot and screen using the same file
+ * shares the same {@link Image} instance.
+ * <p>
+ * The cache also keeps hit and miss counters and an estimate of the memory
+ * held by the decoded images. Once the preloader is done the cache can be
+ * {@linkplain #seal() sealed}, after which any image decoded on the JavaFX
+ * application thread is reported, since it stalls a frame.
+ * </p>
+ */
+public final class SpriteCache {
+
+    private static final Logger LOG = Logger.get("assets");
+
+    /** The shared cache instance. */
+    private static final SpriteCache INSTANCE = new SpriteCache();
+
+    /** Bytes used by each decoded pixel (32-bit ARGB). */
+    private static final int BYTES_PER_PIXEL = 4;
+
+    /** The decoded images, keyed by resource path. */
+    private final ConcurrentMap<String, Image> images = new ConcurrentHashMap<>();
+
+    /** The regions of every sprite drawn so far, keyed by resource path. */
+    private final ConcurrentMap<String, AtlasRegion> regions = new ConcurrentHashMap<>();
+
+    /** The regions indexed by sprite identifier, filled on first use. */
+    private volatile AtlasRegion[] regionsById = new AtlasRegion[64];
+
+    /** The atlases registered in the cache. */
+    private final List<TextureAtlas> atlases = new CopyOnWriteArrayList<>();
+
+    /** Number of requests served from the cache. */
+    private final LongAdder hits = new LongAdder();
+
+    /** Number of requests that had to decode the image. */
+    private final LongAdder misses = new LongAdder();
+
+    /** If decoding on the JavaFX application thread is reported. */
+    private volatile boolean sealed = false;
+
+    private SpriteCache() {
+    }
+
+    /**
+     * Gets the shared sprite cache.
+     *
+     * @return the sprite cache instance
+     */
+    public static SpriteCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Gets the decoded image for a resource path, decoding it on the first
+     * request only.
+     *
+     * @param path the classpath resource path of the image
+     * @return the shared decoded image
+     * @throws IllegalArgumentException if the resource does not exist
+     */
+    public Image get(String path) {
+        Image image = this.images.get(path);
+        if (image != null) {
+            this.hits.increment();
+            return image;
+        }
+        return this.images.computeIfAbsent(path, this::decode);
+    }
+
+    /**
+     * Gets the region to draw for a resource path. Sprites packed in a
+     * registered atlas are served from the atlas texture; any other sprite is
+     * decoded on its own and covered by a whole-image region.
+     *
+     * @param path the classpath resource path of the image
+     * @return the region holding the sprite
+     */
+    public AtlasRegion getRegion(String path) {
+        AtlasRegion region = this.regions.get(path);
+        if (region != null) {
+            return region;
+        }
+        return this.regions.computeIfAbsent(path, key -> AtlasRegion.of(this.get(key)));
+    }
+
+    /**
+     * Gets the region to draw for a sprite identifier from the
+     * {@link SpriteRegistry}.
+     *
+     * @param spriteId the sprite identifier
+     * @return the region holding the sprite
+     * @throws IllegalArgumentException if the identifier is unknown
+     */
+    public AtlasRegion getRegion(int spriteId) {
+        AtlasRegion[] table = this.regionsById;
+        if (spriteId >= 0 && spriteId < table.length && table[spriteId] != null) {
+            return table[spriteId];
+        }
+        String path = SpriteRegistry.path(spriteId);
+        if (path == null) {
+            throw new IllegalArgumentException("Unknown sprite: " + spriteId);
+        }
+        AtlasRegion region = this.getRegion(path);
+        synchronized (this) {
+            table = this.regionsById;
+            if (spriteId >= table.length) {
+                table = Arrays.copyOf(table, Math.max(table.length * 2, spriteId + 1));
+            }
+            table[spriteId] = region;
+            this.regionsById = table;
+        }
+        return region;
+    }
+
+    /**
+     * Registers an atlas so its sprites are drawn from the packed texture.
+     *
+     * @param atlas the packed atlas
+     */
+    public void register(TextureAtlas atlas) {
+        this.atlases.add(atlas);
+        this.regions.putAll(atlas.getRegions());
+        synchronized (this) {
+            this.regionsById = new AtlasRegion[this.regionsById.length];
+        }
+    }
+
+    /**
+     * Seals the cache once every image needed by the game has been preloaded,
+     * so that any later decode on the JavaFX application thread is reported.
+     */
+    public void seal() {
+        this.sealed = true;
+    }
+
+    /**
+     * Checks whether the cache has been sealed.
+     *
+     * @return true if decoding on the JavaFX application thread is reported
+     */
+    public boolean isSealed() {
+        return this.sealed;
+    }
+
+    /**
+     * Checks if a resource path has already been decoded.
+     *
+     * @param path the classpath resource path of the image
+     * @return true if the image is cached
+     */
+    public boolean contains(String path) {
+        return this.images.containsKey(path);
+    }
+
+    /**
+     * Gets the number of requests served from the cache.
+     *
+     * @return the number of hits
+     */
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * Gets the number of requests that decoded a new image.
+     *
+     * @return the number of misses
+     */
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * Gets the number of decoded images held by the cache.
+     *
+     * @return the number of cached images
+     */
+    public int size() {
+        return this.images.size();
+    }
+
+    /**
+     * Estimates the memory held by the decoded images, assuming 32-bit pixels.
+     *
+     * @return the estimated footprint in bytes
+     */
+    public long getMemoryFootprint() {
+        long bytes = 0;
+        for (Image image : this.images.values()) {
+            bytes += (long) image.getWidth() * (long) image.getHeight() * BYTES_PER_PIXEL;
+        }
+        for (TextureAtlas atlas : this.atlases) {
+            Image texture = atlas.getTexture();
+            bytes += (long) texture.getWidth() * (long) texture.getHeight() * BYTES_PER_PIXEL;
+        }
+        return bytes;
+    }
+
+    /**
+     * Builds a one-line summary of the cache usage.
+     *
+     * @return the cache report
+     */
+    public String report() {
+        return String.format("SpriteCache: %d images, %d atlases, %d hits, %d misses, %.1f KB",
+                this.size(),
+                this.atlases.size(),
+                this.getHits(),
+                this.getMisses(),
+                this.getMemoryFootprint() / 1024.0);
+    }
+
+    /**
+     * Removes every decoded image and resets the counters.
+     */
+    public void clear() {
+        this.images.clear();
+        this.regions.clear();
+        this.atlases.clear();
+        synchronized (this) {
+            this.regionsById = new AtlasRegion[this.regionsById.length];
+        }
+        this.hits.reset();
+        this.misses.reset();
+        this.sealed = false;
+    }
+
+    /**
+     * Decodes an image from the classpath.
+     *
+     * @param path the classpath resource path of the image
+     * @return the decoded image
+     */
+    private Image decode(String path) {
+        if (this.sealed && Platform.isFxApplicationThread()) {
+            LOG.warn("Decoding {} during gameplay, it is missing from the asset manifest", path);
+        }
+        Image image = decodeResource(path);
+        this.misses.increment();
+        return image;
+    }
+
+    /**
+     * Decodes an image from the classpath without caching it.
+     *
+     * @param path the classpath resource path of the image
+     * @return the decoded image
+     * @throws IllegalArgumentException if the resource does not exist
+     */
+    static Image decodeResource(String path) {
+        URL resource = SpriteCache.class.getResource(path);
+        if (resource == null) {
+            throw new IllegalArgumentException("Sprite not found: " + path);
+        }
+        return new Image(resource.toExternalForm());
+    }
+
+}
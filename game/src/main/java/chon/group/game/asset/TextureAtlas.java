@@ -0,0 +1,152 @@
+package chon.group.game.asset;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+
+/**
+ * The {@code TextureAtlas} class merges several small sprites into a single
+ * texture at load time and keeps a table with the region of each sprite.
+ * <p>
+ * Sprites are placed in rows (shelves) ordered by height, which works well
+ * for the animation frames and key prompts shipped with the game.
+ * </p>
+ */
+public class TextureAtlas {
+
+    /** The default maximum width of the packed texture. */
+    public static final int DEFAULT_MAX_WIDTH = 1024;
+
+    /** Transparent pixels kept between sprites to avoid bleeding. */
+    private static final int PADDING = 1;
+
+    /** The packed texture. */
+    private final Image texture;
+
+    /** The region of each sprite, keyed by resource path. */
+    private final Map<String, AtlasRegion> regions;
+
+    private TextureAtlas(Image texture, Map<String, AtlasRegion> regions) {
+        this.texture = texture;
+        this.regions = Collections.unmodifiableMap(regions);
+    }
+
+    /**
+     * Packs the images using the default maximum width.
+     *
+     * @param paths the classpath resource paths of the images
+     * @return the packed atlas
+     */
+    public static TextureAtlas pack(List<String> paths) {
+        return pack(paths, DEFAULT_MAX_WIDTH);
+    }
+
+    /**
+     * Decodes and packs the images into a single texture.
+     *
+     * @param paths    the classpath resource paths of the images
+     * @param maxWidth the maximum width of the packed texture
+     * @return the packed atlas
+     * @throws IllegalArgumentException if an image does not exist or is wider
+     *                                  than the maximum width
+     */
+    public static TextureAtlas pack(List<String> paths, int maxWidth) {
+        Map<String, Image> sources = new LinkedHashMap<>();
+        for (String path : new LinkedHashSet<>(paths)) {
+            sources.put(path, SpriteCache.decodeResource(path));
+        }
+        return pack(sources, maxWidth);
+    }
+
+    /**
+     * Packs images that were already decoded, for instance by worker
+     * threads, into a single texture.
+     *
+     * @param sources  the decoded images, keyed by classpath resource path
+     * @param maxWidth the maximum width of the packed texture
+     * @return the packed atlas
+     * @throws IllegalArgumentException if an image is wider than the maximum
+     *                                  width
+     */
+    public static TextureAtlas pack(Map<String, Image> sources, int maxWidth) {
+        List<String> unique = new ArrayList<>(sources.keySet());
+        List<String> order = new ArrayList<>(unique);
+        order.sort(Comparator.comparingDouble((String path) -> sources.get(path).getHeight()).reversed());
+
+        /* First pass: place every sprite on a shelf. */
+        Map<String, int[]> placement = new LinkedHashMap<>();
+        int cursorX = PADDING;
+        int cursorY = PADDING;
+        int shelfHeight = 0;
+        int usedWidth = 0;
+        for (String path : order) {
+            Image source = sources.get(path);
+            int width = (int) source.getWidth();
+            int height = (int) source.getHeight();
+            if (width + PADDING * 2 > maxWidth) {
+                throw new IllegalArgumentException("Sprite too wide for the atlas: " + path);
+            }
+            if (cursorX + width + PADDING > maxWidth) {
+                cursorX = PADDING;
+                cursorY += shelfHeight + PADDING;
+                shelfHeight = 0;
+            }
+            placement.put(path, new int[] { cursorX, cursorY, width, height });
+            cursorX += width + PADDING;
+            shelfHeight = Math.max(shelfHeight, height);
+            usedWidth = Math.max(usedWidth, cursorX);
+        }
+        int atlasWidth = Math.max(1, usedWidth);
+        int atlasHeight = Math.max(1, cursorY + shelfHeight + PADDING);
+
+        /* Second pass: copy the pixels into the texture. */
+        WritableImage texture = new WritableImage(atlasWidth, atlasHeight);
+        PixelWriter writer = texture.getPixelWriter();
+        Map<String, AtlasRegion> regions = new LinkedHashMap<>();
+        for (String path : unique) {
+            int[] place = placement.get(path);
+            PixelReader reader = sources.get(path).getPixelReader();
+            writer.setPixels(place[0], place[1], place[2], place[3], reader, 0, 0);
+            regions.put(path, new AtlasRegion(texture, place[0], place[1], place[2], place[3]));
+        }
+        return new TextureAtlas(texture, regions);
+    }
+
+    /**
+     * Gets the packed texture.
+     *
+     * @return the texture
+     */
+    public Image getTexture() {
+        return texture;
+    }
+
+    /**
+     * Gets the region of a packed sprite.
+     *
+     * @param path the classpath resource path of the sprite
+     * @return the region, or null if the sprite is not packed
+     */
+    public AtlasRegion getRegion(String path) {
+        return regions.get(path);
+    }
+
+    /**
+     * Gets the region table of the atlas.
+     *
+     * @return the regions keyed by resource path
+     */
+    public Map<String, AtlasRegion> getRegions() {
+        return regions;
+    }
+
+}
@@ -0,0 +1,25 @@
+package chon.group.game.audio;
+
+/**
+ * The {@code AudioBackend} interface plays the sounds scheduled by the
+ * {@link AudioMixer}, so the mixer itself does not depend on a media library.
+ */
+public interface AudioBackend {
+
+    /**
+     * Checks whether a sound can be played, that is whether its clip was
+     * decoded.
+     *
+     * @param sound the sound
+     * @return true if the sound can be played
+     */
+    boolean isAvailable(Sound sound);
+
+    /**
+     * Starts a new copy of a sound.
+     *
+     * @param sound  the sound
+     * @param volume the volume, from 0 to 1
+     */
+    void play(Sound sound, double volume);
+}
@@ -0,0 +1,259 @@
+package chon.group.game.audio;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * The {@code AudioMixer} class schedules the sound effects of the game, so
+ * that bursts of events do not stack overlapping copies of the same clip.
+ * <p>
+ * Sounds triggered during a frame are queued and only started by
+ * {@link #flush(long)}, from the highest priority to the lowest. Triggers of
+ * a sound that is already queued, or that started less than the coalescing
+ * window ago, are merged into a single copy. Each sound may only have a few
+ * copies playing at once, and the whole mixer has its own voice cap; a sound
+ * that finds no free voice is dropped rather than cutting another one off.
+ * </p>
+ * <p>
+ * Voices are tracked from the length of each sound, as the clips do not
+ * report when a single copy ends. The mixer allocates nothing once its sounds
+ * are registered.
+ * </p>
+ */
+public class AudioMixer {
+
+    /** The voice cap of the whole mixer unless set otherwise. */
+    public static final int DEFAULT_MAX_VOICES = 8;
+
+    /** The coalescing window unless set otherwise, in milliseconds. */
+    public static final int DEFAULT_COALESCE_MILLIS = 40;
+
+    /** Marks a voice or a start time that never happened. */
+    private static final long NEVER = Long.MIN_VALUE;
+
+    /** Plays the scheduled sounds. */
+    private final AudioBackend backend;
+
+    /** The number of voices that may play at once across all sounds. */
+    private final int maxVoices;
+
+    /** Triggers closer than this to the last start are merged, in nanoseconds. */
+    private final long coalesceNanos;
+
+    /** The registered sounds, indexed by {@link Sound#index}. */
+    private final List<Sound> sounds = new ArrayList<Sound>();
+
+    /** When each voice of each sound stops playing. */
+    private long[][] voiceEnds = new long[0][];
+
+    /** When each sound last started. */
+    private long[] lastStart = new long[0];
+
+    /** The volume each queued sound is started at. */
+    private double[] pendingVolume = new double[0];
+
+    /** If each sound is queued. */
+    private boolean[] pending = new boolean[0];
+
+    /** The queued sounds, from the highest priority to the lowest. */
+    private final PriorityQueue<Sound> queue = new PriorityQueue<Sound>(
+            Comparator.comparingInt(Sound::getPriority).reversed()
+                    .thenComparingInt(sound -> sound.index));
+
+    /** Number of copies started. */
+    private long played = 0;
+
+    /** Number of triggers merged into another copy. */
+    private long coalesced = 0;
+
+    /** Number of triggers dropped for lack of a voice. */
+    private long dropped = 0;
+
+    /**
+     * Constructor to initialize a mixer with the default voice cap and
+     * coalescing window.
+     *
+     * @param backend plays the scheduled sounds
+     */
+    public AudioMixer(AudioBackend backend) {
+        this(backend, DEFAULT_MAX_VOICES, DEFAULT_COALESCE_MILLIS);
+    }
+
+    /**
+     * Constructor to initialize a mixer.
+     *
+     * @param backend        plays the scheduled sounds
+     * @param maxVoices      the number of voices that may play at once
+     * @param coalesceMillis the coalescing window, in milliseconds
+     */
+    public AudioMixer(AudioBackend backend, int maxVoices, int coalesceMillis) {
+        this.backend = backend;
+        this.maxVoices = maxVoices;
+        this.coalesceNanos = coalesceMillis * 1_000_000L;
+    }
+
+    /**
+     * Registers a sound so it can be triggered.
+     *
+     * @param sound the sound
+     * @throws IllegalStateException if the sound belongs to another mixer
+     */
+    public void register(Sound sound) {
+        if (sound.index >= 0) {
+            if (sound.index < this.sounds.size() && this.sounds.get(sound.index) == sound) {
+                return;
+            }
+            throw new IllegalStateException("Sound registered in another mixer: " + sound);
+        }
+        int index = this.sounds.size();
+        sound.index = index;
+        this.sounds.add(sound);
+        this.voiceEnds = Arrays.copyOf(this.voiceEnds, index + 1);
+        this.voiceEnds[index] = new long[sound.getMaxVoices()];
+        Arrays.fill(this.voiceEnds[index], NEVER);
+        this.lastStart = Arrays.copyOf(this.lastStart, index + 1);
+        this.lastStart[index] = NEVER;
+        this.pendingVolume = Arrays.copyOf(this.pendingVolume, index + 1);
+        this.pending = Arrays.copyOf(this.pending, index + 1);
+    }
+
+    /**
+     * Queues a sound at full volume.
+     *
+     * @param sound the sound
+     */
+    public void trigger(Sound sound) {
+        this.trigger(sound, 1.0);
+    }
+
+    /**
+     * Queues a sound, merging it with a copy already queued.
+     *
+     * @param sound  the sound
+     * @param volume the volume, from 0 to 1
+     * @throws IllegalArgumentException if the sound is not registered
+     */
+    public void trigger(Sound sound, double volume) {
+        int index = sound.index;
+        if (index < 0 || index >= this.sounds.size() || this.sounds.get(index) != sound) {
+            throw new IllegalArgumentException("Sound not registered: " + sound);
+        }
+        if (this.pending[index]) {
+            this.pendingVolume[index] = Math.max(this.pendingVolume[index], volume);
+            this.coalesced++;
+            return;
+        }
+        this.pending[index] = true;
+        this.pendingVolume[index] = volume;
+        this.queue.add(sound);
+    }
+
+    /**
+     * Starts the queued sounds, from the highest priority to the lowest, as
+     * long as voices are free.
+     *
+     * @param now the current time in nanoseconds
+     */
+    public void flush(long now) {
+        if (this.queue.isEmpty()) {
+            return;
+        }
+        int active = 0;
+        for (int i = 0; i < this.sounds.size(); i++) {
+            active += this.countVoices(i, now);
+        }
+        Sound sound;
+        while ((sound = this.queue.poll()) != null) {
+            int index = sound.index;
+            this.pending[index] = false;
+            long last = this.lastStart[index];
+            if (last != NEVER && now - last < this.coalesceNanos) {
+                this.coalesced++;
+            } else if (active >= this.maxVoices
+                    || this.countVoices(index, now) >= sound.getMaxVoices()
+                    || !this.backend.isAvailable(sound)) {
+                this.dropped++;
+            } else {
+                this.start(sound, now);
+                active++;
+            }
+        }
+    }
+
+    /**
+     * Starts a copy of a sound on its voice that ends first.
+     *
+     * @param sound the sound
+     * @param now   the current time in nanoseconds
+     */
+    private void start(Sound sound, long now) {
+        long[] ends = this.voiceEnds[sound.index];
+        int voice = 0;
+        for (int i = 1; i < ends.length; i++) {
+            if (ends[voice] != NEVER && (ends[i] == NEVER || ends[i] - ends[voice] < 0)) {
+                voice = i;
+            }
+        }
+        ends[voice] = now + sound.getLengthMillis() * 1_000_000L;
+        this.lastStart[sound.index] = now;
+        this.played++;
+        this.backend.play(sound, this.pendingVolume[sound.index]);
+    }
+
+    /**
+     * Counts the copies of a sound still playing.
+     *
+     * @param index the index of the sound
+     * @param now   the current time in nanoseconds
+     * @return the number of busy voices
+     */
+    private int countVoices(int index, long now) {
+        int count = 0;
+        for (long end : this.voiceEnds[index]) {
+            if (end != NEVER && end - now > 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of copies started.
+     *
+     * @return the number of sounds played
+     */
+    public long getPlayed() {
+        return played;
+    }
+
+    /**
+     * Gets the number of triggers merged into another copy.
+     *
+     * @return the number of coalesced triggers
+     */
+    public long getCoalesced() {
+        return coalesced;
+    }
+
+    /**
+     * Gets the number of triggers dropped for lack of a voice.
+     *
+     * @return the number of dropped triggers
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Builds a one-line summary of the mixer usage.
+     *
+     * @return the mixer report
+     */
+    public String report() {
+        return String.format("AudioMixer: %d sounds, %d played, %d coalesced, %d dropped",
+                this.sounds.size(), this.played, this.coalesced, this.dropped);
+    }
+}
@@ -0,0 +1,111 @@
+package chon.group.game.audio;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import chon.group.game.asset.AssetLoader;
+import chon.group.game.logging.Logger;
+import javafx.scene.media.AudioClip;
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaPlayer;
+
+/**
+ * The {@code JavaFxAudio} class plays sounds with JavaFX: sound effects are
+ * {@link AudioClip}s decoded once by the {@link AssetLoader}, and the music is
+ * streamed by a looping {@link MediaPlayer}.
+ * <p>
+ * Sounds are silent until the loader has decoded them, and a missing music
+ * track is reported once, so the game runs without them.
+ * </p>
+ */
+public class JavaFxAudio implements AudioBackend {
+
+    private static final Logger LOG = Logger.get("audio");
+
+    /** The loader holding the decoded clips. */
+    private final AssetLoader assets;
+
+    /** The clips of the sounds found so far. */
+    private final Map<Sound, AudioClip> clips = new HashMap<Sound, AudioClip>();
+
+    /** The player of the music, or null. */
+    private MediaPlayer musicPlayer;
+
+    /**
+     * Constructor to initialize the backend.
+     *
+     * @param assets the loader holding the decoded clips
+     */
+    public JavaFxAudio(AssetLoader assets) {
+        this.assets = assets;
+    }
+
+    @Override
+    public boolean isAvailable(Sound sound) {
+        return this.clip(sound) != null;
+    }
+
+    @Override
+    public void play(Sound sound, double volume) {
+        AudioClip clip = this.clip(sound);
+        if (clip != null) {
+            clip.play(volume);
+        }
+    }
+
+    /**
+     * Gets the clip of a sound, which may still be loading in the background.
+     *
+     * @param sound the sound
+     * @return the clip, or null while it is not loaded
+     */
+    private AudioClip clip(Sound sound) {
+        AudioClip clip = this.clips.get(sound);
+        if (clip == null) {
+            clip = this.assets.getSound(sound.getPath());
+            if (clip != null) {
+                this.clips.put(sound, clip);
+            }
+        }
+        return clip;
+    }
+
+    /**
+     * Starts looping a music track, replacing the one playing.
+     *
+     * @param path   the classpath resource path of the music
+     * @param volume the volume, from 0 to 1
+     * @return true if the music plays, false if it was not loaded
+     */
+    public boolean playMusic(String path, double volume) {
+        this.stopMusic();
+        Media music = this.assets.getMusic(path);
+        if (music == null) {
+            LOG.info("Playing without music, {} was not loaded", path);
+            return false;
+        }
+        MediaPlayer player = new MediaPlayer(music);
+        player.setCycleCount(MediaPlayer.INDEFINITE);
+        player.setVolume(volume);
+        player.setOnError(() -> {
+            LOG.error("The music stopped", player.getError());
+            if (this.musicPlayer == player) {
+                this.stopMusic();
+            }
+        });
+        this.musicPlayer = player;
+        player.play();
+        return true;
+    }
+
+    /**
+     * Stops the music and releases its player.
+     */
+    public void stopMusic() {
+        if (this.musicPlayer != null) {
+            this.musicPlayer.stop();
+            this.musicPlayer.dispose();
+            this.musicPlayer = null;
+        }
+    }
+}
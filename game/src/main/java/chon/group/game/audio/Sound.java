@@ -0,0 +1,84 @@
+package chon.group.game.audio;
+
+/**
+ * The {@code Sound} class describes a sound effect and how the
+ * {@link AudioMixer} schedules it: how important it is, how many copies may
+ * overlap and how long each copy keeps playing.
+ */
+public final class Sound {
+
+    /** The classpath resource path of the clip. */
+    private final String path;
+
+    /** The priority of the sound, higher sounds being played first. */
+    private final int priority;
+
+    /** The number of copies of the sound that may play at the same time. */
+    private final int maxVoices;
+
+    /** How long a copy of the sound plays, in milliseconds. */
+    private final int lengthMillis;
+
+    /** The index of the sound in its mixer, or -1 before it is registered. */
+    int index = -1;
+
+    /**
+     * Constructor to initialize a sound.
+     *
+     * @param path         the classpath resource path of the clip
+     * @param priority     the priority, higher sounds being played first
+     * @param maxVoices    the number of copies that may overlap
+     * @param lengthMillis how long a copy plays, in milliseconds
+     * @throws IllegalArgumentException if the sound has no voice or no length
+     */
+    public Sound(String path, int priority, int maxVoices, int lengthMillis) {
+        if (maxVoices < 1 || lengthMillis < 1) {
+            throw new IllegalArgumentException("A sound needs a voice and a length: " + path);
+        }
+        this.path = path;
+        this.priority = priority;
+        this.maxVoices = maxVoices;
+        this.lengthMillis = lengthMillis;
+    }
+
+    /**
+     * Gets the classpath resource path of the clip.
+     *
+     * @return the path
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Gets the priority of the sound.
+     *
+     * @return the priority, higher sounds being played first
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * Gets the number of copies of the sound that may play at the same time.
+     *
+     * @return the voice cap
+     */
+    public int getMaxVoices() {
+        return maxVoices;
+    }
+
+    /**
+     * Gets how long a copy of the sound plays.
+     *
+     * @return the length in milliseconds
+     */
+    public int getLengthMillis() {
+        return lengthMillis;
+    }
+
+    @Override
+    public String toString() {
+        return this.path;
+    }
+}
@@ -0,0 +1,99 @@
+package chon.group.game.core;
+
+import java.util.List;
+
+/**
+ * Represents a frame animation attached to an entity.
+ * The animation only knows the sprite identifier of each frame and advances
+ * by the game time elapsed, so it plays at the same speed on any refresh rate.
+ */
+public class Animation {
+
+    /** The sprite identifier of each frame. */
+    private final int[] frames;
+
+    /** Duration of each frame in nanoseconds. */
+    private final long frameDuration;
+
+    /** Indicates if the animation restarts after the last frame. */
+    private final boolean loop;
+
+    /** Game time elapsed since the animation started, in nanoseconds. */
+    private long elapsed = 0;
+
+    /**
+     * Constructor to initialize the animation.
+     *
+     * @param frames        the resource path of each frame
+     * @param frameDuration the duration of each frame in milliseconds
+     * @param loop          if the animation restarts after the last frame
+     */
+    public Animation(List<String> frames, long frameDuration, boolean loop) {
+        if (frames.isEmpty()) {
+            throw new IllegalArgumentException("An animation needs at least one frame.");
+        }
+        this.frames = new int[frames.size()];
+        for (int i = 0; i < this.frames.length; i++) {
+            this.frames[i] = SpriteRegistry.register(frames.get(i));
+        }
+        this.frameDuration = Math.max(1, frameDuration) * 1_000_000L;
+        this.loop = loop;
+    }
+
+    /**
+     * Advances the animation by the game time elapsed since the last update.
+     *
+     * @param deltaNanos the elapsed game time in nanoseconds
+     */
+    public void update(long deltaNanos) {
+        this.elapsed += deltaNanos;
+    }
+
+    /**
+     * Restarts the animation from its first frame.
+     */
+    public void reset() {
+        this.elapsed = 0;
+    }
+
+    /**
+     * Gets the index of the frame to be drawn.
+     *
+     * @return the current frame index
+     */
+    public int getFrameIndex() {
+        long index = this.elapsed / this.frameDuration;
+        if (this.loop) {
+            return (int) (index % this.frames.length);
+        }
+        return (int) Math.min(index, this.frames.length - 1);
+    }
+
+    /**
+     * Gets the sprite of the frame to be drawn.
+     *
+     * @return the identifier of the current frame
+     */
+    public int getCurrentFrame() {
+        return this.frames[this.getFrameIndex()];
+    }
+
+    /**
+     * Gets the number of frames.
+     *
+     * @return the number of frames
+     */
+    public int getFrameCount() {
+        return this.frames.length;
+    }
+
+    /**
+     * Checks if a non-looping animation reached its last frame.
+     *
+     * @return true if the animation is finished
+     */
+    public boolean isFinished() {
+        return !this.loop && this.elapsed >= this.frameDuration * this.frames.length;
+    }
+
+}
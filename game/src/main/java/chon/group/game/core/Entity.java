@@ -1,42 +1,37 @@
 package chon.group.game.core;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import chon.group.game.messaging.Message;
-import javafx.scene.SnapshotParameters;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
-import javafx.scene.paint.Color;
-
+import chon.group.game.messaging.MessageBuffer;
+
+/**
+ * The {@code Entity} class is the base of everything placed in the game.
+ * <p>
+ * An entity is a handle over a slot of the {@link EntityStore}, which keeps
+ * its position, size, speed, health and sprite in parallel arrays. Only the
+ * state that is not a plain number, such as the animation, lives in the
+ * object itself.
+ * </p>
+ * <p>
+ * Disposing an entity clears its handle, so any later use of the entity
+ * throws an {@link IllegalStateException} instead of reading or writing the
+ * slot of the entity that reuses it.
+ * </p>
+ */
 public abstract class Entity {
 
-    /** X position (horizontal) of the entity. */
-    private int posX;
-
-    /** Y (vertical) position of the entity. */
-    private int posY;
-
-    /** Height of the entity. */
-    private int height;
-
-    /** Width of the entity. */
-    private int width;
+    /** The store holding the fields of the entity. */
+    private final EntityStore store;
 
-    /** entity speed. */
-    private int speed;
+    /** The slot of the entity in the store, or -1 once disposed. */
+    private int slot;
 
-    /** Image representing the entity. */
-    private Image image;
+    /** The page of the store holding the slot, or null once disposed. */
+    private EntityStore.Page page;
 
-    /** Indicates if the entity is facing left. */
-    private boolean flipped = false;
+    /** The place of the slot inside its page. */
+    private int offset;
 
-    /** The initial entity's health. */
-    private int health;
-
-    /** The maximum entity's health. */
-    private int fullHealth;
+    /** The frame animation of the entity, if any. */
+    private Animation animation;
 
     /**
      * Constructor to initialize the entity properties.
@@ -50,14 +45,7 @@ public abstract class Entity {
      * @param pathImage the path to the entity's image
      */
     public Entity(int posX, int posY, int height, int width, int speed, int health, String pathImage) {
-        this.posX = posX;
-        this.posY = posY;
-        this.height = height;
-        this.width = width;
-        this.speed = speed;
-        this.health = health;
-        this.fullHealth = health;
-        this.image = new Image(getClass().getResource(pathImage).toExternalForm());
+        this(posX, posY, height, width, speed, health, pathImage, false);
     }
 
     /**
@@ -73,15 +61,65 @@ public abstract class Entity {
      * @param flipped   the entity's direction (RIGHT=0 or LEFT=1)
      */
     public Entity(int posX, int posY, int height, int width, int speed, int health, String pathImage, boolean flipped) {
-        this.posX = posX;
-        this.posY = posY;
-        this.height = height;
-        this.width = width;
-        this.speed = speed;
-        this.health = health;
-        this.fullHealth = health;
-        this.image = new Image(getClass().getResource(pathImage).toExternalForm());
-        this.flipped = flipped;
+        this.store = EntityStore.getInstance();
+        this.slot = this.store.allocate();
+        this.page = this.store.getPage(this.slot);
+        this.offset = EntityStore.offsetOf(this.slot);
+        EntityStore.Page p = this.page;
+        p.posX[offset] = posX;
+        p.posY[offset] = posY;
+        p.prevPosX[offset] = posX;
+        p.prevPosY[offset] = posY;
+        p.height[offset] = height;
+        p.width[offset] = width;
+        p.speed[offset] = speed;
+        p.health[offset] = health;
+        p.fullHealth[offset] = health;
+        p.spriteId[offset] = SpriteRegistry.register(pathImage);
+        p.currentSprite[offset] = p.spriteId[offset];
+        p.flipped[offset] = flipped;
+    }
+
+    /**
+     * Gets the slot of the entity in the store.
+     *
+     * @return the slot, or -1 once the entity is disposed
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Releases the slot of the entity, which must not be used afterwards.
+     * Disposing an entity twice has no effect.
+     */
+    public void dispose() {
+        if (this.page != null) {
+            this.store.release(this.slot);
+            this.page = null;
+            this.slot = -1;
+        }
+    }
+
+    /**
+     * Checks whether the entity was disposed.
+     *
+     * @return true if the slot of the entity was released
+     */
+    public boolean isDisposed() {
+        return this.page == null;
+    }
+
+    /**
+     * Gets the page holding the slot of the entity.
+     *
+     * @return the page
+     * @throws IllegalStateException if the entity was disposed
+     */
+    private EntityStore.Page page() {
+        if (this.slot < 0)
+            throw new IllegalStateException("disposed entity");
+        return this.page;
     }
 
     /**
@@ -90,7 +128,7 @@ public abstract class Entity {
      * @return the X (horizontal) position of the entity
      */
     public int getPosX() {
-        return posX;
+        return this.page().posX[offset];
     }
 
     /**
@@ -99,7 +137,7 @@ public abstract class Entity {
      * @param posX the new X (horizontal) position
      */
     public void setPosX(int posX) {
-        this.posX = posX;
+        this.page().posX[offset] = posX;
     }
 
     /**
@@ -108,7 +146,7 @@ public abstract class Entity {
      * @return the Y (vertical) position of the entity
      */
     public int getPosY() {
-        return posY;
+        return this.page().posY[offset];
     }
 
     /**
@@ -117,7 +155,43 @@ public abstract class Entity {
      * @param posY the new Y (vertical) position
      */
     public void setPosY(int posY) {
-        this.posY = posY;
+        this.page().posY[offset] = posY;
+    }
+
+    /**
+     * Stores the current position as the previous one, marking the start of a
+     * new simulation tick.
+     */
+    public void storePreviousPosition() {
+        EntityStore.Page p = this.page();
+        p.prevPosX[offset] = p.posX[offset];
+        p.prevPosY[offset] = p.posY[offset];
+    }
+
+    /**
+     * Gets the X position to be drawn, blending the previous and the current
+     * positions.
+     *
+     * @param alpha the interpolation factor between 0.0 and 1.0
+     * @return the interpolated X position
+     */
+    public int getRenderX(double alpha) {
+        EntityStore.Page p = this.page();
+        int prevPosX = p.prevPosX[offset];
+        return (int) Math.round(prevPosX + (p.posX[offset] - prevPosX) * alpha);
+    }
+
+    /**
+     * Gets the Y position to be drawn, blending the previous and the current
+     * positions.
+     *
+     * @param alpha the interpolation factor between 0.0 and 1.0
+     * @return the interpolated Y position
+     */
+    public int getRenderY(double alpha) {
+        EntityStore.Page p = this.page();
+        int prevPosY = p.prevPosY[offset];
+        return (int) Math.round(prevPosY + (p.posY[offset] - prevPosY) * alpha);
     }
 
     /**
@@ -126,7 +200,7 @@ public abstract class Entity {
      * @return the height of the entity
      */
     public int getHeight() {
-        return height;
+        return this.page().height[offset];
     }
 
     /**
@@ -135,7 +209,7 @@ public abstract class Entity {
      * @param height the new height
      */
     public void setHeight(int height) {
-        this.height = height;
+        this.page().height[offset] = height;
     }
 
     /**
@@ -144,7 +218,7 @@ public abstract class Entity {
      * @return the width of the entity
      */
     public int getWidth() {
-        return width;
+        return this.page().width[offset];
     }
 
     /**
@@ -153,7 +227,7 @@ public abstract class Entity {
      * @param width the new width
      */
     public void setWidth(int width) {
-        this.width = width;
+        this.page().width[offset] = width;
     }
 
     /**
@@ -162,7 +236,7 @@ public abstract class Entity {
      * @return the entity's speed
      */
     public int getSpeed() {
-        return speed;
+        return this.page().speed[offset];
     }
 
     /**
@@ -171,25 +245,86 @@ public abstract class Entity {
      * @param speed the new speed
      */
     public void setSpeed(int speed) {
-        this.speed = speed;
+        this.page().speed[offset] = speed;
+    }
+
+    /**
+     * Gets the identifier of the entity sprite.
+     *
+     * @return the sprite identifier
+     */
+    public int getSpriteId() {
+        return this.page().spriteId[offset];
+    }
+
+    /**
+     * Sets the entity sprite.
+     *
+     * @param pathImage the path to the new image
+     */
+    public void setSprite(String pathImage) {
+        EntityStore.Page p = this.page();
+        p.spriteId[offset] = SpriteRegistry.register(pathImage);
+        this.updateCurrentSprite();
+    }
+
+    /**
+     * Gets the path to the entity image.
+     *
+     * @return the path to the entity image
+     */
+    public String getPathImage() {
+        return SpriteRegistry.path(this.page().spriteId[offset]);
+    }
+
+    /**
+     * Gets the entity animation.
+     *
+     * @return the animation, or null if the entity is not animated
+     */
+    public Animation getAnimation() {
+        return animation;
+    }
+
+    /**
+     * Sets the entity animation.
+     *
+     * @param animation the new animation
+     */
+    public void setAnimation(Animation animation) {
+        this.animation = animation;
+        this.updateCurrentSprite();
     }
 
     /**
-     * Gets the entity image.
+     * Gets the sprite to be drawn, which is the current animation frame for
+     * animated entities.
      *
-     * @return the entity image
+     * @return the identifier of the current sprite
      */
-    public Image getImage() {
-        return image;
+    public int getCurrentSprite() {
+        return this.page().currentSprite[offset];
     }
 
     /**
-     * Gets the entity flipped status.
+     * Advances the entity animation by the elapsed game time.
      *
-     * @param image the new image
+     * @param deltaNanos the elapsed game time in nanoseconds
      */
-    public void setImage(Image image) {
-        this.image = image;
+    public void animate(long deltaNanos) {
+        if (animation != null) {
+            animation.update(deltaNanos);
+            this.updateCurrentSprite();
+        }
+    }
+
+    /**
+     * Stores the sprite to be drawn in the entity store, after the animation
+     * or the sprite changed.
+     */
+    protected void updateCurrentSprite() {
+        EntityStore.Page p = this.page();
+        p.currentSprite[offset] = (animation != null) ? animation.getCurrentFrame() : p.spriteId[offset];
     }
 
     /**
@@ -198,7 +333,7 @@ public abstract class Entity {
      * @return if the entity is flipped
      */
     public boolean isFlipped() {
-        return flipped;
+        return this.page().flipped[offset];
     }
 
     /**
@@ -207,7 +342,7 @@ public abstract class Entity {
      * @param flipped the new flipped status
      */
     public void setFlipped(boolean flipped) {
-        this.flipped = flipped;
+        this.page().flipped[offset] = flipped;
     }
 
     /**
@@ -216,7 +351,7 @@ public abstract class Entity {
      * @return the entity's health
      */
     public int getHealth() {
-        return health;
+        return this.page().health[offset];
     }
 
     /**
@@ -225,7 +360,7 @@ public abstract class Entity {
      * @param health the new health
      */
     public void setHealth(int health) {
-        this.health = health;
+        this.page().health[offset] = health;
     }
 
     /**
@@ -234,7 +369,7 @@ public abstract class Entity {
      * @return the entity's maximum health
      */
     public int getFullHealth() {
-        return fullHealth;
+        return this.page().fullHealth[offset];
     }
 
     /**
@@ -243,7 +378,7 @@ public abstract class Entity {
      * @param fullHealth the new maximum health
      */
     public void setFullHealth(int fullHealth) {
-        this.fullHealth = fullHealth;
+        this.page().fullHealth[offset] = fullHealth;
     }
 
     /**
@@ -259,25 +394,40 @@ public abstract class Entity {
     }
 
     /**
-     * Moves the entity based on the movement commands provided.
+     * Moves the entity based on the keys held down. Right takes precedence
+     * over left.
+     *
+     * @param input the input state of the tick
+     */
+    public void move(InputState input) {
+        if (input.isDown(Key.RIGHT)) {
+            this.move(Key.RIGHT);
+        } else if (input.isDown(Key.LEFT)) {
+            this.move(Key.LEFT);
+        }
+    }
+
+    /**
+     * Moves the entity a step in a direction.
      *
-     * @param movements a list of movement directions ("RIGHT", "LEFT", "UP",
-     *                  "DOWN")
+     * @param direction the direction ({@code RIGHT}, {@code LEFT}, {@code UP}
+     *                  or {@code DOWN})
      */
-    public void move(List<String> movements) {
-        if (movements.contains("RIGHT")) {
-            if (flipped)
+    public void move(Key direction) {
+        EntityStore.Page p = this.page();
+        if (direction == Key.RIGHT) {
+            if (p.flipped[offset])
                 this.flipImage();
-            setPosX(posX += speed);
-        } else if (movements.contains("LEFT")) {
-            if (!flipped)
+            p.posX[offset] += p.speed[offset];
+        } else if (direction == Key.LEFT) {
+            if (!p.flipped[offset])
                 this.flipImage();
-            setPosX(posX -= speed);
+            p.posX[offset] -= p.speed[offset];
         } 
-        /*else if (movements.contains("UP")) {
-            setPosY(posY -= speed);
-        } else if (movements.contains("DOWN")) {
-            setPosY(posY += speed);
+        /*else if (direction == Key.UP) {
+            p.posY[offset] -= p.speed[offset];
+        } else if (direction == Key.DOWN) {
+            p.posY[offset] += p.speed[offset];
         }*/
     }
 
@@ -288,15 +438,17 @@ public abstract class Entity {
      * @param targetY the target's Y (vertical) position
      */
     public void chase(int targetX, int targetY) {
-        if (targetX > this.posX) {
-            this.move(new ArrayList<String>(List.of("RIGHT")));
-        } else if (targetX < this.posX) {
-            this.move(new ArrayList<String>(List.of("LEFT")));
+        int posX = this.page().posX[offset];
+        int posY = this.page().posY[offset];
+        if (targetX > posX) {
+            this.move(Key.RIGHT);
+        } else if (targetX < posX) {
+            this.move(Key.LEFT);
         }
-        if (targetY > this.posY) {
-            this.move(new ArrayList<String>(List.of("DOWN")));
-        } else if (targetY < this.posY) {
-            this.move(new ArrayList<String>(List.of("UP")));
+        if (targetY > posY) {
+            this.move(Key.DOWN);
+        } else if (targetY < posY) {
+            this.move(Key.UP);
         }
     }
 
@@ -305,15 +457,14 @@ public abstract class Entity {
      *
      * @param damage the amount of damage to be applied
      */
-    public void takeDamage(int damage, List<Message> messages) {
+    public void takeDamage(int damage, MessageBuffer messages) {
         if (this.getHealth() > 0) {
             /* Decrease health. */
             this.setHealth(this.getHealth() - damage);
-            messages.add(new Message(
-                    String.valueOf(damage),
+            messages.addDamage(damage,
                     this.getPosX(),
                     this.getPosY(),
-                    25));
+                    25);
             /* After taking the damage, the health must not be negative. */
             if (this.getHealth() < 0)
                 this.setHealth(0);
@@ -0,0 +1,250 @@
+package chon.group.game.core;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * The {@code EntityStore} class keeps the state of every entity in parallel
+ * primitive arrays, one array per field, indexed by the slot of the entity.
+ * <p>
+ * {@link Entity} objects are lightweight handles over their slot, so the
+ * positions, sizes, speeds, health and sprites of all entities lie in
+ * contiguous memory and bulk operations, such as storing the previous
+ * positions before a tick, are plain array copies. Slots of disposed
+ * entities are reused by the next entities created, lowest first, and the
+ * slots above the last live one are given up, so the bulk operations only
+ * cover the entities in use.
+ * </p>
+ * <p>
+ * The arrays are split into pages of {@value #PAGE_SIZE} slots. A page never
+ * moves once created: the store grows by adding pages, so a thread writing
+ * the fields of its entities without a lock never writes into an array that
+ * is being replaced. Allocating and releasing slots is synchronized; reading
+ * and writing the fields of a slot is not.
+ * </p>
+ * <p>
+ * Loops over many entities, such as moving the agents or drawing them, take
+ * the pages once with {@link #getPages()} and read and write the arrays by
+ * slot, using {@link #pageOf(int)} and {@link #offsetOf(int)}, instead of
+ * going through each handle.
+ * </p>
+ */
+public final class EntityStore {
+
+    /** Number of slots of each page of the store. */
+    public static final int PAGE_SIZE = 1024;
+
+    /** Bits of a slot giving its place inside its page. */
+    private static final int PAGE_BITS = Integer.numberOfTrailingZeros(PAGE_SIZE);
+
+    /** The store holding the entities of the game. */
+    private static final EntityStore INSTANCE = new EntityStore();
+
+    /**
+     * A page of the store, holding the fields of
+     * {@value EntityStore#PAGE_SIZE} consecutive slots.
+     */
+    public static final class Page {
+        public final int[] posX = new int[PAGE_SIZE];
+        public final int[] posY = new int[PAGE_SIZE];
+        public final int[] prevPosX = new int[PAGE_SIZE];
+        public final int[] prevPosY = new int[PAGE_SIZE];
+        public final int[] width = new int[PAGE_SIZE];
+        public final int[] height = new int[PAGE_SIZE];
+        public final int[] speed = new int[PAGE_SIZE];
+        public final int[] health = new int[PAGE_SIZE];
+        public final int[] fullHealth = new int[PAGE_SIZE];
+        public final int[] spriteId = new int[PAGE_SIZE];
+        /** The sprite to draw: the animation frame, or the sprite if not animated. */
+        public final int[] currentSprite = new int[PAGE_SIZE];
+        public final boolean[] flipped = new boolean[PAGE_SIZE];
+
+        private Page() {
+        }
+    }
+
+    /** The pages of the store; replaced, never modified, when a page is added. */
+    private volatile Page[] pages = new Page[0];
+
+    /** The slots below the high-water mark that are not in use. */
+    private final BitSet free = new BitSet();
+
+    /** One past the last live slot; every live slot is below it. */
+    private int highWater = 0;
+
+    /** Number of live entities. */
+    private int size = 0;
+
+    /**
+     * Constructor to initialize an empty store.
+     */
+    public EntityStore() {
+    }
+
+    /**
+     * Gets the store holding the entities of the game.
+     *
+     * @return the shared store
+     */
+    public static EntityStore getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Hands out a slot, reusing the lowest released slot first. The fields of
+     * the slot are cleared.
+     *
+     * @return the slot
+     */
+    public synchronized int allocate() {
+        int slot = this.free.nextSetBit(0);
+        if (slot >= 0) {
+            this.free.clear(slot);
+        } else {
+            slot = this.highWater++;
+            if (slot == this.pages.length * PAGE_SIZE) {
+                this.addPage();
+            }
+        }
+        this.clear(slot);
+        this.size++;
+        return slot;
+    }
+
+    /**
+     * Returns a slot to the store. Slots already released are ignored.
+     *
+     * @param slot the slot no longer in use
+     */
+    public synchronized void release(int slot) {
+        if (slot < 0 || slot >= this.highWater || this.free.get(slot)) {
+            return;
+        }
+        this.free.set(slot);
+        this.size--;
+        /* Give up the free slots at the top, so bulk copies stop at the last live one */
+        while (this.highWater > 0 && this.free.get(this.highWater - 1)) {
+            this.free.clear(--this.highWater);
+        }
+    }
+
+    /**
+     * Gets the page holding a slot.
+     *
+     * @param slot the slot
+     * @return the page of the slot
+     */
+    Page getPage(int slot) {
+        return this.pages[pageOf(slot)];
+    }
+
+    /**
+     * Gets the pages of the store. The array is replaced, never modified,
+     * when a page is added, so it holds every slot allocated before the call.
+     *
+     * @return the pages, indexed by {@link #pageOf(int)}
+     */
+    public Page[] getPages() {
+        return this.pages;
+    }
+
+    /**
+     * Gets the index of the page holding a slot.
+     *
+     * @param slot the slot
+     * @return the index of the page in {@link #getPages()}
+     */
+    public static int pageOf(int slot) {
+        return slot >>> PAGE_BITS;
+    }
+
+    /**
+     * Gets the place of a slot inside its page.
+     *
+     * @param slot the slot
+     * @return the index of the slot in the arrays of its page
+     */
+    public static int offsetOf(int slot) {
+        return slot & (PAGE_SIZE - 1);
+    }
+
+    /**
+     * Stores the current position of every live entity as the previous one,
+     * with a single copy per coordinate and page.
+     */
+    public void storePreviousPositions() {
+        Page[] pages;
+        int remaining;
+        synchronized (this) {
+            pages = this.pages;
+            remaining = this.highWater;
+        }
+        for (int p = 0; remaining > 0; p++) {
+            int length = Math.min(remaining, PAGE_SIZE);
+            System.arraycopy(pages[p].posX, 0, pages[p].prevPosX, 0, length);
+            System.arraycopy(pages[p].posY, 0, pages[p].prevPosY, 0, length);
+            remaining -= length;
+        }
+    }
+
+    /**
+     * Checks whether a slot holds a live entity.
+     *
+     * @param slot the slot
+     * @return true if the slot is in use
+     */
+    public synchronized boolean isLive(int slot) {
+        return slot >= 0 && slot < this.highWater && !this.free.get(slot);
+    }
+
+    /**
+     * Gets the number of live entities.
+     *
+     * @return the number of entities
+     */
+    public synchronized int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets the slot after the last live one. Every live slot is below it, so
+     * it bounds the loops over the arrays.
+     *
+     * @return the high-water mark of the slots
+     */
+    public synchronized int getHighWater() {
+        return this.highWater;
+    }
+
+    /**
+     * Gets the number of slots allocated in the pages.
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return this.pages.length * PAGE_SIZE;
+    }
+
+    private void clear(int slot) {
+        Page page = this.getPage(slot);
+        int i = offsetOf(slot);
+        page.posX[i] = 0;
+        page.posY[i] = 0;
+        page.prevPosX[i] = 0;
+        page.prevPosY[i] = 0;
+        page.width[i] = 0;
+        page.height[i] = 0;
+        page.speed[i] = 0;
+        page.health[i] = 0;
+        page.fullHealth[i] = 0;
+        page.spriteId[i] = SpriteRegistry.NO_SPRITE;
+        page.currentSprite[i] = SpriteRegistry.NO_SPRITE;
+        page.flipped[i] = false;
+    }
+
+    private void addPage() {
+        Page[] grown = Arrays.copyOf(this.pages, this.pages.length + 1);
+        grown[this.pages.length] = new Page();
+        this.pages = grown;
+    }
+}
@@ -0,0 +1,155 @@
+package chon.group.game.core;
+
+/**
+ * The {@code FixedTimestep} class decouples the simulation from the rendering
+ * rate. Frame times are accumulated and consumed in ticks of a fixed length,
+ * so the game advances at the same pace on a 60 Hz or a 144 Hz display.
+ * <p>
+ * The remaining fraction of a tick is exposed as an interpolation factor,
+ * which the renderer uses to blend between the previous and the current
+ * positions of the entities.
+ * </p>
+ */
+public class FixedTimestep {
+
+    /** Default number of simulation ticks per second. */
+    public static final int DEFAULT_TICK_RATE = 60;
+
+    /**
+     * Maximum ticks run in a single real-time frame, avoiding a spiral of
+     * death. The cap grows with the time scale, so a faster simulation is not
+     * clamped on every frame.
+     */
+    private static final int MAX_CATCH_UP_TICKS = 5;
+
+    /** Length of a tick in nanoseconds. */
+    private final long tickNanos;
+
+    /** Simulated time multiplier (1.0 plays in real time). */
+    private double timeScale = 1.0;
+
+    /** Time accumulated and not yet simulated, in nanoseconds. */
+    private long accumulator = 0;
+
+    /** The timestamp of the previous frame, or -1 before the first frame. */
+    private long lastTime = -1;
+
+    /** Number of ticks simulated so far. */
+    private long tickCount = 0;
+
+    /** Number of ticks to simulate in the current frame. */
+    private int frameTicks = 0;
+
+    /**
+     * Constructor to initialize the timestep with the default tick rate.
+     */
+    public FixedTimestep() {
+        this(DEFAULT_TICK_RATE);
+    }
+
+    /**
+     * Constructor to initialize the timestep.
+     *
+     * @param tickRate the number of simulation ticks per second
+     */
+    public FixedTimestep(int tickRate) {
+        if (tickRate <= 0) {
+            throw new IllegalArgumentException("The tick rate must be positive.");
+        }
+        this.tickNanos = 1_000_000_000L / tickRate;
+    }
+
+    /**
+     * Accumulates the time elapsed since the previous frame and returns how
+     * many ticks must be simulated.
+     *
+     * @param now the timestamp of the current frame in nanoseconds
+     * @return the number of ticks to simulate in this frame
+     */
+    public int advance(long now) {
+        if (this.lastTime < 0) {
+            this.lastTime = now;
+            this.frameTicks = 0;
+            return 0;
+        }
+        long elapsed = now - this.lastTime;
+        this.lastTime = now;
+        this.accumulator += (long) (elapsed * this.timeScale);
+
+        long due = this.accumulator / this.tickNanos;
+        int maxTicks = MAX_CATCH_UP_TICKS * (int) Math.max(1, Math.ceil(this.timeScale));
+        int ticks = (int) Math.min(due, maxTicks);
+        if (due > maxTicks) {
+            /* Too far behind: drop the backlog, keeping the partial tick. */
+            this.accumulator %= this.tickNanos;
+        } else {
+            this.accumulator -= ticks * this.tickNanos;
+        }
+        this.tickCount += ticks;
+        this.frameTicks = ticks;
+        return ticks;
+    }
+
+    /**
+     * Gets the real time at which a tick of the current frame ends, used to
+     * assign input events to the tick during which they happened.
+     *
+     * @param index the index of the tick in the frame, from 0 to the value
+     *              returned by {@link #advance(long)} minus one
+     * @return the end time of the tick in nanoseconds
+     */
+    public long getTickTime(int index) {
+        if (this.timeScale <= 0) {
+            return this.lastTime;
+        }
+        long ahead = this.accumulator + (this.frameTicks - 1 - index) * this.tickNanos;
+        return this.lastTime - (long) (ahead / this.timeScale);
+    }
+
+    /**
+     * Gets the fraction of a tick accumulated but not simulated yet.
+     *
+     * @return the interpolation factor between 0.0 and 1.0
+     */
+    public double getAlpha() {
+        return (double) this.accumulator / this.tickNanos;
+    }
+
+    /**
+     * Gets the length of a tick in nanoseconds.
+     *
+     * @return the tick length in nanoseconds
+     */
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    /**
+     * Gets the number of ticks simulated so far.
+     *
+     * @return the tick count
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * Gets the simulated time multiplier.
+     *
+     * @return the time scale
+     */
+    public double getTimeScale() {
+        return timeScale;
+    }
+
+    /**
+     * Sets the simulated time multiplier. Values above 1.0 run the simulation
+     * faster than real time.
+     *
+     * @param timeScale the new time scale
+     */
+    public void setTimeScale(double timeScale) {
+        this.timeScale = Math.max(0, timeScale);
+    }
+
+}
@@ -0,0 +1,154 @@
+package chon.group.game.core;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * The {@code FrameProfiler} class measures where the frame time goes. Each
+ * phase of the game loop is timed with {@link System#nanoTime()} and its
+ * durations are kept in a {@link LatencyHistogram}.
+ * <p>
+ * Phases are registered by name once, during setup, and then referred to by
+ * their index, so timing a phase only reads the clock and bumps a counter.
+ * Nested phases are allowed, but a phase must not be nested in itself.
+ * </p>
+ */
+public class FrameProfiler {
+
+    /** Maximum number of phases. */
+    public static final int MAX_PHASES = 64;
+
+    /** The names of the phases. */
+    private final String[] names = new String[MAX_PHASES];
+
+    /** The durations of each phase. */
+    private final LatencyHistogram[] histograms = new LatencyHistogram[MAX_PHASES];
+
+    /** The start time of each phase in progress. */
+    private final long[] starts = new long[MAX_PHASES];
+
+    /** Number of phases registered. */
+    private int phases = 0;
+
+    /**
+     * Gets the index of a phase, registering it on first use. Drawers and
+     * systems sharing a phase name share its histogram.
+     *
+     * @param name the name of the phase
+     * @return the index of the phase
+     */
+    public int phase(String name) {
+        for (int i = 0; i < this.phases; i++) {
+            if (this.names[i].equals(name)) {
+                return i;
+            }
+        }
+        if (this.phases == MAX_PHASES) {
+            throw new IllegalStateException("Too many profiler phases: " + name);
+        }
+        this.names[this.phases] = name;
+        this.histograms[this.phases] = new LatencyHistogram();
+        return this.phases++;
+    }
+
+    /**
+     * Starts timing a phase.
+     *
+     * @param phase the index of the phase
+     */
+    public void begin(int phase) {
+        this.starts[phase] = System.nanoTime();
+    }
+
+    /**
+     * Stops timing a phase and records its duration.
+     *
+     * @param phase the index of the phase
+     */
+    public void end(int phase) {
+        this.histograms[phase].record(System.nanoTime() - this.starts[phase]);
+    }
+
+    /**
+     * Gets the number of phases registered.
+     *
+     * @return the number of phases
+     */
+    public int getPhaseCount() {
+        return this.phases;
+    }
+
+    /**
+     * Gets the name of a phase.
+     *
+     * @param phase the index of the phase
+     * @return the name
+     */
+    public String getName(int phase) {
+        return this.names[phase];
+    }
+
+    /**
+     * Gets the durations recorded for a phase.
+     *
+     * @param phase the index of the phase
+     * @return the histogram of the phase
+     */
+    public LatencyHistogram getHistogram(int phase) {
+        return this.histograms[phase];
+    }
+
+    /**
+     * Forgets every duration recorded, keeping the phases.
+     */
+    public void reset() {
+        for (int i = 0; i < this.phases; i++) {
+            this.histograms[i].reset();
+        }
+    }
+
+    /**
+     * Writes the histograms as CSV, one line per non-empty bucket of each
+     * phase.
+     *
+     * @param writer the destination
+     * @throws IOException if the destination cannot be written
+     */
+    public void writeCsv(Writer writer) throws IOException {
+        writer.write("phase,bucket_low_ns,bucket_high_ns,count\n");
+        for (int i = 0; i < this.phases; i++) {
+            LatencyHistogram histogram = this.histograms[i];
+            for (int bucket = 0; bucket < histogram.getBucketCount(); bucket++) {
+                long count = histogram.getCountAt(bucket);
+                if (count > 0) {
+                    writer.write(this.names[i] + ',' + histogram.getLowestAt(bucket) + ','
+                            + histogram.getHighestAt(bucket) + ',' + count + '\n');
+                }
+            }
+        }
+    }
+
+    /**
+     * Appends the p50, p99 and max of a phase to a builder, in microseconds,
+     * without allocating.
+     *
+     * @param phase   the index of the phase
+     * @param builder the destination
+     * @return the builder
+     */
+    public StringBuilder appendSummary(int phase, StringBuilder builder) {
+        LatencyHistogram histogram = this.histograms[phase];
+        builder.append(this.names[phase]);
+        builder.append(" p50 ");
+        appendMicros(histogram.getValueAtPercentile(50), builder);
+        builder.append(" p99 ");
+        appendMicros(histogram.getValueAtPercentile(99), builder);
+        builder.append(" max ");
+        appendMicros(histogram.getMax(), builder);
+        return builder;
+    }
+
+    private static void appendMicros(long nanos, StringBuilder builder) {
+        builder.append(nanos / 1000).append('.').append((nanos / 100) % 10).append("us");
+    }
+}
@@ -0,0 +1,115 @@
+package chon.group.game.core;
+
+/**
+ * The {@code GameClock} class is the time source of the simulation.
+ * <p>
+ * Game time is a monotonic count of nanoseconds advanced by the game loop,
+ * once per tick, instead of being read from the system on every use. It
+ * stands still while the clock is paused and runs faster or slower with the
+ * time scale, so timers such as message fading and invulnerability follow
+ * the game rather than the wall clock, and a headless run can fast-forward
+ * simply by advancing it.
+ * </p>
+ * <p>
+ * {@link #SYSTEM} follows {@link System#nanoTime()} and serves entities that
+ * were never given the clock of an environment.
+ * </p>
+ */
+public class GameClock {
+
+    /** A clock following the system monotonic time; it cannot be advanced. */
+    public static final GameClock SYSTEM = new GameClock(true);
+
+    /** If the clock follows the system monotonic time. */
+    private final boolean system;
+
+    /** The game time in nanoseconds. */
+    private long nanos = 0;
+
+    /** Game time multiplier (1.0 follows the time it is advanced by). */
+    private double timeScale = 1.0;
+
+    /** If the game time stands still. */
+    private boolean paused = false;
+
+    /**
+     * Constructor to initialize a clock at game time zero.
+     */
+    public GameClock() {
+        this(false);
+    }
+
+    private GameClock(boolean system) {
+        this.system = system;
+    }
+
+    /**
+     * Advances the game time by an elapsed time, scaled by the time scale.
+     * Nothing happens while the clock is paused.
+     *
+     * @param elapsedNanos the elapsed time in nanoseconds
+     * @throws UnsupportedOperationException if this is the system clock
+     */
+    public void advance(long elapsedNanos) {
+        if (this.system) {
+            throw new UnsupportedOperationException("The system clock cannot be advanced.");
+        }
+        if (!this.paused) {
+            this.nanos += (long) (elapsedNanos * this.timeScale);
+        }
+    }
+
+    /**
+     * Gets the game time.
+     *
+     * @return the game time in nanoseconds
+     */
+    public long nanoTime() {
+        return this.system ? System.nanoTime() : this.nanos;
+    }
+
+    /**
+     * Gets the game time in milliseconds.
+     *
+     * @return the game time in milliseconds
+     */
+    public long millis() {
+        return this.nanoTime() / 1_000_000L;
+    }
+
+    /**
+     * Checks whether the game time stands still.
+     *
+     * @return true if the clock is paused
+     */
+    public boolean isPaused() {
+        return this.paused;
+    }
+
+    /**
+     * Pauses or resumes the game time.
+     *
+     * @param paused true to pause the clock
+     */
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+    }
+
+    /**
+     * Gets the game time multiplier.
+     *
+     * @return the time scale
+     */
+    public double getTimeScale() {
+        return this.timeScale;
+    }
+
+    /**
+     * Sets the game time multiplier. Values below 1.0 slow the timers down.
+     *
+     * @param timeScale the new time scale
+     */
+    public void setTimeScale(double timeScale) {
+        this.timeScale = Math.max(0, timeScale);
+    }
+}
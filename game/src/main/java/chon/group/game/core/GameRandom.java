@@ -0,0 +1,68 @@
+package chon.group.game.core;
+
+import java.util.SplittableRandom;
+
+/**
+ * The {@code GameRandom} class is the single source of randomness of a game
+ * session.
+ * <p>
+ * Every random outcome is drawn from one generator created from a known
+ * seed, so a session replayed with the same seed and the same inputs takes
+ * exactly the same turns.
+ * </p>
+ */
+public class GameRandom {
+
+    /** The seed the generator was created from. */
+    private final long seed;
+
+    /** The generator. */
+    private final SplittableRandom random;
+
+    /**
+     * Constructor to initialize the generator.
+     *
+     * @param seed the seed
+     */
+    public GameRandom(long seed) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Creates a seed for a new session.
+     *
+     * @return a seed that differs between sessions
+     */
+    public static long newSeed() {
+        return new SplittableRandom().nextLong();
+    }
+
+    /**
+     * Gets the seed the generator was created from.
+     *
+     * @return the seed
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Draws an integer between zero (inclusive) and a bound (exclusive).
+     *
+     * @param bound the bound, which must be positive
+     * @return the random integer
+     */
+    public int nextInt(int bound) {
+        return this.random.nextInt(bound);
+    }
+
+    /**
+     * Draws a number between 0.0 (inclusive) and 1.0 (exclusive).
+     *
+     * @return the random number
+     */
+    public double nextDouble() {
+        return this.random.nextDouble();
+    }
+}
@@ -0,0 +1,173 @@
+package chon.group.game.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code InputQueue} class carries timestamped key events from the thread
+ * receiving them to the simulation.
+ * <p>
+ * It is a lock-free ring buffer for a single producer and a single consumer:
+ * the producer only advances the tail and the consumer only advances the
+ * head, so neither blocks nor allocates. Events are drained once per tick up
+ * to the end time of that tick, so every event lands on the tick during which
+ * it happened. When the ring is full, new events are dropped and counted.
+ * </p>
+ */
+public class InputQueue {
+
+    /** Default number of events held by the ring. */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    /** The timestamps of the events, in nanoseconds. */
+    private final long[] times;
+
+    /** The keys of the events. */
+    private final Key[] keys;
+
+    /** If each event is a press (true) or a release (false). */
+    private final boolean[] presses;
+
+    /** Mask turning a sequence number into a slot index. */
+    private final int mask;
+
+    /** Sequence of the next event to read, advanced by the consumer. */
+    private final AtomicLong head = new AtomicLong();
+
+    /** Sequence of the next event to write, advanced by the producer. */
+    private final AtomicLong tail = new AtomicLong();
+
+    /** Number of events dropped because the ring was full. */
+    private volatile long dropped;
+
+    /**
+     * Constructor to initialize the queue with the default capacity.
+     */
+    public InputQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor to initialize the queue.
+     *
+     * @param capacity the number of events held, rounded up to a power of two
+     */
+    public InputQueue(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity must be positive.");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.times = new long[size];
+        this.keys = new Key[size];
+        this.presses = new boolean[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Enqueues a key event. Must only be called from the producer thread.
+     *
+     * @param key     the key
+     * @param pressed true for a press, false for a release
+     * @param time    the timestamp of the event in nanoseconds
+     * @return true if the event was enqueued, false if the ring was full
+     */
+    public boolean offer(Key key, boolean pressed, long time) {
+        long sequence = this.tail.get();
+        if (sequence - this.head.get() > this.mask) {
+            this.dropped++;
+            return false;
+        }
+        int slot = (int) (sequence & this.mask);
+        this.times[slot] = time;
+        this.keys[slot] = key;
+        this.presses[slot] = pressed;
+        /* Publishes the slot to the consumer. */
+        this.tail.lazySet(sequence + 1);
+        return true;
+    }
+
+    /**
+     * Applies to the input state every event that happened up to a deadline.
+     * Later events stay queued for the next ticks. Must only be called from
+     * the consumer thread.
+     *
+     * @param state    the input state of the tick
+     * @param deadline the end time of the tick in nanoseconds
+     * @return the number of events applied
+     */
+    public int drain(InputState state, long deadline) {
+        return this.drain(state, deadline, null, 0);
+    }
+
+    /**
+     * Applies to the input state every event that happened up to a deadline,
+     * recording each applied event with the tick it landed on.
+     *
+     * @param state    the input state of the tick
+     * @param deadline the end time of the tick in nanoseconds
+     * @param recorder the recorder of the session, or null
+     * @param tick     the index of the tick
+     * @return the number of events applied
+     * @throws UncheckedIOException if the recorder cannot write the log
+     */
+    public int drain(InputState state, long deadline, InputRecorder recorder, long tick) {
+        long sequence = this.head.get();
+        long end = this.tail.get();
+        int count = 0;
+        while (sequence < end) {
+            int slot = (int) (sequence & this.mask);
+            if (this.times[slot] - deadline > 0) {
+                break;
+            }
+            if (this.presses[slot]) {
+                state.press(this.keys[slot], this.times[slot]);
+            } else {
+                state.release(this.keys[slot]);
+            }
+            if (recorder != null) {
+                try {
+                    recorder.record(tick, this.keys[slot], this.presses[slot]);
+                } catch (IOException e) {
+                    this.head.lazySet(sequence + 1);
+                    throw new UncheckedIOException(e);
+                }
+            }
+            sequence++;
+            count++;
+        }
+        /* Hands the slots back to the producer. */
+        this.head.lazySet(sequence);
+        return count;
+    }
+
+    /**
+     * Gets the number of events waiting in the queue.
+     *
+     * @return the number of queued events
+     */
+    public int size() {
+        return (int) (this.tail.get() - this.head.get());
+    }
+
+    /**
+     * Gets the number of events the queue can hold.
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return this.mask + 1;
+    }
+
+    /**
+     * Gets the number of events dropped because the queue was full.
+     *
+     * @return the number of dropped events
+     */
+    public long getDropped() {
+        return this.dropped;
+    }
+}
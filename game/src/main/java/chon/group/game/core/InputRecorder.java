@@ -0,0 +1,83 @@
+package chon.group.game.core;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The {@code InputRecorder} class writes a game session to a compact binary
+ * log: the random seed and tick rate, followed by every key event stamped
+ * with the tick it was applied in.
+ * <p>
+ * The log starts with the magic number {@link #MAGIC}, a format version, the
+ * seed (8 bytes) and the tick rate (4 bytes). Each event then takes the
+ * number of ticks since the previous event, as an unsigned variable-length
+ * integer, and one byte holding the key ordinal, with the highest bit set
+ * for presses. A session of ordinary play takes a few bytes per second.
+ * </p>
+ */
+public class InputRecorder implements Closeable {
+
+    /** The first bytes of a log: "CHRP". */
+    public static final int MAGIC = 0x43485250;
+
+    /** The version of the log format. */
+    public static final int VERSION = 1;
+
+    /** Bit of the event byte set for presses. */
+    static final int PRESSED = 0x80;
+
+    /** The destination of the log. */
+    private final DataOutputStream out;
+
+    /** The tick of the previous event. */
+    private long lastTick = 0;
+
+    /**
+     * Creates a log and writes its header.
+     *
+     * @param path     the file of the log
+     * @param seed     the random seed of the session
+     * @param tickRate the number of simulation ticks per second
+     * @throws IOException if the file cannot be written
+     */
+    public InputRecorder(Path path, long seed, int tickRate) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+        this.out.writeInt(MAGIC);
+        this.out.writeByte(VERSION);
+        this.out.writeLong(seed);
+        this.out.writeInt(tickRate);
+    }
+
+    /**
+     * Records a key event. Events must be recorded in tick order.
+     *
+     * @param tick    the tick the event was applied in
+     * @param key     the key
+     * @param pressed true for a press, false for a release
+     * @throws IOException if the log cannot be written
+     */
+    public void record(long tick, Key key, boolean pressed) throws IOException {
+        long delta = tick - this.lastTick;
+        this.lastTick = tick;
+        while ((delta & ~0x7FL) != 0) {
+            this.out.writeByte((int) ((delta & 0x7F) | 0x80));
+            delta >>>= 7;
+        }
+        this.out.writeByte((int) delta);
+        this.out.writeByte(key.ordinal() | (pressed ? PRESSED : 0));
+    }
+
+    /**
+     * Writes the buffered events and closes the log.
+     *
+     * @throws IOException if the log cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        this.out.close();
+    }
+}
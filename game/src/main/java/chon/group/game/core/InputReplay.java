@@ -0,0 +1,162 @@
+package chon.group.game.core;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * The {@code InputReplay} class reads a log written by {@link InputRecorder}
+ * and feeds its key events back into the simulation, each one in the tick it
+ * was originally applied in.
+ */
+public class InputReplay {
+
+    /** The keys, indexed by their ordinal, copied once rather than on every tick. */
+    private static final Key[] KEYS = Key.values();
+
+    /** The random seed of the recorded session. */
+    private final long seed;
+
+    /** The tick rate of the recorded session. */
+    private final int tickRate;
+
+    /** The tick of each event. */
+    private final long[] ticks;
+
+    /** The key and press bit of each event. */
+    private final byte[] codes;
+
+    /** Number of events. */
+    private final int count;
+
+    /** The next event to feed. */
+    private int next = 0;
+
+    private InputReplay(long seed, int tickRate, long[] ticks, byte[] codes, int count) {
+        this.seed = seed;
+        this.tickRate = tickRate;
+        this.ticks = ticks;
+        this.codes = codes;
+        this.count = count;
+    }
+
+    /**
+     * Reads a whole log.
+     *
+     * @param path the file of the log
+     * @return the replay, positioned before the first event
+     * @throws IOException if the file cannot be read or is not a valid log
+     */
+    public static InputReplay load(Path path) throws IOException {
+        try (InputStream stream = Files.newInputStream(path);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(stream))) {
+            if (in.readInt() != InputRecorder.MAGIC) {
+                throw new IOException("Not an input log: " + path);
+            }
+            int version = in.readUnsignedByte();
+            if (version != InputRecorder.VERSION) {
+                throw new IOException("Unsupported input log version " + version + ": " + path);
+            }
+            long seed = in.readLong();
+            int tickRate = in.readInt();
+
+            long[] ticks = new long[256];
+            byte[] codes = new byte[256];
+            int count = 0;
+            long tick = 0;
+            while (true) {
+                int first = in.read();
+                if (first < 0) {
+                    break;
+                }
+                long delta = 0;
+                int shift = 0;
+                int b = first;
+                while ((b & 0x80) != 0) {
+                    delta |= (long) (b & 0x7F) << shift;
+                    shift += 7;
+                    b = in.readUnsignedByte();
+                }
+                delta |= (long) b << shift;
+                int code;
+                try {
+                    code = in.readUnsignedByte();
+                } catch (EOFException e) {
+                    throw new IOException("Truncated input log: " + path, e);
+                }
+                if ((code & ~InputRecorder.PRESSED) >= KEYS.length) {
+                    throw new IOException("Unknown key in input log: " + path);
+                }
+                tick += delta;
+                if (count == ticks.length) {
+                    ticks = Arrays.copyOf(ticks, count * 2);
+                    codes = Arrays.copyOf(codes, count * 2);
+                }
+                ticks[count] = tick;
+                codes[count] = (byte) code;
+                count++;
+            }
+            return new InputReplay(seed, tickRate, ticks, codes, count);
+        }
+    }
+
+    /**
+     * Gets the random seed of the recorded session.
+     *
+     * @return the seed
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Gets the tick rate of the recorded session.
+     *
+     * @return the number of ticks per second
+     */
+    public int getTickRate() {
+        return this.tickRate;
+    }
+
+    /**
+     * Gets the tick of the last recorded event.
+     *
+     * @return the last tick, or 0 for an empty log
+     */
+    public long getLastTick() {
+        return this.count == 0 ? 0 : this.ticks[this.count - 1];
+    }
+
+    /**
+     * Applies the events recorded up to a tick.
+     *
+     * @param tick  the current tick
+     * @param state the input state of the tick
+     */
+    public void feed(long tick, InputState state) {
+        while (this.next < this.count && this.ticks[this.next] <= tick) {
+            int code = this.codes[this.next] & 0xFF;
+            Key key = KEYS[code & ~InputRecorder.PRESSED];
+            if ((code & InputRecorder.PRESSED) != 0) {
+                state.press(key, tick);
+            } else {
+                state.release(key);
+            }
+            this.next++;
+        }
+    }
+
+    /**
+     * Checks whether every event was fed.
+     *
+     * @return true if the replay is over
+     */
+    public boolean isFinished() {
+        return this.next == this.count;
+    }
+}
@@ -0,0 +1,123 @@
+package chon.group.game.core;
+
+/**
+ * The {@code InputState} class holds the keys pressed during a simulation
+ * tick as bitsets, so checking a key is a single bit test.
+ * <p>
+ * Besides the keys currently held down, the state keeps the keys pressed
+ * since the start of the tick, which lets one-shot actions react to each
+ * press exactly once. The simulation calls {@link #endTick()} after every
+ * tick.
+ * </p>
+ */
+public class InputState {
+
+    /** The keys held down. */
+    private long down;
+
+    /** The keys pressed since the start of the tick. */
+    private long pressed;
+
+    /** The last key pressed in the tick, or null if none. */
+    private Key lastPressed;
+
+    /** The timestamp of the last press, in nanoseconds. */
+    private long lastPressTime;
+
+    /**
+     * Marks a key as pressed. Repeated presses without a release, such as the
+     * keyboard auto-repeat, count as new presses.
+     *
+     * @param key  the key
+     * @param time the timestamp of the press in nanoseconds
+     */
+    public void press(Key key, long time) {
+        this.down |= key.mask();
+        this.pressed |= key.mask();
+        this.lastPressed = key;
+        this.lastPressTime = time;
+    }
+
+    /**
+     * Marks a key as released.
+     *
+     * @param key the key
+     */
+    public void release(Key key) {
+        this.down &= ~key.mask();
+    }
+
+    /**
+     * Consumes a key, so the rest of the tick behaves as if it was never
+     * pressed.
+     *
+     * @param key the key
+     */
+    public void consume(Key key) {
+        this.down &= ~key.mask();
+        this.pressed &= ~key.mask();
+    }
+
+    /**
+     * Checks whether a key is held down.
+     *
+     * @param key the key
+     * @return true if the key is down
+     */
+    public boolean isDown(Key key) {
+        return (this.down & key.mask()) != 0;
+    }
+
+    /**
+     * Checks whether a key was pressed since the start of the tick.
+     *
+     * @param key the key
+     * @return true if the key was pressed in this tick
+     */
+    public boolean wasPressed(Key key) {
+        return (this.pressed & key.mask()) != 0;
+    }
+
+    /**
+     * Checks whether any key is held down.
+     *
+     * @return true if at least one key is down
+     */
+    public boolean isAnyDown() {
+        return this.down != 0;
+    }
+
+    /**
+     * Gets the last key pressed in the tick.
+     *
+     * @return the key, or null if no key was pressed in this tick
+     */
+    public Key getLastPressed() {
+        return this.lastPressed;
+    }
+
+    /**
+     * Gets the timestamp of the last press.
+     *
+     * @return the timestamp in nanoseconds
+     */
+    public long getLastPressTime() {
+        return this.lastPressTime;
+    }
+
+    /**
+     * Forgets the presses of the tick, keeping the keys held down.
+     */
+    public void endTick() {
+        this.pressed = 0;
+        this.lastPressed = null;
+    }
+
+    /**
+     * Releases every key.
+     */
+    public void clear() {
+        this.down = 0;
+        this.endTick();
+    }
+}
@@ -0,0 +1,32 @@
+package chon.group.game.core;
+
+/**
+ * The {@code Key} enum lists the keys understood by the game, independently
+ * of the toolkit delivering the keyboard events.
+ * <p>
+ * Each key is a bit of {@link InputState}, so there can be at most 64 keys.
+ * </p>
+ */
+public enum Key {
+    UP,
+    DOWN,
+    LEFT,
+    RIGHT,
+    SPACE,
+    P,
+    A,
+    E,
+    M,
+    V,
+    F3,
+    F4;
+
+    /**
+     * Gets the bit of the key inside an input bitset.
+     *
+     * @return the bit mask of the key
+     */
+    long mask() {
+        return 1L << this.ordinal();
+    }
+}
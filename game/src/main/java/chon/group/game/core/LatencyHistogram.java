@@ -0,0 +1,184 @@
+package chon.group.game.core;
+
+import java.util.Arrays;
+
+/**
+ * The {@code LatencyHistogram} class records durations in fixed log-linear
+ * buckets, in the spirit of HDR histograms.
+ * <p>
+ * Every power of two is split into 16 linear sub-buckets, so any recorded
+ * value is known within about 6% while the whole range, from one nanosecond
+ * to several minutes, fits in a few hundred counters allocated once.
+ * Recording is a couple of bit operations and never allocates.
+ * </p>
+ */
+public class LatencyHistogram {
+
+    /** Bits of the linear sub-buckets inside each power of two. */
+    private static final int SUB_BUCKET_BITS = 4;
+
+    /** Number of linear sub-buckets inside each power of two. */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** Highest power of two tracked; larger values land in the last bucket. */
+    private static final int MAX_MAGNITUDE = 40;
+
+    /** Total number of buckets. */
+    private static final int BUCKETS = (MAX_MAGNITUDE - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    /** The number of values recorded in each bucket. */
+    private final long[] counts = new long[BUCKETS];
+
+    /** The number of values recorded. */
+    private long count;
+
+    /** The sum of the values recorded. */
+    private long total;
+
+    /** The largest value recorded. */
+    private long max;
+
+    /**
+     * Records a duration.
+     *
+     * @param value the duration in nanoseconds; negative values count as zero
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        this.counts[bucketOf(value)]++;
+        this.count++;
+        this.total += value;
+        if (value > this.max) {
+            this.max = value;
+        }
+    }
+
+    /**
+     * Gets the value below which a percentage of the recorded values fall,
+     * within the precision of the buckets.
+     *
+     * @param percentile the percentile, from 0.0 to 100.0
+     * @return the value in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (this.count == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(this.count * Math.min(percentile, 100.0) / 100.0);
+        target = Math.max(target, 1);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += this.counts[i];
+            if (seen >= target) {
+                return Math.min(highestOf(i), this.max);
+            }
+        }
+        return this.max;
+    }
+
+    /**
+     * Gets the number of values recorded.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Gets the largest value recorded.
+     *
+     * @return the maximum in nanoseconds
+     */
+    public long getMax() {
+        return this.max;
+    }
+
+    /**
+     * Gets the average of the values recorded.
+     *
+     * @return the mean in nanoseconds, or 0 if nothing was recorded
+     */
+    public double getMean() {
+        return this.count == 0 ? 0 : (double) this.total / this.count;
+    }
+
+    /**
+     * Gets the number of buckets of the histogram.
+     *
+     * @return the number of buckets
+     */
+    public int getBucketCount() {
+        return BUCKETS;
+    }
+
+    /**
+     * Gets the number of values recorded in a bucket.
+     *
+     * @param bucket the bucket index
+     * @return the count of the bucket
+     */
+    public long getCountAt(int bucket) {
+        return this.counts[bucket];
+    }
+
+    /**
+     * Gets the lowest value that falls in a bucket.
+     *
+     * @param bucket the bucket index
+     * @return the lowest value in nanoseconds
+     */
+    public long getLowestAt(int bucket) {
+        return lowestOf(bucket);
+    }
+
+    /**
+     * Gets the highest value that falls in a bucket.
+     *
+     * @param bucket the bucket index
+     * @return the highest value in nanoseconds
+     */
+    public long getHighestAt(int bucket) {
+        return highestOf(bucket);
+    }
+
+    /**
+     * Forgets every recorded value.
+     */
+    public void reset() {
+        Arrays.fill(this.counts, 0);
+        this.count = 0;
+        this.total = 0;
+        this.max = 0;
+    }
+
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int magnitude = Math.min(63 - Long.numberOfLeadingZeros(value), MAX_MAGNITUDE + 1);
+        if (magnitude > MAX_MAGNITUDE) {
+            return BUCKETS - 1;
+        }
+        int sub = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long lowestOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int magnitude = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int sub = bucket % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + sub) << (magnitude - SUB_BUCKET_BITS);
+    }
+
+    private static long highestOf(int bucket) {
+        if (bucket == BUCKETS - 1) {
+            return Long.MAX_VALUE;
+        }
+        return lowestOf(bucket + 1) - 1;
+    }
+}
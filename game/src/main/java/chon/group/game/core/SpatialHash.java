@@ -0,0 +1,238 @@
+package chon.group.game.core;
+
+import java.util.Arrays;
+
+/**
+ * The {@code SpatialHash} class is a uniform grid used as a broadphase for
+ * overlap queries. Each item is an axis-aligned rectangle identified by the
+ * order in which it was inserted; the grid cells are hashed into a fixed
+ * number of buckets, so the world does not need to be bounded.
+ * <p>
+ * The grid is meant to be rebuilt once per tick with {@link #clear()} and
+ * {@link #insert(int, int, int, int)}. All storage is reused between
+ * rebuilds, so a steady population causes no allocation.
+ * </p>
+ */
+public class SpatialHash {
+
+    /** Default side of a grid cell. */
+    public static final int DEFAULT_CELL_SIZE = 64;
+
+    /** Default number of hash buckets. */
+    private static final int DEFAULT_BUCKETS = 4096;
+
+    /** The side of a grid cell. */
+    private final int cellSize;
+
+    /** Mask applied to the cell hash to select a bucket. */
+    private final int bucketMask;
+
+    /** The first entry of each bucket. */
+    private final int[] bucketHead;
+
+    /** The generation in which each bucket was last written. */
+    private final int[] bucketGeneration;
+
+    /** The generation of the current rebuild. */
+    private int generation = 1;
+
+    /** The item referenced by each entry. */
+    private int[] entryItem = new int[256];
+
+    /** The next entry in the same bucket, or -1. */
+    private int[] entryNext = new int[256];
+
+    /** Number of entries in use. */
+    private int entryCount = 0;
+
+    /** Bounds of each item: x, y, width and height. */
+    private int[] bounds = new int[4 * 64];
+
+    /** Number of items inserted. */
+    private int itemCount = 0;
+
+    /** The query in which each item was last reported, to skip duplicates. */
+    private int[] itemQuery = new int[64];
+
+    /** The stamp of the current query. */
+    private int queryStamp = 0;
+
+    /** The items found by the last query. */
+    private int[] results = new int[64];
+
+    /** Number of items found by the last query. */
+    private int resultCount = 0;
+
+    /**
+     * Constructor to initialize the grid with the default cell size.
+     */
+    public SpatialHash() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Constructor to initialize the grid.
+     *
+     * @param cellSize the side of a grid cell
+     */
+    public SpatialHash(int cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("The cell size must be positive.");
+        }
+        this.cellSize = cellSize;
+        this.bucketMask = DEFAULT_BUCKETS - 1;
+        this.bucketHead = new int[DEFAULT_BUCKETS];
+        this.bucketGeneration = new int[DEFAULT_BUCKETS];
+    }
+
+    /**
+     * Removes every item in constant time.
+     */
+    public void clear() {
+        this.generation++;
+        if (this.generation == Integer.MAX_VALUE) {
+            Arrays.fill(this.bucketGeneration, 0);
+            this.generation = 1;
+        }
+        this.entryCount = 0;
+        this.itemCount = 0;
+    }
+
+    /**
+     * Inserts a rectangle into every cell it overlaps.
+     *
+     * @param x      the X (horizontal) position of the rectangle
+     * @param y      the Y (vertical) position of the rectangle
+     * @param width  the width of the rectangle
+     * @param height the height of the rectangle
+     * @return the identifier of the item, which is its insertion order
+     */
+    public int insert(int x, int y, int width, int height) {
+        int item = this.itemCount++;
+        if (item == this.itemQuery.length) {
+            this.itemQuery = Arrays.copyOf(this.itemQuery, item * 2);
+            this.bounds = Arrays.copyOf(this.bounds, item * 8);
+        }
+        this.itemQuery[item] = 0;
+        this.bounds[item * 4] = x;
+        this.bounds[item * 4 + 1] = y;
+        this.bounds[item * 4 + 2] = width;
+        this.bounds[item * 4 + 3] = height;
+
+        int minCellX = Math.floorDiv(x, this.cellSize);
+        int minCellY = Math.floorDiv(y, this.cellSize);
+        int maxCellX = Math.floorDiv(x + Math.max(width, 1) - 1, this.cellSize);
+        int maxCellY = Math.floorDiv(y + Math.max(height, 1) - 1, this.cellSize);
+        for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+            for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                this.addEntry(this.bucket(cellX, cellY), item);
+            }
+        }
+        return item;
+    }
+
+    /**
+     * Finds every item overlapping a rectangle. The items found are sorted
+     * by identifier and read with {@link #getResult(int)}.
+     *
+     * @param x      the X (horizontal) position of the region
+     * @param y      the Y (vertical) position of the region
+     * @param width  the width of the region
+     * @param height the height of the region
+     * @return the number of items found
+     */
+    public int query(int x, int y, int width, int height) {
+        this.resultCount = 0;
+        this.queryStamp++;
+        if (this.queryStamp == Integer.MAX_VALUE) {
+            Arrays.fill(this.itemQuery, 0);
+            this.queryStamp = 1;
+        }
+        int minCellX = Math.floorDiv(x, this.cellSize);
+        int minCellY = Math.floorDiv(y, this.cellSize);
+        int maxCellX = Math.floorDiv(x + Math.max(width, 1) - 1, this.cellSize);
+        int maxCellY = Math.floorDiv(y + Math.max(height, 1) - 1, this.cellSize);
+        for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+            for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                int bucket = this.bucket(cellX, cellY);
+                if (this.bucketGeneration[bucket] != this.generation) {
+                    continue;
+                }
+                for (int entry = this.bucketHead[bucket]; entry >= 0; entry = this.entryNext[entry]) {
+                    int item = this.entryItem[entry];
+                    if (this.itemQuery[item] != this.queryStamp && this.overlaps(item, x, y, width, height)) {
+                        this.itemQuery[item] = this.queryStamp;
+                        this.addResult(item);
+                    }
+                }
+            }
+        }
+        Arrays.sort(this.results, 0, this.resultCount);
+        return this.resultCount;
+    }
+
+    /**
+     * Gets an item found by the last query.
+     *
+     * @param index the position of the result, from zero to the query count
+     * @return the identifier of the item
+     */
+    public int getResult(int index) {
+        return this.results[index];
+    }
+
+    /**
+     * Gets the number of items inserted since the last clear.
+     *
+     * @return the number of items
+     */
+    public int size() {
+        return this.itemCount;
+    }
+
+    /**
+     * Gets the side of a grid cell.
+     *
+     * @return the cell size
+     */
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    private boolean overlaps(int item, int x, int y, int width, int height) {
+        int itemX = this.bounds[item * 4];
+        int itemY = this.bounds[item * 4 + 1];
+        return itemX < x + width &&
+                itemX + this.bounds[item * 4 + 2] > x &&
+                itemY < y + height &&
+                itemY + this.bounds[item * 4 + 3] > y;
+    }
+
+    private int bucket(int cellX, int cellY) {
+        return ((cellX * 73856093) ^ (cellY * 19349663)) & this.bucketMask;
+    }
+
+    private void addEntry(int bucket, int item) {
+        if (this.entryCount == this.entryItem.length) {
+            this.entryItem = Arrays.copyOf(this.entryItem, this.entryCount * 2);
+            this.entryNext = Arrays.copyOf(this.entryNext, this.entryCount * 2);
+        }
+        int entry = this.entryCount++;
+        this.entryItem[entry] = item;
+        if (this.bucketGeneration[bucket] != this.generation) {
+            this.bucketGeneration[bucket] = this.generation;
+            this.entryNext[entry] = -1;
+        } else {
+            this.entryNext[entry] = this.bucketHead[bucket];
+        }
+        this.bucketHead[bucket] = entry;
+    }
+
+    private void addResult(int item) {
+        if (this.resultCount == this.results.length) {
+            this.results = Arrays.copyOf(this.results, this.resultCount * 2);
+        }
+        this.results[this.resultCount++] = item;
+    }
+
+}
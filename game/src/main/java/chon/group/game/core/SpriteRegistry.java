@@ -0,0 +1,79 @@
+package chon.group.game.core;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@code SpriteRegistry} class assigns a numeric identifier to every
+ * sprite resource path. The simulation only stores these identifiers, so it
+ * does not depend on any graphics toolkit; the renderer resolves an
+ * identifier back to its path when drawing.
+ * <p>
+ * Identifiers are dense and start at zero, so renderers can keep per-sprite
+ * data in plain arrays.
+ * </p>
+ */
+public final class SpriteRegistry {
+
+    /** Identifier returned for entities without a sprite. */
+    public static final int NO_SPRITE = -1;
+
+    /** The identifier of each registered path. */
+    private static final Map<String, Integer> ids = new HashMap<>();
+
+    /** The path of each identifier. */
+    private static volatile String[] paths = new String[32];
+
+    /** Number of registered sprites. */
+    private static volatile int count = 0;
+
+    private SpriteRegistry() {
+    }
+
+    /**
+     * Gets the identifier of a sprite, registering the path on first use.
+     *
+     * @param path the resource path of the sprite
+     * @return the sprite identifier, or {@link #NO_SPRITE} for a null path
+     */
+    public static synchronized int register(String path) {
+        if (path == null) {
+            return NO_SPRITE;
+        }
+        Integer id = ids.get(path);
+        if (id != null) {
+            return id;
+        }
+        if (count == paths.length) {
+            paths = Arrays.copyOf(paths, paths.length * 2);
+        }
+        paths[count] = path;
+        ids.put(path, count);
+        return count++;
+    }
+
+    /**
+     * Gets the resource path of a sprite identifier.
+     *
+     * @param id the sprite identifier
+     * @return the resource path, or null for an unknown identifier
+     */
+    public static String path(int id) {
+        String[] current = paths;
+        if (id < 0 || id >= count || id >= current.length) {
+            return null;
+        }
+        return current[id];
+    }
+
+    /**
+     * Gets the number of registered sprites.
+     *
+     * @return the number of sprites
+     */
+    public static int size() {
+        return count;
+    }
+
+}
@@ -0,0 +1,151 @@
+package chon.group.game.core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The {@code StartupTrace} class records when each stage of the startup is
+ * reached, from the launch of the application to its first interactive frame.
+ * <p>
+ * Stages are marked in the order they happen, possibly from worker threads,
+ * and reported as the time since the launch and the time spent since the
+ * previous stage. Runs can be appended to a CSV file, one row per run, so the
+ * time to the first interactive frame can be followed across changes. The
+ * file has one column per stage of {@link #STAGES}, always in that order
+ * whatever order the stages were reached in, and a stage that was not
+ * reached leaves its cell empty.
+ * </p>
+ */
+public class StartupTrace {
+
+    /** The stage reached when the application starts. */
+    public static final String START = "start";
+
+    /** The stage reached once the logging and the session are configured. */
+    public static final String SESSION = "session";
+
+    /** The stage reached once the assets needed by the first frame are loaded. */
+    public static final String STARTUP_ASSETS = "startup-assets";
+
+    /** The stage reached once the window shows the loading screen. */
+    public static final String STAGE_SHOWN = "stage-shown";
+
+    /** The stage reached once the scene of the game is built. */
+    public static final String GAME_BUILT = "game-built";
+
+    /** The stage reached once the game draws its first interactive frame. */
+    public static final String FIRST_FRAME = "first-frame";
+
+    /** The stage reached once the assets loaded after the first frame are ready. */
+    public static final String DEFERRED_ASSETS = "deferred-assets";
+
+    /** The columns of the CSV file, in order. */
+    public static final List<String> STAGES = List.of(
+            START, SESSION, STARTUP_ASSETS, STAGE_SHOWN, GAME_BUILT, FIRST_FRAME, DEFERRED_ASSETS);
+
+    /** When the application was launched, in nanoseconds. */
+    private final long origin;
+
+    /** The stages reached so far, in order. */
+    private final List<String> stages = new ArrayList<String>();
+
+    /** When each stage was reached, in nanoseconds since the launch. */
+    private final List<Long> times = new ArrayList<Long>();
+
+    /**
+     * Constructor to initialize a trace.
+     *
+     * @param originNanos when the application was launched, from
+     *                    {@link System#nanoTime()}
+     */
+    public StartupTrace(long originNanos) {
+        this.origin = originNanos;
+    }
+
+    /**
+     * Marks a stage as reached now. A stage marked twice keeps its first time.
+     *
+     * @param stage the name of the stage
+     */
+    public synchronized void mark(String stage) {
+        if (!this.stages.contains(stage)) {
+            this.stages.add(stage);
+            this.times.add(System.nanoTime() - this.origin);
+        }
+    }
+
+    /**
+     * Gets the time from the launch to a stage.
+     *
+     * @param stage the name of the stage
+     * @return the time in milliseconds, or -1 if the stage was not reached
+     */
+    public synchronized long getMillis(String stage) {
+        int index = this.stages.indexOf(stage);
+        return (index < 0) ? -1 : this.times.get(index) / 1_000_000;
+    }
+
+    /**
+     * Builds a report of the stages, with the time since the launch and the
+     * time spent in each stage.
+     *
+     * @return the report, one stage per line
+     */
+    public synchronized String report() {
+        StringBuilder builder = new StringBuilder("Startup trace:");
+        long previous = 0;
+        for (int i = 0; i < this.stages.size(); i++) {
+            long time = this.times.get(i);
+            builder.append(String.format(Locale.ROOT, "%n  %-16s %8.1f ms  (+%.1f ms)",
+                    this.stages.get(i), time / 1e6, (time - previous) / 1e6));
+            previous = time;
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Appends the run to a CSV file, writing the header of the stages if the
+     * file is new. Each row has a cell per stage of {@link #STAGES}, empty
+     * for the stages that were not reached; other stages are only reported.
+     *
+     * @param path the CSV file
+     * @throws IOException if the file cannot be written, or already holds
+     *                     other columns
+     */
+    public synchronized void appendCsv(Path path) throws IOException {
+        String header = "timestamp," + String.join(",", STAGES);
+        boolean created = !Files.exists(path) || Files.size(path) == 0;
+        if (!created) {
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String existing = reader.readLine();
+                if (!header.equals(existing)) {
+                    throw new IOException("The trace file " + path + " has other columns: " + existing);
+                }
+            }
+        }
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (created) {
+                writer.write(header);
+                writer.write(System.lineSeparator());
+            }
+            writer.write(String.valueOf(System.currentTimeMillis()));
+            for (String stage : STAGES) {
+                writer.write(',');
+                int index = this.stages.indexOf(stage);
+                if (index >= 0) {
+                    writer.write(String.format(Locale.ROOT, "%.1f", this.times.get(index) / 1e6));
+                }
+            }
+            writer.write(System.lineSeparator());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package chon.group.game.core;
+
+/**
+ * The {@code Timeout} interface is the action run by a {@link TimerWheel}
+ * when a timer expires.
+ * <p>
+ * Owners create their timeouts once and schedule them again and again, so
+ * scheduling a timer never allocates.
+ * </p>
+ */
+@FunctionalInterface
+public interface Timeout {
+
+    /**
+     * Runs when the timer expires, on the thread advancing the wheel.
+     */
+    void expire();
+}
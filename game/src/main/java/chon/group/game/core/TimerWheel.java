@@ -0,0 +1,320 @@
+package chon.group.game.core;
+
+import java.util.Arrays;
+
+/**
+ * The {@code TimerWheel} class runs delayed actions on simulation ticks.
+ * <p>
+ * Timers are hashed by their expiry tick into a ring of buckets; advancing
+ * the wheel by one tick only visits the bucket of that tick, so scheduling,
+ * cancelling and expiring are constant time however many timers are
+ * pending. Timers live in parallel arrays linked by index and reuse freed
+ * slots, so nothing is allocated per timer once the arrays have grown to
+ * the number of timers pending at once.
+ * </p>
+ * <p>
+ * A timer is identified by a handle holding its slot in the low 32 bits and
+ * the generation of that slot in the high 32 bits, so the handle of an
+ * expired or cancelled timer never matches the timer reusing its slot.
+ * Since the wheel only moves when the simulation ticks, timers stand still
+ * while the game is paused and replay identically. The wheel must only be
+ * used from the simulation thread.
+ * </p>
+ */
+public class TimerWheel {
+
+    /** A handle that never matches a timer. */
+    public static final long NONE = 0;
+
+    /** Default number of buckets of the wheel. */
+    public static final int DEFAULT_BUCKETS = 256;
+
+    /** Number of timers the arrays initially hold. */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** Link marking the end of a list. */
+    private static final int END = -1;
+
+    /** Previous link of a timer waiting to run in the current tick. */
+    private static final int DUE = -2;
+
+    /** Previous link of a free slot. */
+    private static final int FREE = -3;
+
+    /** The length of a tick in nanoseconds. */
+    private final long tickNanos;
+
+    /** First timer of each bucket. */
+    private final int[] buckets;
+
+    /** Mask turning a tick into a bucket index. */
+    private final int mask;
+
+    /** The action of each timer, null for free slots. */
+    private Timeout[] timeouts;
+
+    /** The expiry tick of each timer. */
+    private long[] deadlines;
+
+    /** Next timer in the same bucket, or next free slot. */
+    private int[] next;
+
+    /** Previous timer in the same bucket, or a marker. */
+    private int[] prev;
+
+    /** Generation of each slot, bumped whenever the slot is freed. */
+    private int[] generations;
+
+    /** First free slot. */
+    private int free = END;
+
+    /** Number of slots ever used. */
+    private int highWater = 0;
+
+    /** Number of pending timers. */
+    private int size = 0;
+
+    /** The current tick. */
+    private long tick = 0;
+
+    /**
+     * Constructor to initialize a wheel with the default number of buckets.
+     *
+     * @param tickNanos the length of a tick in nanoseconds
+     */
+    public TimerWheel(long tickNanos) {
+        this(tickNanos, DEFAULT_BUCKETS);
+    }
+
+    /**
+     * Constructor to initialize a wheel.
+     *
+     * @param tickNanos the length of a tick in nanoseconds
+     * @param buckets   the number of buckets, rounded up to a power of two
+     */
+    public TimerWheel(long tickNanos, int buckets) {
+        if (tickNanos <= 0) {
+            throw new IllegalArgumentException("The tick length must be positive.");
+        }
+        int length = Integer.highestOneBit(Math.max(1, buckets - 1)) << 1;
+        this.tickNanos = tickNanos;
+        this.buckets = new int[length];
+        Arrays.fill(this.buckets, END);
+        this.mask = length - 1;
+        this.timeouts = new Timeout[INITIAL_CAPACITY];
+        this.deadlines = new long[INITIAL_CAPACITY];
+        this.next = new int[INITIAL_CAPACITY];
+        this.prev = new int[INITIAL_CAPACITY];
+        this.generations = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Schedules an action after a number of ticks.
+     *
+     * @param delayTicks the delay in ticks; delays below one run on the next
+     *                   tick
+     * @param timeout    the action
+     * @return the handle of the timer
+     */
+    public long schedule(long delayTicks, Timeout timeout) {
+        int slot = this.allocate();
+        long deadline = this.tick + Math.max(1, delayTicks);
+        this.timeouts[slot] = timeout;
+        this.deadlines[slot] = deadline;
+        int bucket = (int) (deadline & this.mask);
+        int head = this.buckets[bucket];
+        this.next[slot] = head;
+        this.prev[slot] = END;
+        if (head != END) {
+            this.prev[head] = slot;
+        }
+        this.buckets[bucket] = slot;
+        this.size++;
+        return ((long) this.generations[slot] << 32) | slot;
+    }
+
+    /**
+     * Schedules an action after a delay in game milliseconds, rounded up to
+     * whole ticks.
+     *
+     * @param delayMillis the delay in milliseconds
+     * @param timeout     the action
+     * @return the handle of the timer
+     */
+    public long scheduleMillis(long delayMillis, Timeout timeout) {
+        return this.schedule(this.toTicks(delayMillis), timeout);
+    }
+
+    /**
+     * Cancels a pending timer. Cancelling an expired or cancelled timer does
+     * nothing.
+     *
+     * @param handle the handle of the timer
+     * @return true if the timer was pending
+     */
+    public boolean cancel(long handle) {
+        int slot = this.slotOf(handle);
+        if (slot == END) {
+            return false;
+        }
+        if (this.prev[slot] == DUE) {
+            /* Skipped by the expiry loop, which frees the slot. */
+            this.timeouts[slot] = null;
+            this.generations[slot]++;
+        } else {
+            this.unlink(slot);
+            this.release(slot);
+        }
+        this.size--;
+        return true;
+    }
+
+    /**
+     * Checks whether a timer is still pending.
+     *
+     * @param handle the handle of the timer
+     * @return true if the timer has neither expired nor been cancelled
+     */
+    public boolean isPending(long handle) {
+        return this.slotOf(handle) != END;
+    }
+
+    /**
+     * Gets the number of ticks left before a timer expires.
+     *
+     * @param handle the handle of the timer
+     * @return the ticks left, or 0 if the timer is not pending
+     */
+    public long getRemainingTicks(long handle) {
+        int slot = this.slotOf(handle);
+        return slot == END ? 0 : this.deadlines[slot] - this.tick;
+    }
+
+    /**
+     * Advances the wheel by one tick and runs the timers expiring in it, in
+     * no particular order. Timers scheduled by the actions run on later
+     * ticks.
+     */
+    public void advance() {
+        this.tick++;
+        int bucket = (int) (this.tick & this.mask);
+        /* Moves the due timers to a list of their own first, so actions may
+         * schedule and cancel timers freely. */
+        int due = END;
+        int slot = this.buckets[bucket];
+        while (slot != END) {
+            int following = this.next[slot];
+            if (this.deadlines[slot] == this.tick) {
+                this.unlink(slot);
+                this.next[slot] = due;
+                this.prev[slot] = DUE;
+                due = slot;
+            }
+            slot = following;
+        }
+        while (due != END) {
+            slot = due;
+            due = this.next[slot];
+            Timeout timeout = this.timeouts[slot];
+            if (timeout != null) {
+                this.size--;
+            }
+            this.release(slot);
+            if (timeout != null) {
+                timeout.expire();
+            }
+        }
+    }
+
+    /**
+     * Converts a delay in milliseconds into whole ticks, rounding up.
+     *
+     * @param millis the delay in milliseconds
+     * @return the delay in ticks
+     */
+    public long toTicks(long millis) {
+        return (millis * 1_000_000L + this.tickNanos - 1) / this.tickNanos;
+    }
+
+    /**
+     * Gets the current tick.
+     *
+     * @return the number of ticks the wheel was advanced by
+     */
+    public long getTick() {
+        return this.tick;
+    }
+
+    /**
+     * Gets the length of a tick.
+     *
+     * @return the tick length in nanoseconds
+     */
+    public long getTickNanos() {
+        return this.tickNanos;
+    }
+
+    /**
+     * Gets the number of pending timers.
+     *
+     * @return the number of timers
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Finds the slot of a pending timer.
+     *
+     * @param handle the handle of the timer
+     * @return the slot, or {@code END} if the timer is not pending
+     */
+    private int slotOf(long handle) {
+        int slot = (int) handle;
+        if (slot < 0 || slot >= this.highWater || this.timeouts[slot] == null
+                || this.generations[slot] != (int) (handle >>> 32)) {
+            return END;
+        }
+        return slot;
+    }
+
+    private int allocate() {
+        if (this.free != END) {
+            int slot = this.free;
+            this.free = this.next[slot];
+            return slot;
+        }
+        if (this.highWater == this.timeouts.length) {
+            int capacity = this.highWater * 2;
+            this.timeouts = Arrays.copyOf(this.timeouts, capacity);
+            this.deadlines = Arrays.copyOf(this.deadlines, capacity);
+            this.next = Arrays.copyOf(this.next, capacity);
+            this.prev = Arrays.copyOf(this.prev, capacity);
+            this.generations = Arrays.copyOf(this.generations, capacity);
+        }
+        /* Generations start at one, so no handle is ever NONE. */
+        this.generations[this.highWater] = 1;
+        return this.highWater++;
+    }
+
+    private void release(int slot) {
+        this.timeouts[slot] = null;
+        this.generations[slot]++;
+        this.prev[slot] = FREE;
+        this.next[slot] = this.free;
+        this.free = slot;
+    }
+
+    private void unlink(int slot) {
+        int before = this.prev[slot];
+        int after = this.next[slot];
+        if (before == END) {
+            this.buckets[(int) (this.deadlines[slot] & this.mask)] = after;
+        } else {
+            this.next[before] = after;
+        }
+        if (after != END) {
+            this.prev[after] = before;
+        }
+    }
+}
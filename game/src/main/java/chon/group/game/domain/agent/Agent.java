@@ -1,9 +1,10 @@
 package chon.group.game.domain.agent;
 
-import java.util.List;
-
 import chon.group.game.core.Entity;
-import chon.group.game.messaging.Message;
+import chon.group.game.core.GameClock;
+import chon.group.game.core.Timeout;
+import chon.group.game.core.TimerWheel;
+import chon.group.game.messaging.MessageBuffer;
 
 /**
  * Represents an agent in the game, with properties such as position, size,
@@ -12,8 +13,8 @@ import chon.group.game.messaging.Message;
  */
 public class Agent extends Entity {
 
-    /* The time of the last hit taken. */
-    private long lastHitTime = 0;
+    /* The time of the last hit taken, far in the past until the first hit. */
+    private long lastHitTime = Long.MIN_VALUE / 2;
 
     /* Flag to control the invulnerability status of the agent. */
     private boolean invulnerable = false;
@@ -24,6 +25,18 @@ public class Agent extends Entity {
     /* The Agent's Weapon */
     private Weapon weapon;
 
+    /* The clock stamping the last hit. */
+    private GameClock clock = GameClock.SYSTEM;
+
+    /* The timers ending the invulnerability, null outside an environment. */
+    private TimerWheel timers;
+
+    /* The timer ending the current invulnerability. */
+    private long invulnerabilityTimer = TimerWheel.NONE;
+
+    /* Ends the invulnerability, created once and scheduled on every hit. */
+    private final Timeout endInvulnerability = () -> this.invulnerable = false;
+
     /**
      * Constructor to initialize the agent properties.
      *
@@ -96,6 +109,50 @@ public class Agent extends Entity {
      */
     public void setInvulnerable(boolean invulnerable) {
         this.invulnerable = invulnerable;
+        if (!invulnerable && this.timers != null) {
+            this.timers.cancel(this.invulnerabilityTimer);
+        }
+    }
+
+    /**
+     * Gets the clock stamping the last hit taken by the agent.
+     *
+     * @return the clock
+     */
+    public GameClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Sets the clock stamping the last hit taken by the agent.
+     *
+     * @param clock the new clock
+     */
+    public void setClock(GameClock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Gets the timers ending the invulnerability of the agent.
+     *
+     * @return the timer wheel, or null if the agent is in no environment
+     */
+    public TimerWheel getTimers() {
+        return timers;
+    }
+
+    /**
+     * Sets the timers ending the invulnerability of the agent. Without
+     * timers, the agent is never made invulnerable.
+     *
+     * @param timers the new timer wheel
+     */
+    public void setTimers(TimerWheel timers) {
+        if (this.timers != null) {
+            this.timers.cancel(this.invulnerabilityTimer);
+            this.invulnerable = false;
+        }
+        this.timers = timers;
     }
 
     /**
@@ -116,6 +173,16 @@ public class Agent extends Entity {
         this.weapon = weapon;
     }
 
+    /**
+     * Releases the slots of the agent and of its weapon.
+     */
+    @Override
+    public void dispose() {
+        if (this.weapon != null)
+            this.weapon.dispose();
+        super.dispose();
+    }
+
     /**
      * Gets if the agent is dead.
      *
@@ -126,30 +193,21 @@ public class Agent extends Entity {
     }
 
     /**
-     * Makes the agent take damage.
+     * Makes the agent take damage, then invulnerable for the cooldown.
      * If health reaches 0, the game must end.
      *
      * @param damage the amount of damage to be applied
      */
     @Override
-    public void takeDamage(int damage, List<Message> messages) {
-        this.invulnerable = this.updateInvulnerability();
+    public void takeDamage(int damage, MessageBuffer messages) {
         if (!this.invulnerable) {
             super.takeDamage(damage, messages); 
-            this.lastHitTime = System.currentTimeMillis();
-        }
-    }
-
-    /**
-     * Method to update the invulnerable status.
-     *
-     * @return if the agent is still invulnerable
-     */
-    private boolean updateInvulnerability() {
-        if (System.currentTimeMillis() - lastHitTime >= INVULNERABILITY_COOLDOWN) {
-            return false;
+            this.lastHitTime = clock.millis();
+            if (this.timers != null) {
+                this.invulnerable = true;
+                this.invulnerabilityTimer = this.timers.scheduleMillis(INVULNERABILITY_COOLDOWN, endInvulnerability);
+            }
         }
-        return true;
     }
 
 }
\ No newline at end of file
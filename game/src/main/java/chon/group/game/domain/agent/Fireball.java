@@ -2,35 +2,51 @@ package chon.group.game.domain.agent;
 
 import java.util.List;
 
-import chon.group.game.messaging.Message;
+import chon.group.game.core.Animation;
+import chon.group.game.messaging.MessageBuffer;
 
 public class Fireball extends Weapon {
 
+    /** The animation frames of the fireball shot. */
+    public static final List<String> FRAMES = List.of(
+            "/images/weapons/fireball/fireball001.png",
+            "/images/weapons/fireball/fireball002.png",
+            "/images/weapons/fireball/fireball003.png");
+
+    /** Duration of each animation frame in milliseconds. */
+    private static final long FRAME_DURATION = 80;
+
+    /** The damage applied by each shot. */
+    private static final int DAMAGE = 100;
+
     public Fireball(int posX, int posY, int height, int width, int speed, int health, String pathImage,
             boolean flipped) {
         super(posX, posY, height, width, speed, health, pathImage, flipped);
     }
 
     @Override
-    protected Shot createShot(int posX, int posY, String direction) {
-        if (direction.equals("RIGHT"))
-            posX += 75 + 1;
-        else
-            posX -= 75 + 1;
-        return new Shot(posX,
-                posY,
+    protected Shot createShot() {
+        Shot shot = new Shot(0,
+                0,
                 47,
                 75,
                 3,
                 0,
                 "/images/weapons/fireball/fireball001.png",
                 false,
-                100,
-                direction);
+                DAMAGE,
+                "RIGHT");
+        shot.setAnimation(new Animation(FRAMES, FRAME_DURATION, true));
+        return shot;
+    }
+
+    @Override
+    protected int getShotDamage() {
+        return DAMAGE;
     }
 
     @Override
-    public void takeDamage(int damage, List<Message> messages) {
+    public void takeDamage(int damage, MessageBuffer messages) {
 
     }
 
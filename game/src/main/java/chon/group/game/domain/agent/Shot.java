@@ -1,9 +1,8 @@
 package chon.group.game.domain.agent;
 
-import java.util.List;
-
 import chon.group.game.core.Entity;
-import chon.group.game.messaging.Message;
+import chon.group.game.core.Key;
+import chon.group.game.messaging.MessageBuffer;
 
 public class Shot extends Entity {
 
@@ -11,6 +10,12 @@ public class Shot extends Entity {
     private String direction;
     private int damage;
 
+    /** The pool owning the shot, if any. */
+    private ShotPool pool;
+
+    /** Indicates if the shot is waiting in its pool. */
+    private boolean pooled = false;
+
     public Shot(int posX, int posY, int height, int width, int speed, int health, String pathImage, boolean flipped,
             int damage, String direction) {
         super(posX, posY, height, width, speed, health, pathImage, flipped);
@@ -18,6 +23,63 @@ public class Shot extends Entity {
         this.direction = direction;
     }
 
+    /**
+     * Reinitializes a recycled shot before it is fired again.
+     *
+     * @param posX      the shot's X (horizontal) position
+     * @param posY      the shot's Y (vertical) position
+     * @param direction the shot's direction
+     * @param damage    the damage applied on hit
+     */
+    public void reset(int posX, int posY, String direction, int damage) {
+        this.setPosX(posX);
+        this.setPosY(posY);
+        this.storePreviousPosition();
+        this.setHealth(this.getFullHealth());
+        this.direction = direction;
+        this.damage = damage;
+        if (this.getAnimation() != null) {
+            this.getAnimation().reset();
+            this.updateCurrentSprite();
+        }
+    }
+
+    /**
+     * Returns the shot to its pool once it left the environment. Shots
+     * without a pool give their slot back to the entity store instead.
+     */
+    public void release() {
+        if (pool != null)
+            pool.release(this);
+        else
+            this.dispose();
+    }
+
+    /**
+     * Gets the movement direction matching the shot direction.
+     *
+     * @return the movement direction
+     */
+    public Key getMovement() {
+        return "RIGHT".equals(direction) ? Key.RIGHT : Key.LEFT;
+    }
+
+    ShotPool getPool() {
+        return pool;
+    }
+
+    void setPool(ShotPool pool) {
+        this.pool = pool;
+    }
+
+    boolean isPooled() {
+        return pooled;
+    }
+
+    void setPooled(boolean pooled) {
+        this.pooled = pooled;
+    }
+
     public boolean isDestructible() {
         return destructible;
     }
@@ -43,15 +105,14 @@ public class Shot extends Entity {
     }
 
     @Override
-    public void takeDamage(int damage, List<Message> messages) {
+    public void takeDamage(int damage, MessageBuffer messages) {
         if (destructible) {
             /* Decrease health. */
             this.setHealth(this.getHealth() - damage);
-            messages.add(new Message(
-                    String.valueOf(damage),
+            messages.addDamage(damage,
                     this.getPosX(),
                     this.getPosY(),
-                    25));
+                    25);
             /* After taking the damage, the health must not be negative. */
             if (this.getHealth() < 0)
                 this.setHealth(0);
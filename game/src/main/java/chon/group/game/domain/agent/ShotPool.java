@@ -0,0 +1,193 @@
+package chon.group.game.domain.agent;
+
+import java.util.Arrays;
+
+import chon.group.game.logging.Logger;
+
+/**
+ * Represents a bounded pool of {@link Shot} instances shared by the weapons
+ * of the same type within an environment. Shots are created on demand until
+ * the capacity is reached and then recycled, so steady rapid fire does not
+ * allocate. The environment raises the capacity as armed agents join it.
+ * <p>
+ * The pool keeps metrics on its size, on the most shots in use at once and on
+ * how often a weapon could not fire because every shot was in use. The first
+ * refusal is logged, since it means the pool is too small for the game.
+ * </p>
+ * <p>
+ * A pool is not thread-safe: it is only used while the environment applies
+ * the effects of a tick.
+ * </p>
+ */
+public class ShotPool {
+
+    private static final Logger LOG = Logger.get("shots");
+
+    /** The shots available for reuse. */
+    private Shot[] free;
+
+    /** Number of shots available for reuse. */
+    private int freeCount = 0;
+
+    /** Number of shots created by the pool. */
+    private int created = 0;
+
+    /** Most shots in use at the same time. */
+    private int peakInUse = 0;
+
+    /** Number of shots handed out. */
+    private long acquired = 0;
+
+    /** Number of requests refused because the pool was exhausted. */
+    private long exhausted = 0;
+
+    /**
+     * Constructor to initialize the pool.
+     *
+     * @param capacity the maximum number of shots the pool creates
+     */
+    public ShotPool(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The pool capacity must be positive.");
+        }
+        this.free = new Shot[capacity];
+    }
+
+    /**
+     * Takes a shot from the pool, asking the weapon to create one while the
+     * pool is below its capacity.
+     *
+     * @param weapon the weapon creating new shots
+     * @return the shot, or null if every shot is in use
+     */
+    public Shot acquire(Weapon weapon) {
+        Shot shot;
+        if (this.freeCount > 0) {
+            shot = this.free[--this.freeCount];
+            this.free[this.freeCount] = null;
+        } else if (this.created < this.free.length) {
+            shot = weapon.createShot();
+            this.created++;
+        } else {
+            if (this.exhausted++ == 0) {
+                LOG.warn("Shot pool exhausted, a weapon could not fire: {}", this);
+            }
+            return null;
+        }
+        shot.setPool(this);
+        shot.setPooled(false);
+        this.acquired++;
+        this.peakInUse = Math.max(this.peakInUse, this.getInUse());
+        return shot;
+    }
+
+    /**
+     * Raises the capacity of the pool, keeping the shots it holds.
+     *
+     * @param capacity the maximum number of shots the pool may create
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > this.free.length) {
+            this.free = Arrays.copyOf(this.free, capacity);
+        }
+    }
+
+    /**
+     * Returns a shot to the pool. Shots already returned, or taken from
+     * another pool, are ignored.
+     *
+     * @param shot the shot no longer in use
+     */
+    public void release(Shot shot) {
+        if (shot.isPooled() || shot.getPool() != this || this.freeCount == this.free.length) {
+            return;
+        }
+        shot.setPooled(true);
+        this.free[this.freeCount++] = shot;
+    }
+
+    /**
+     * Empties the pool, handing the slots of its shots back to the entity
+     * store. Shots still in use must have been released first; any other
+     * shot is forgotten and no longer returns to the pool.
+     */
+    public void clear() {
+        for (int i = 0; i < this.freeCount; i++) {
+            this.free[i].setPool(null);
+            this.free[i].dispose();
+            this.free[i] = null;
+        }
+        this.freeCount = 0;
+        this.created = 0;
+    }
+
+    /**
+     * Gets the maximum number of shots the pool creates.
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return free.length;
+    }
+
+    /**
+     * Gets the number of shots created so far.
+     *
+     * @return the pool size
+     */
+    public int getSize() {
+        return created;
+    }
+
+    /**
+     * Gets the number of shots available for reuse.
+     *
+     * @return the available shots
+     */
+    public int getAvailable() {
+        return freeCount;
+    }
+
+    /**
+     * Gets the number of shots currently in use.
+     *
+     * @return the shots in use
+     */
+    public int getInUse() {
+        return created - freeCount;
+    }
+
+    /**
+     * Gets the most shots in use at the same time so far.
+     *
+     * @return the peak number of shots in use
+     */
+    public int getPeakInUse() {
+        return peakInUse;
+    }
+
+    /**
+     * Gets the number of shots handed out so far.
+     *
+     * @return the acquired count
+     */
+    public long getAcquired() {
+        return acquired;
+    }
+
+    /**
+     * Gets the number of requests refused because the pool was exhausted.
+     *
+     * @return the exhausted count
+     */
+    public long getExhausted() {
+        return exhausted;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ShotPool[size=%d/%d, inUse=%d, peak=%d, acquired=%d, exhausted=%d]",
+                created, free.length, getInUse(), peakInUse, acquired, exhausted);
+    }
+
+}
@@ -4,14 +4,56 @@ import chon.group.game.core.Entity;
 
 public abstract class Weapon extends Entity {
 
+    /** Shots of a single weapon that may be in flight at once. */
+    public static final int DEFAULT_SHOTS_IN_FLIGHT = 8;
+
     public Weapon(int posX, int posY, int height, int width, int speed, int health, String pathImage, boolean flipped) {
         super(posX, posY, height, width, speed, health, pathImage, flipped);
     }
 
-    protected abstract Shot createShot(int posX, int posY, String direction);
+    /**
+     * Creates a new shot for the weapon's pool.
+     *
+     * @return a new shot
+     */
+    protected abstract Shot createShot();
+
+    /**
+     * Gets how many shots of a single weapon may be in flight at once, which
+     * sizes the pool of the weapon type for the number of shooters.
+     *
+     * @return the most shots of one weapon in flight at once
+     */
+    public int getShotsInFlight() {
+        return DEFAULT_SHOTS_IN_FLIGHT;
+    }
+
+    /**
+     * Gets the damage applied by each shot.
+     *
+     * @return the shot damage
+     */
+    protected abstract int getShotDamage();
 
-    public Shot fire(int posX, int posY, String direction) {
-        return this.createShot(posX, posY, direction);
+    /**
+     * Fires a shot taken from a pool, placed right next to the shooter.
+     *
+     * @param pool      the pool of this weapon type in the environment
+     * @param posX      the shooter's X (horizontal) position
+     * @param posY      the shooter's Y (vertical) position
+     * @param direction the shot direction ("RIGHT" or "LEFT")
+     * @return the shot, or null if every pooled shot is in use
+     */
+    public Shot fire(ShotPool pool, int posX, int posY, String direction) {
+        Shot shot = pool.acquire(this);
+        if (shot == null)
+            return null;
+        if (direction.equals("RIGHT"))
+            posX += shot.getWidth() + 1;
+        else
+            posX -= shot.getWidth() + 1;
+        shot.reset(posX, posY, direction, this.getShotDamage());
+        return shot;
     }
 
 }
@@ -0,0 +1,90 @@
+package chon.group.game.domain.environment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import chon.group.game.core.Entity;
+import chon.group.game.domain.agent.Weapon;
+
+/**
+ * The {@code AgentEffects} class collects the side effects requested while
+ * updating a partition of the agents: shots fired and damage dealt.
+ * <p>
+ * Each partition records into its own instance, so workers never share
+ * state. The environment then applies the partitions one after the other,
+ * in agent order, which makes the outcome identical to a sequential update
+ * whatever the number of threads. The lists are kept between ticks.
+ * </p>
+ */
+public class AgentEffects {
+
+    /* The shots requested, as parallel lists. */
+    private final List<Weapon> weapons = new ArrayList<Weapon>();
+    private final List<String> directions = new ArrayList<String>();
+    private int[] shotPositions = new int[32];
+
+    /* The damage requested, as parallel lists. */
+    private final List<Entity> targets = new ArrayList<Entity>();
+    private int[] damages = new int[16];
+
+    /**
+     * Requests a weapon to fire once the update is over.
+     *
+     * @param weapon    the weapon
+     * @param posX      the X (horizontal) position of the shooter
+     * @param posY      the Y (vertical) position of the shooter
+     * @param direction the direction of the shot
+     */
+    public void fire(Weapon weapon, int posX, int posY, String direction) {
+        int index = this.weapons.size();
+        if (2 * index + 1 >= this.shotPositions.length) {
+            this.shotPositions = Arrays.copyOf(this.shotPositions, this.shotPositions.length * 2);
+        }
+        this.weapons.add(weapon);
+        this.directions.add(direction);
+        this.shotPositions[2 * index] = posX;
+        this.shotPositions[2 * index + 1] = posY;
+    }
+
+    /**
+     * Requests damage to be dealt once the update is over.
+     *
+     * @param target the entity taking the damage
+     * @param damage the amount of damage
+     */
+    public void damage(Entity target, int damage) {
+        int index = this.targets.size();
+        if (index >= this.damages.length) {
+            this.damages = Arrays.copyOf(this.damages, this.damages.length * 2);
+        }
+        this.targets.add(target);
+        this.damages[index] = damage;
+    }
+
+    /**
+     * Applies the recorded effects to the environment, in the order they were
+     * requested, and forgets them.
+     *
+     * @param environment the environment
+     */
+    void apply(Environment environment) {
+        for (int i = 0; i < this.weapons.size(); i++) {
+            environment.fire(this.weapons.get(i), this.shotPositions[2 * i], this.shotPositions[2 * i + 1],
+                    this.directions.get(i));
+        }
+        for (int i = 0; i < this.targets.size(); i++) {
+            this.targets.get(i).takeDamage(this.damages[i], environment.getMessages());
+        }
+        this.clear();
+    }
+
+    /**
+     * Forgets every recorded effect.
+     */
+    void clear() {
+        this.weapons.clear();
+        this.directions.clear();
+        this.targets.clear();
+    }
+}
@@ -0,0 +1,27 @@
+package chon.group.game.domain.environment;
+
+import chon.group.game.domain.agent.Agent;
+
+/**
+ * The {@code AgentUpdate} interface is the behavior applied to every agent
+ * by {@link Environment#updateAgents(AgentUpdate)}.
+ * <p>
+ * Agents may be updated in parallel, so an update may only change the agent
+ * it receives and read state that no other update changes, such as the
+ * protagonist. Anything touching shared state, like firing or dealing
+ * damage, goes through the {@link AgentEffects} and is applied after every
+ * agent was updated.
+ * </p>
+ */
+@FunctionalInterface
+public interface AgentUpdate {
+
+    /**
+     * Updates an agent.
+     *
+     * @param agent   the agent
+     * @param index   the index of the agent in the environment
+     * @param effects the side effects requested by the update
+     */
+    void update(Agent agent, int index, AgentEffects effects);
+}
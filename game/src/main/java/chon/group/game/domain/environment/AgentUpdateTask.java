@@ -0,0 +1,59 @@
+package chon.group.game.domain.environment;
+
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+import chon.group.game.domain.agent.Agent;
+
+/**
+ * The {@code AgentUpdateTask} class updates a range of partitions of the
+ * agents on a fork/join pool, splitting the range in halves until a single
+ * partition is left.
+ */
+class AgentUpdateTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<Agent> agents;
+    private final AgentUpdate update;
+    private final AgentEffects[] effects;
+    private final int partitionSize;
+    private final int firstPartition;
+    private final int lastPartition;
+
+    /**
+     * Creates a task updating the partitions in a range.
+     *
+     * @param agents         the agents
+     * @param update         the behavior applied to each agent
+     * @param effects        the effects of each partition
+     * @param partitionSize  the number of agents in a partition
+     * @param firstPartition the first partition, inclusive
+     * @param lastPartition  the last partition, exclusive
+     */
+    AgentUpdateTask(List<Agent> agents, AgentUpdate update, AgentEffects[] effects, int partitionSize,
+            int firstPartition, int lastPartition) {
+        this.agents = agents;
+        this.update = update;
+        this.effects = effects;
+        this.partitionSize = partitionSize;
+        this.firstPartition = firstPartition;
+        this.lastPartition = lastPartition;
+    }
+
+    @Override
+    protected void compute() {
+        if (this.lastPartition - this.firstPartition > 1) {
+            int middle = (this.firstPartition + this.lastPartition) >>> 1;
+            invokeAll(new AgentUpdateTask(agents, update, effects, partitionSize, firstPartition, middle),
+                    new AgentUpdateTask(agents, update, effects, partitionSize, middle, lastPartition));
+            return;
+        }
+        int start = this.firstPartition * this.partitionSize;
+        int end = Math.min(start + this.partitionSize, this.agents.size());
+        AgentEffects partitionEffects = this.effects[this.firstPartition];
+        for (int i = start; i < end; i++) {
+            this.update.update(this.agents.get(i), i, partitionEffects);
+        }
+    }
+}
@@ -1,14 +1,31 @@
 package chon.group.game.domain.environment;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 import chon.group.game.core.Entity;
+import chon.group.game.core.EntityStore;
+import chon.group.game.core.FrameProfiler;
+import chon.group.game.core.FixedTimestep;
+import chon.group.game.core.GameClock;
+import chon.group.game.core.InputState;
+import chon.group.game.core.Key;
+import chon.group.game.core.SpatialHash;
+import chon.group.game.core.SpriteRegistry;
+import chon.group.game.core.TimerWheel;
 import chon.group.game.domain.agent.Agent;
 import chon.group.game.domain.agent.Shot;
-import chon.group.game.messaging.Message;
-import javafx.scene.image.Image;
+import chon.group.game.domain.agent.ShotPool;
+import chon.group.game.domain.agent.Weapon;
+import chon.group.game.domain.fishing.FishSchool;
+import chon.group.game.domain.fishing.FishingLine;
+import chon.group.game.messaging.MessageBuffer;
 
 /**
  * Represents the game environment, including properties such as dimensions,
@@ -32,20 +49,20 @@ public class Environment {
     /** The height of the environment. */
     private int height;
 
-    /** The background image of the environment. */
-    private Image image;
+    /** The sprite of the environment background. */
+    private int backgroundSprite = SpriteRegistry.NO_SPRITE;
 
-    /** The background image of the pause. */
-    private Image pauseImage;
+    /** The sprite of the pause screen. */
+    private int pauseSprite = SpriteRegistry.NO_SPRITE;
 
-    /** The background image of the game over. */
-    private Image gameOverImage;
+    /** The sprite of the game over screen. */
+    private int gameOverSprite = SpriteRegistry.NO_SPRITE;
 
-    /** The background image of the sea. */
-    private Image seaImage;
+    /** The sprite of the sea. */
+    private int seaSprite = SpriteRegistry.NO_SPRITE;
 
-    /** The image of the key to catch. */
-    private Image catchKeyImage;
+    /** The sprite of the key to catch. */
+    private int catchKeySprite = SpriteRegistry.NO_SPRITE;
 
     /** The protagonist instance. */
     private Agent protagonist;
@@ -54,14 +71,84 @@ public class Environment {
     private List<Agent> agents;
     private Agent fish;
 
-    /** List of messages to display. */
-    private List<Message> messages;
+    /** Ring buffer of messages to display. */
+    private MessageBuffer messages;
 
     /** List of shots present in the environment. */
     private List<Shot> shots;
 
+    /** The shots of each weapon type, recycled within this environment. */
+    private final Map<Class<? extends Weapon>, ShotPool> shotPools = new LinkedHashMap<>();
+
+    /** Vertical position of the surface of the sea. */
+    public static final int SEA_LINE = 192;
+
+    /** The fish swimming below the sea line, or null. */
+    private FishSchool school;
+
+    /** The fishing lines, updated in order on every tick. */
+    private final List<FishingLine> lines = new ArrayList<FishingLine>();
+
     private double scale = 1.0;
 
+    /** The time source of the environment, advanced once per tick. */
+    private GameClock clock = new GameClock();
+
+    /** The gameplay timers, advanced once per tick by {@link #step(long)}. */
+    private TimerWheel timers = new TimerWheel(1_000_000_000L / FixedTimestep.DEFAULT_TICK_RATE);
+
+    /** Broadphase grid holding the agents, rebuilt on every tick. */
+    private final SpatialHash agentIndex = new SpatialHash();
+
+    /** The store holding the fields of the agents and shots. */
+    private final EntityStore store = EntityStore.getInstance();
+
+    /** The slots of the agents in the store, in the order of the list. */
+    private int[] agentSlots = new int[0];
+
+    /** Number of agents whose slots were taken. */
+    private int agentSlotCount = 0;
+
+    /** If the list of agents changed since their slots were taken. */
+    private boolean agentsChanged = true;
+
+    /** The slots of the shots in the store, in the order of the list. */
+    private int[] shotSlots = new int[0];
+
+    /** Number of shots whose slots were taken. */
+    private int shotSlotCount = 0;
+
+    /** If the list of shots changed since their slots were taken. */
+    private boolean shotsChanged = true;
+
+    /** Number of agents from which agents are updated in parallel. */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 4096;
+
+    /** Smallest number of agents updated by a single worker. */
+    private static final int MIN_PARTITION_SIZE = 1024;
+
+    /** Number of agents from which agents are updated in parallel. */
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+    /** The pool running the parallel agent updates. */
+    private ForkJoinPool agentPool = ForkJoinPool.commonPool();
+
+    /** The side effects of each partition of the agents, reused every tick. */
+    private AgentEffects[] agentEffects = { new AgentEffects() };
+
+    /** The profiler timing the phases of a tick, or null if not profiled. */
+    private FrameProfiler profiler;
+
+    /* The profiler phases of a tick. */
+    private int schoolPhase;
+    private int fishingPhase;
+    private int broadphasePhase;
+    private int collisionsPhase;
+    private int shotsPhase;
+    private int messagesPhase;
+    private int animationsPhase;
+    private int agentsPhase;
+
     /**
      * Default constructor to create an empty environment.
      */
@@ -85,7 +172,7 @@ public class Environment {
         this.width = width;
         this.setImage(pathImage);
         this.agents = new ArrayList<Agent>();
-        this.messages = new ArrayList<Message>();
+        this.setMessages(new MessageBuffer());
         this.shots = new ArrayList<Shot>();
     }
 
@@ -107,7 +194,9 @@ public class Environment {
         this.width = width;
         this.setImage(pathImage);
         this.agents = agents;
-        this.messages = new ArrayList<Message>();
+        for (Agent agent : agents)
+            this.adopt(agent);
+        this.setMessages(new MessageBuffer());
         this.shots = new ArrayList<Shot>();
     }
 
@@ -184,12 +273,12 @@ public class Environment {
     }
 
     /**
-     * Gets the background image of the environment.
+     * Gets the background sprite of the environment.
      *
-     * @return the background image of the environment
+     * @return the identifier of the background sprite
      */
-    public Image getImage() {
-        return image;
+    public int getBackgroundSprite() {
+        return backgroundSprite;
     }
 
     /**
@@ -198,16 +287,16 @@ public class Environment {
      * @param pathImage the path to the new background image
      */
     public void setImage(String pathImage) {
-        this.image = new Image(getClass().getResource(pathImage).toExternalForm());
+        this.backgroundSprite = SpriteRegistry.register(pathImage);
     }
 
     /**
-     * Gets the background image for the pause.
+     * Gets the sprite for the pause screen.
      *
-     * @return the pause image
+     * @return the identifier of the pause sprite
      */
-    public Image getPauseImage() {
-        return pauseImage;
+    public int getPauseSprite() {
+        return pauseSprite;
     }
 
     /**
@@ -216,16 +305,16 @@ public class Environment {
      * @param pathImage the path to the new pause image
      */
     public void setPauseImage(String pathImage) {
-        this.pauseImage = new Image(getClass().getResource(pathImage).toExternalForm());
+        this.pauseSprite = SpriteRegistry.register(pathImage);
     }
 
     /**
-     * Gets the background image for the game over.
+     * Gets the sprite for the game over screen.
      *
-     * @return the game over image
+     * @return the identifier of the game over sprite
      */
-    public Image getGameOverImage() {
-        return gameOverImage;
+    public int getGameOverSprite() {
+        return gameOverSprite;
     }
 
     /**
@@ -234,7 +323,7 @@ public class Environment {
      * @param pathImage the path to the new game over image
      */
     public void setGameOverImage(String pathImage) {
-        this.gameOverImage = new Image(getClass().getResource(pathImage).toExternalForm());
+        this.gameOverSprite = SpriteRegistry.register(pathImage);
     }
 
     /**
@@ -253,6 +342,145 @@ public class Environment {
      */
     public void setProtagonist(Agent protagonist) {
         this.protagonist = protagonist;
+        if (protagonist != null)
+            this.adopt(protagonist);
+    }
+
+    /**
+     * Adds an agent to the environment, giving it the environment clock and
+     * timers. Agents added straight to {@link #getAgents()} keep following
+     * the system clock and are never made invulnerable.
+     *
+     * @param agent the agent to add
+     */
+    public void addAgent(Agent agent) {
+        this.adopt(agent);
+        this.agents.add(agent);
+        this.agentsChanged = true;
+    }
+
+    /**
+     * Hands the clock and the timers of the environment to an agent.
+     *
+     * @param agent the agent
+     */
+    private void adopt(Agent agent) {
+        agent.setClock(this.clock);
+        agent.setTimers(this.timers);
+    }
+
+    /**
+     * Gets the time source of the environment.
+     *
+     * @return the clock
+     */
+    public GameClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Sets the time source of the environment and hands it to the messages
+     * and to every agent already present.
+     *
+     * @param clock the new clock
+     */
+    public void setClock(GameClock clock) {
+        this.clock = clock;
+        if (this.messages != null)
+            this.messages.setClock(clock);
+        if (this.protagonist != null)
+            this.protagonist.setClock(clock);
+        if (this.fish != null)
+            this.fish.setClock(clock);
+        if (this.agents != null)
+            for (Agent agent : this.agents)
+                agent.setClock(clock);
+    }
+
+    /**
+     * Gets the gameplay timers of the environment, which only move when the
+     * environment steps.
+     *
+     * @return the timer wheel
+     */
+    public TimerWheel getTimers() {
+        return timers;
+    }
+
+    /**
+     * Sets the gameplay timers of the environment, for instance to match the
+     * tick rate of the game loop, and hands them to every agent already
+     * present. Timers pending on the previous wheel are dropped.
+     *
+     * @param timers the new timer wheel
+     */
+    public void setTimers(TimerWheel timers) {
+        this.timers = timers;
+        if (this.protagonist != null)
+            this.protagonist.setTimers(timers);
+        if (this.fish != null)
+            this.fish.setTimers(timers);
+        if (this.agents != null)
+            for (Agent agent : this.agents)
+                agent.setTimers(timers);
+        for (FishingLine line : this.lines)
+            line.setTimers(timers);
+    }
+
+    /**
+     * Adds a fishing line to the environment, giving it the environment
+     * timers. The rod and the fish are not added as agents.
+     *
+     * @param line the line to add
+     */
+    public void addLine(FishingLine line) {
+        line.setTimers(this.timers);
+        line.setSchool(this.school);
+        this.adopt(line.getRod());
+        this.adopt(line.getFish());
+        this.lines.add(line);
+    }
+
+    /**
+     * Gets the fish swimming below the sea line.
+     *
+     * @return the school, or null
+     */
+    public FishSchool getSchool() {
+        return school;
+    }
+
+    /**
+     * Sets the fish swimming below the sea line and lets them bite every
+     * line.
+     *
+     * @param school the new school, or null
+     */
+    public void setSchool(FishSchool school) {
+        this.school = school;
+        for (FishingLine line : this.lines)
+            line.setSchool(school);
+    }
+
+    /**
+     * Gets the fishing lines of the environment.
+     *
+     * @return the lines, in update order
+     */
+    public List<FishingLine> getLines() {
+        return lines;
+    }
+
+    /**
+     * Advances every fishing line by a tick, keeping the rods inside the
+     * environment.
+     */
+    public void updateLines() {
+        for (int i = 0; i < this.lines.size(); i++) {
+            FishingLine line = this.lines.get(i);
+            line.update();
+            this.keepInside(line.getRod());
+        }
     }
 
     /**
@@ -271,25 +499,27 @@ public class Environment {
      */
     public void setAgents(ArrayList<Agent> agents) {
         this.agents = agents;
-
+        this.agentsChanged = true;
     }
 
     /**
-     * Gets the list of active messages.
+     * Gets the buffer of active messages.
      * 
-     * @return List of messages objects currently being displayed
+     * @return The messages currently being displayed
      */
-    public List<Message> getMessages() {
+    public MessageBuffer getMessages() {
         return messages;
     }
 
     /**
-     * Sets the list of messages.
+     * Sets the buffer of messages, e.g. to change its capacity.
      * 
-     * @param messages The new list of messages to display
+     * @param messages The new buffer of messages to display
      */
-    public void setMessages(List<Message> messages) {
+    public void setMessages(MessageBuffer messages) {
         this.messages = messages;
+        if (messages != null)
+            messages.setClock(this.clock);
     }
 
     /**
@@ -308,6 +538,129 @@ public class Environment {
      */
     public void setShots(List<Shot> shots) {
         this.shots = shots;
+        this.shotsChanged = true;
+    }
+
+    /**
+     * Fires a weapon, taking the shot from the pool of its type in this
+     * environment. The pool is sized for every agent, and the protagonist,
+     * to have its shots in flight at once.
+     *
+     * @param weapon    the weapon
+     * @param posX      the X (horizontal) position of the shooter
+     * @param posY      the Y (vertical) position of the shooter
+     * @param direction the direction of the shot ("RIGHT" or "LEFT")
+     * @return the shot, or null if the pool of the weapon type is exhausted
+     */
+    public Shot fire(Weapon weapon, int posX, int posY, String direction) {
+        ShotPool pool = this.getShotPool(weapon);
+        pool.ensureCapacity((this.agents.size() + 1) * weapon.getShotsInFlight());
+        Shot shot = weapon.fire(pool, posX, posY, direction);
+        if (shot != null) {
+            this.shots.add(shot);
+            this.shotsChanged = true;
+        }
+        return shot;
+    }
+
+    /**
+     * Gets the pool holding the shots of a weapon type, creating it on the
+     * first shot of that type.
+     *
+     * @param weapon a weapon of the type
+     * @return the shot pool of the weapon type
+     */
+    public ShotPool getShotPool(Weapon weapon) {
+        return this.shotPools.computeIfAbsent(weapon.getClass(),
+                type -> new ShotPool((this.agents.size() + 1) * weapon.getShotsInFlight()));
+    }
+
+    /**
+     * Gets the shot pools created so far, one per weapon type.
+     *
+     * @return the shot pools
+     */
+    public Collection<ShotPool> getShotPools() {
+        return this.shotPools.values();
+    }
+
+    /**
+     * Gets the slots of the agents in the {@link EntityStore}, so loops over
+     * the agents can read their fields from the pages of the store. The first
+     * {@code getAgents().size()} entries are the slots of the agents, in the
+     * order of the list; the array is only valid until the agents change.
+     *
+     * @return the slots of the agents
+     */
+    public int[] getAgentSlots() {
+        if (this.agentsChanged || this.agentSlotCount != this.agents.size()) {
+            this.agentSlots = takeSlots(this.agents, this.agentSlots);
+            this.agentSlotCount = this.agents.size();
+            this.agentsChanged = false;
+        }
+        return this.agentSlots;
+    }
+
+    /**
+     * Gets the slots of the shots in the {@link EntityStore}, so loops over
+     * the shots can read their fields from the pages of the store. The first
+     * {@code getShots().size()} entries are the slots of the shots, in the
+     * order of the list; the array is only valid until the shots change.
+     *
+     * @return the slots of the shots
+     */
+    public int[] getShotSlots() {
+        if (this.shotsChanged || this.shotSlotCount != this.shots.size()) {
+            this.shotSlots = takeSlots(this.shots, this.shotSlots);
+            this.shotSlotCount = this.shots.size();
+            this.shotsChanged = false;
+        }
+        return this.shotSlots;
+    }
+
+    /**
+     * Copies the slots of a list of entities, growing the array if needed.
+     *
+     * @param entities the entities
+     * @param slots    the array to fill, reused when large enough
+     * @return the array holding the slots
+     */
+    private static int[] takeSlots(List<? extends Entity> entities, int[] slots) {
+        int count = entities.size();
+        if (slots.length < count)
+            slots = new int[Math.max(count, slots.length * 2)];
+        for (int i = 0; i < count; i++) {
+            slots[i] = entities.get(i).getSlot();
+        }
+        return slots;
+    }
+
+    /**
+     * Discards the environment, returning the shots in flight to their pools,
+     * emptying the pools and handing the slots of its agents, rods and fish
+     * back to the entity store. The environment must not be used afterwards.
+     */
+    public void dispose() {
+        for (Shot shot : this.shots)
+            shot.release();
+        this.shots.clear();
+        this.shotsChanged = true;
+        for (ShotPool pool : this.shotPools.values())
+            pool.clear();
+        this.shotPools.clear();
+        if (this.agents != null) {
+            for (Agent agent : this.agents)
+                agent.dispose();
+            this.agentsChanged = true;
+        }
+        for (FishingLine line : this.lines) {
+            line.getRod().dispose();
+            line.getFish().dispose();
+        }
+        if (this.protagonist != null)
+            this.protagonist.dispose();
+        if (this.fish != null)
+            this.fish.dispose();
     }
 
     /**
@@ -315,14 +668,24 @@ public class Environment {
      * its position if necessary.
      */
     public void checkBorders() {
-        if (this.protagonist.getPosX() < 0) {
-            this.protagonist.setPosX(0);
-        } else if ((this.protagonist.getPosX() + this.protagonist.getWidth()) > this.width) {
-            this.protagonist.setPosX(this.width - protagonist.getWidth());
-        //} else if (this.protagonist.getPosY() < 0) {
-        //    this.protagonist.setPosY(0);
-        } else if ((this.protagonist.getPosY() + this.protagonist.getHeight()) > this.height) {
-            this.protagonist.setPosY(this.height - this.protagonist.getHeight());
+        this.keepInside(this.protagonist);
+    }
+
+    /**
+     * Moves an agent back inside the environment if it crossed the side or
+     * bottom borders.
+     *
+     * @param agent the agent
+     */
+    private void keepInside(Agent agent) {
+        if (agent.getPosX() < 0) {
+            agent.setPosX(0);
+        } else if ((agent.getPosX() + agent.getWidth()) > this.width) {
+            agent.setPosX(this.width - agent.getWidth());
+        //} else if (agent.getPosY() < 0) {
+        //    agent.setPosY(0);
+        } else if ((agent.getPosY() + agent.getHeight()) > this.height) {
+            agent.setPosY(this.height - agent.getHeight());
         }
     }
 
@@ -333,10 +696,29 @@ public class Environment {
      * created to display the damage amount.
      */
     public void detectCollision() {
-        for (Agent agent : this.agents) {
-            if (protagonist != null && intersect(this.protagonist, agent)) {
-                /* Removing the console output for collision. */
-                // System.out.println("Collision detected with agent: " + agent);
+        this.updateBroadphase();
+        this.resolveCollisions();
+    }
+
+    /**
+     * Applies the collisions between the protagonist and the agents found in
+     * the broadphase.
+     */
+    private void resolveCollisions() {
+        if (protagonist == null)
+            return;
+        int x = protagonist.getPosX();
+        int y = protagonist.getPosY();
+        int w = protagonist.getWidth();
+        int h = protagonist.getHeight();
+        int found = this.agentIndex.query(x, y, w, h);
+        int[] slots = this.getAgentSlots();
+        EntityStore.Page[] pages = this.store.getPages();
+        for (int i = 0; i < found; i++) {
+            int slot = slots[this.agentIndex.getResult(i)];
+            EntityStore.Page p = pages[EntityStore.pageOf(slot)];
+            int o = EntityStore.offsetOf(slot);
+            if (intersect(x, y, w, h, p.posX[o], p.posY[o], p.width[o], p.height[o])) {
                 int damage = 100;
                 /* The protagonist takes damage when colliding with an agent. */
                 protagonist.takeDamage(damage, this.messages);
@@ -344,6 +726,60 @@ public class Environment {
         }
     }
 
+    /**
+     * Rebuilds the spatial hash with the current position of every agent.
+     * The hash is rebuilt on every tick; call this method to refresh it after
+     * moving agents between ticks.
+     */
+    public void updateBroadphase() {
+        this.agentIndex.clear();
+        int[] slots = this.getAgentSlots();
+        int count = this.agents.size();
+        EntityStore.Page[] pages = this.store.getPages();
+        for (int i = 0; i < count; i++) {
+            EntityStore.Page p = pages[EntityStore.pageOf(slots[i])];
+            int o = EntityStore.offsetOf(slots[i]);
+            this.agentIndex.insert(p.posX[o], p.posY[o], p.width[o], p.height[o]);
+        }
+    }
+
+    /**
+     * Finds the living agents overlapping a region, using the spatial hash
+     * built on the last tick.
+     *
+     * @param x      the X (horizontal) position of the region
+     * @param y      the Y (vertical) position of the region
+     * @param width  the width of the region
+     * @param height the height of the region
+     * @return the agents overlapping the region
+     */
+    public List<Agent> queryRegion(int x, int y, int width, int height) {
+        List<Agent> result = new ArrayList<Agent>();
+        this.queryRegion(x, y, width, height, result);
+        return result;
+    }
+
+    /**
+     * Finds the living agents overlapping a region, using the spatial hash
+     * built on the last tick, and adds them to a list.
+     *
+     * @param x      the X (horizontal) position of the region
+     * @param y      the Y (vertical) position of the region
+     * @param width  the width of the region
+     * @param height the height of the region
+     * @param result the list receiving the agents found
+     */
+    public void queryRegion(int x, int y, int width, int height, List<Agent> result) {
+        if (this.agentIndex.size() != this.agents.size())
+            this.updateBroadphase();
+        int found = this.agentIndex.query(x, y, width, height);
+        for (int i = 0; i < found; i++) {
+            Agent agent = this.agents.get(this.agentIndex.getResult(i));
+            if (!agent.isDead())
+                result.add(agent);
+        }
+    }
+
     /**
      * Checks if two agents collide with each other based on their positions and
      * dimensions.
@@ -365,43 +801,307 @@ public class Environment {
                 a.getPosY() + a.getHeight() > b.getPosY();
     }
 
+    /**
+     * Checks if two rectangles, read from the entity store, overlap.
+     *
+     * @return true if the rectangles overlap, otherwise false
+     */
+    private static boolean intersect(int ax, int ay, int aw, int ah, int bx, int by, int bw, int bh) {
+        return ax < bx + bw && ax + aw > bx && ay < by + bh && ay + ah > by;
+    }
+
     public void updateMessages() {
-        Iterator<Message> iterator = this.messages.iterator();
+        this.messages.update();
+    }
+
+    public void updateShots() {
+        this.updateBroadphase();
+        this.resolveShots();
+    }
+
+    /**
+     * Moves the shots and applies their hits, querying the spatial hash for
+     * the agents in the way of each shot. The positions and sizes are read
+     * from the entity store by slot, and the shots left are packed at the
+     * front of the list. Agents killed in this tick are removed once every
+     * shot was resolved.
+     */
+    private void resolveShots() {
+        boolean killed = false;
+        int[] agentSlots = this.getAgentSlots();
+        int[] shotSlots = this.getShotSlots();
+        int count = this.shots.size();
+        EntityStore.Page[] pages = this.store.getPages();
+        int protagonistX = protagonist.getPosX();
+        int protagonistY = protagonist.getPosY();
+        int protagonistWidth = protagonist.getWidth();
+        int protagonistHeight = protagonist.getHeight();
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            Shot shot = this.shots.get(i);
+            int slot = shotSlots[i];
+            EntityStore.Page p = pages[EntityStore.pageOf(slot)];
+            int o = EntityStore.offsetOf(slot);
+            int x = p.posX[o];
+            int y = p.posY[o];
+            int w = p.width[o];
+            int h = p.height[o];
+            if ((x > this.width) || ((x + w) < 0)) {
+                shot.release();
+                continue;
+            }
+            if (intersect(protagonistX, protagonistY, protagonistWidth, protagonistHeight, x, y, w, h)) {
+                protagonist.takeDamage(shot.getDamage(), this.messages);
+                shot.release();
+                continue;
+            }
+            boolean hit = false;
+            int found = this.agentIndex.query(x, y, w, h);
+            for (int j = 0; j < found; j++) {
+                int index = this.agentIndex.getResult(j);
+                int agentSlot = agentSlots[index];
+                EntityStore.Page a = pages[EntityStore.pageOf(agentSlot)];
+                int ao = EntityStore.offsetOf(agentSlot);
+                if (a.health[ao] > 0 && intersect(a.posX[ao], a.posY[ao], a.width[ao], a.height[ao], x, y, w, h)) {
+                    Agent agent = this.agents.get(index);
+                    agent.takeDamage(shot.getDamage(), this.messages);
+                    killed |= agent.isDead();
+                    hit = true;
+                    /* A shot is consumed by the first agent it hits. */
+                    break;
+                }
+            }
+            if (hit) {
+                /* Released shots may already belong to the next one fired */
+                shot.release();
+                continue;
+            }
+            p.posX[o] += (shot.getMovement() == Key.RIGHT) ? p.speed[o] : -p.speed[o];
+            this.shots.set(kept, shot);
+            shotSlots[kept++] = slot;
+        }
+        this.shots.subList(kept, count).clear();
+        this.shotSlotCount = kept;
+        if (killed) {
+            this.removeDeadAgents();
+            this.updateBroadphase();
+        }
+    }
+
+    /**
+     * Removes the dead agents, cancelling their timers and handing their
+     * slots back to the entity store.
+     */
+    private void removeDeadAgents() {
+        Iterator<Agent> iterator = this.agents.iterator();
         while (iterator.hasNext()) {
-            Message message = iterator.next();
-            if (!message.update()) {
+            Agent agent = iterator.next();
+            if (agent.isDead()) {
                 iterator.remove();
+                agent.setTimers(null);
+                agent.dispose();
+                this.agentsChanged = true;
             }
         }
     }
 
-    public void updateShots() {
-        Iterator<Shot> itShot = this.shots.iterator();
-        while (itShot.hasNext()) {
-            Shot shot = itShot.next();
-            if ((shot.getPosX() > this.width) || ((shot.getPosX() + shot.getWidth()) < 0)) {
-                itShot.remove();
+    /**
+     * Applies a behavior to every agent. Above the parallel threshold the
+     * agents are split into partitions updated on the fork/join pool; each
+     * partition records its side effects apart, and the effects are applied
+     * afterwards in agent order, so the outcome does not depend on the number
+     * of threads.
+     *
+     * @param update the behavior applied to each agent
+     */
+    public void updateAgents(AgentUpdate update) {
+        this.begin(this.agentsPhase);
+        int count = this.agents.size();
+        int partitions = 1;
+        if (count >= this.parallelThreshold && this.agentPool.getParallelism() > 1) {
+            /* A few partitions per worker balance the load between them. */
+            partitions = Math.max(1, Math.min(this.agentPool.getParallelism() * 4, count / MIN_PARTITION_SIZE));
+        }
+        if (this.agentEffects.length < partitions) {
+            AgentEffects[] effects = Arrays.copyOf(this.agentEffects, partitions);
+            for (int i = this.agentEffects.length; i < partitions; i++) {
+                effects[i] = new AgentEffects();
+            }
+            this.agentEffects = effects;
+        }
+
+        if (partitions == 1) {
+            AgentEffects effects = this.agentEffects[0];
+            for (int i = 0; i < count; i++) {
+                update.update(this.agents.get(i), i, effects);
+            }
+        } else {
+            int partitionSize = (count + partitions - 1) / partitions;
+            this.agentPool.invoke(new AgentUpdateTask(this.agents, update, this.agentEffects,
+                    partitionSize, 0, partitions));
+        }
+        for (int i = 0; i < partitions; i++) {
+            this.agentEffects[i].apply(this);
+        }
+        this.end(this.agentsPhase);
+    }
+
+    /**
+     * Moves every agent based on the keys held down, as
+     * {@link Entity#move(InputState)} does, writing the positions straight
+     * into the entity store by slot. Right takes precedence over left. Agents
+     * in consecutive slots of a page are moved by a single loop over the
+     * arrays of the page.
+     *
+     * @param input the input state of the tick
+     */
+    public void moveAgents(InputState input) {
+        boolean right = input.isDown(Key.RIGHT);
+        if (!right && !input.isDown(Key.LEFT))
+            return;
+        int[] slots = this.getAgentSlots();
+        int count = this.agents.size();
+        EntityStore.Page[] pages = this.store.getPages();
+        int i = 0;
+        while (i < count) {
+            int first = slots[i];
+            int start = EntityStore.offsetOf(first);
+            int end = start + 1;
+            i++;
+            while (i < count && end < EntityStore.PAGE_SIZE && slots[i] == first + (end - start)) {
+                end++;
+                i++;
+            }
+            EntityStore.Page p = pages[EntityStore.pageOf(first)];
+            int[] posX = p.posX;
+            int[] speed = p.speed;
+            if (right) {
+                for (int o = start; o < end; o++)
+                    posX[o] += speed[o];
             } else {
-                if (this.intersect(protagonist, shot)) {
-                    protagonist.takeDamage(shot.getDamage(), this.messages);
-                    itShot.remove();
-                } else {
-                    Iterator<Agent> itAgent = this.agents.iterator();
-                    while (itAgent.hasNext()) {
-                        Agent agent = itAgent.next();
-                        if (this.intersect(agent, shot)) {
-                            agent.takeDamage(shot.getDamage(), this.messages);
-                            if (agent.isDead())
-                                itAgent.remove();
-                            itShot.remove();
-                        }
-                    }
-                }
-                shot.move(new ArrayList<>(List.of(shot.getDirection())));
+                for (int o = start; o < end; o++)
+                    posX[o] -= speed[o];
             }
         }
     }
 
+    /**
+     * Gets the number of agents from which they are updated in parallel.
+     *
+     * @return the parallel threshold
+     */
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * Sets the number of agents from which they are updated in parallel.
+     *
+     * @param parallelThreshold the new threshold
+     */
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Sets the pool running the parallel agent updates, such as a pool
+     * limited to a number of cores.
+     *
+     * @param agentPool the new pool
+     */
+    public void setAgentPool(ForkJoinPool agentPool) {
+        this.agentPool = agentPool;
+    }
+
+    /**
+     * Advances the environment by a single simulation tick, running the
+     * expired timers, moving the school, updating the fishing lines,
+     * resolving collisions, moving shots and updating messages and
+     * animations.
+     *
+     * @param tickNanos the length of a tick in nanoseconds
+     */
+    public void step(long tickNanos) {
+        this.timers.advance();
+        if (this.school != null) {
+            this.begin(this.schoolPhase);
+            this.school.update();
+            this.end(this.schoolPhase);
+        }
+        this.begin(this.fishingPhase);
+        this.updateLines();
+        this.end(this.fishingPhase);
+        this.begin(this.broadphasePhase);
+        this.updateBroadphase();
+        this.end(this.broadphasePhase);
+        this.begin(this.collisionsPhase);
+        this.resolveCollisions();
+        this.end(this.collisionsPhase);
+        this.begin(this.shotsPhase);
+        this.resolveShots();
+        this.end(this.shotsPhase);
+        this.begin(this.messagesPhase);
+        this.updateMessages();
+        this.end(this.messagesPhase);
+        this.begin(this.animationsPhase);
+        this.updateAnimations(tickNanos);
+        this.end(this.animationsPhase);
+    }
+
+    /**
+     * Sets the profiler timing each phase of {@link #step(long)}.
+     *
+     * @param profiler the profiler, or null to stop profiling
+     */
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+        if (profiler != null) {
+            this.schoolPhase = profiler.phase("school");
+            this.fishingPhase = profiler.phase("fishing");
+            this.broadphasePhase = profiler.phase("broadphase");
+            this.collisionsPhase = profiler.phase("collisions");
+            this.shotsPhase = profiler.phase("shots");
+            this.messagesPhase = profiler.phase("messages");
+            this.animationsPhase = profiler.phase("animations");
+            this.agentsPhase = profiler.phase("agents");
+        }
+    }
+
+    private void begin(int phase) {
+        if (this.profiler != null)
+            this.profiler.begin(phase);
+    }
+
+    private void end(int phase) {
+        if (this.profiler != null)
+            this.profiler.end(phase);
+    }
+
+    /**
+     * Stores the current position of every entity before a simulation tick,
+     * so the renderer can interpolate between ticks. The positions are copied
+     * in bulk inside the {@link EntityStore}.
+     */
+    public void storePreviousPositions() {
+        this.store.storePreviousPositions();
+    }
+
+    /**
+     * Advances the animations of every entity by the elapsed game time.
+     *
+     * @param deltaNanos the elapsed game time in nanoseconds
+     */
+    public void updateAnimations(long deltaNanos) {
+        if (protagonist != null)
+            protagonist.animate(deltaNanos);
+        if (fish != null)
+            fish.animate(deltaNanos);
+        for (Agent agent : this.agents)
+            agent.animate(deltaNanos);
+        for (Shot shot : this.shots)
+            shot.animate(deltaNanos);
+    }
+
     public double getScale() {
         return scale;
     }
@@ -410,20 +1110,20 @@ public class Environment {
         this.scale = scale;
     }
 
-    public Image getSeaImage() {
-        return seaImage;
+    public int getSeaSprite() {
+        return seaSprite;
     }
 
     public void setSeaImage(String pathImage) {
-        this.seaImage = new Image(getClass().getResource(pathImage).toExternalForm());
+        this.seaSprite = SpriteRegistry.register(pathImage);
     }
 
-    public Image getCatchKeyImage() {
-        return catchKeyImage;
+    public int getCatchKeySprite() {
+        return catchKeySprite;
     }
 
     public void setCatchKeyImage(String pathImage) {
-        this.catchKeyImage = new Image(getClass().getResource(pathImage).toExternalForm());
+        this.catchKeySprite = SpriteRegistry.register(pathImage);
     }
 
     public Agent getFish() {
@@ -432,5 +1132,7 @@ public class Environment {
 
     public void setFish(Agent fish) {
         this.fish = fish;
+        if (fish != null)
+            this.adopt(fish);
     }
 }
\ No newline at end of file
@@ -0,0 +1,484 @@
+package chon.group.game.domain.fishing;
+
+import chon.group.game.core.GameRandom;
+import chon.group.game.core.SpriteRegistry;
+
+/**
+ * The {@code FishSchool} class simulates the fish swimming in the sea as a
+ * flock of boids: every fish steers away from the fish too close to it,
+ * matches the heading of its neighbors and moves towards their center, while
+ * turning back before it leaves the sea.
+ * <p>
+ * The fish are kept in parallel primitive arrays and indexed by a uniform
+ * grid rebuilt with a counting sort on every tick, so a fish only looks at
+ * the nine cells around it and a tick allocates nothing. Each fish considers
+ * at most {@link #MAX_NEIGHBORS} neighbors, which bounds the cost of dense
+ * shoals. Velocities are computed from the state of the previous tick for
+ * every fish before any fish moves, so the result does not depend on the
+ * order of the fish.
+ * </p>
+ */
+public class FishSchool {
+
+    /** Most neighbors a fish steers by. */
+    public static final int MAX_NEIGHBORS = 24;
+
+    /** Distance within which fish see each other. */
+    private static final float VIEW_RADIUS = 12f;
+
+    /** Distance under which fish push each other away. */
+    private static final float SEPARATION_RADIUS = 7f;
+
+    /** Distance from the borders at which fish start turning back. */
+    private static final float MARGIN = 8f;
+
+    /** Fastest speed, in pixels per tick. */
+    private static final float MAX_SPEED = 1.2f;
+
+    /** Slowest speed, in pixels per tick. */
+    private static final float MIN_SPEED = 0.3f;
+
+    /** Largest change of velocity in a tick. */
+    private static final float MAX_FORCE = 0.1f;
+
+    /** Weight of the separation rule. */
+    private static final float SEPARATION_WEIGHT = 4f;
+
+    /** Weight of the alignment rule. */
+    private static final float ALIGNMENT_WEIGHT = 1.0f;
+
+    /** Weight of the cohesion rule. */
+    private static final float COHESION_WEIGHT = 0.004f;
+
+    /** Acceleration turning back a fish near a border. */
+    private static final float TURN_FORCE = 0.1f;
+
+    /** Width at which the fish are drawn. */
+    public static final int FISH_WIDTH = 10;
+
+    /** Height at which the fish are drawn. */
+    public static final int FISH_HEIGHT = 5;
+
+    /* The region the fish swim in. */
+    private final float minX;
+    private final float minY;
+    private final float maxX;
+    private final float maxY;
+
+    /** The source of the spawn positions. */
+    private final GameRandom random;
+
+    /* The state of each fish. */
+    private final float[] posX;
+    private final float[] posY;
+    private final float[] prevPosX;
+    private final float[] prevPosY;
+    private float[] velX;
+    private float[] velY;
+    private float[] nextVelX;
+    private float[] nextVelY;
+
+    /* The grid, one cell per view radius. */
+    private final int columns;
+    private final int rows;
+
+    /** Index in {@code cellFish} of the first fish of each cell. */
+    private final int[] cellStart;
+
+    /** Next free position of each cell while the grid is built. */
+    private final int[] cellCursor;
+
+    /** The fish, sorted by cell. */
+    private final int[] cellFish;
+
+    /** The cell of each fish. */
+    private final int[] fishCell;
+
+    /** Number of fish. */
+    private int count = 0;
+
+    /* Sums of the steering rules of the fish being steered. */
+    private float separationX;
+    private float separationY;
+    private float alignX;
+    private float alignY;
+    private float centerX;
+    private float centerY;
+    private int neighbors;
+
+    /** The sprite of the fish. */
+    private int spriteId = SpriteRegistry.NO_SPRITE;
+
+    /**
+     * Constructor to initialize an empty school.
+     *
+     * @param minX     the left border of the sea
+     * @param minY     the top border of the sea
+     * @param maxX     the right border of the sea
+     * @param maxY     the bottom border of the sea
+     * @param capacity the largest number of fish
+     * @param random   the source of the spawn positions
+     */
+    public FishSchool(int minX, int minY, int maxX, int maxY, int capacity, GameRandom random) {
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.random = random;
+        this.posX = new float[capacity];
+        this.posY = new float[capacity];
+        this.prevPosX = new float[capacity];
+        this.prevPosY = new float[capacity];
+        this.velX = new float[capacity];
+        this.velY = new float[capacity];
+        this.nextVelX = new float[capacity];
+        this.nextVelY = new float[capacity];
+        this.columns = Math.max(1, (int) Math.ceil((maxX - minX) / VIEW_RADIUS));
+        this.rows = Math.max(1, (int) Math.ceil((maxY - minY) / VIEW_RADIUS));
+        this.cellStart = new int[this.columns * this.rows + 1];
+        this.cellCursor = new int[this.columns * this.rows];
+        this.cellFish = new int[capacity];
+        this.fishCell = new int[capacity];
+    }
+
+    /**
+     * Adds fish at random positions and headings, up to the capacity.
+     *
+     * @param fish the number of fish to add
+     */
+    public void spawn(int fish) {
+        int end = Math.min(this.posX.length, this.count + fish);
+        for (int i = this.count; i < end; i++) {
+            this.place(i, this.minX + this.random.nextDouble() * (this.maxX - this.minX));
+        }
+        this.count = end;
+    }
+
+    /**
+     * Advances every fish by a single tick.
+     */
+    public void update() {
+        System.arraycopy(this.posX, 0, this.prevPosX, 0, this.count);
+        System.arraycopy(this.posY, 0, this.prevPosY, 0, this.count);
+        this.buildGrid();
+        for (int i = 0; i < this.count; i++) {
+            this.steer(i);
+        }
+        float[] swap = this.velX;
+        this.velX = this.nextVelX;
+        this.nextVelX = swap;
+        swap = this.velY;
+        this.velY = this.nextVelY;
+        this.nextVelY = swap;
+        for (int i = 0; i < this.count; i++) {
+            this.posX[i] = clamp(this.posX[i] + this.velX[i], this.minX, this.maxX);
+            this.posY[i] = clamp(this.posY[i] + this.velY[i], this.minY, this.maxY);
+        }
+    }
+
+    /**
+     * Sorts the fish by cell: counts the fish of each cell, turns the counts
+     * into start indices and places every fish.
+     */
+    private void buildGrid() {
+        int cells = this.cellCursor.length;
+        for (int c = 0; c <= cells; c++) {
+            this.cellStart[c] = 0;
+        }
+        for (int i = 0; i < this.count; i++) {
+            int cell = this.cellOf(this.posX[i], this.posY[i]);
+            this.fishCell[i] = cell;
+            this.cellStart[cell + 1]++;
+        }
+        for (int c = 0; c < cells; c++) {
+            this.cellStart[c + 1] += this.cellStart[c];
+            this.cellCursor[c] = this.cellStart[c];
+        }
+        for (int i = 0; i < this.count; i++) {
+            this.cellFish[this.cellCursor[this.fishCell[i]]++] = i;
+        }
+    }
+
+    /**
+     * Computes the velocity of a fish for the next tick.
+     *
+     * @param i the fish
+     */
+    private void steer(int i) {
+        float x = this.posX[i];
+        float y = this.posY[i];
+        this.separationX = 0;
+        this.separationY = 0;
+        this.alignX = 0;
+        this.alignY = 0;
+        this.centerX = 0;
+        this.centerY = 0;
+        this.neighbors = 0;
+
+        /* The own cell first, so the capped neighbors are the closest ones */
+        int own = this.fishCell[i];
+        int column = own % this.columns;
+        int row = own / this.columns;
+        boolean full = this.scan(own, i, x, y);
+        for (int r = Math.max(0, row - 1); !full && r <= Math.min(this.rows - 1, row + 1); r++) {
+            for (int c = Math.max(0, column - 1); !full && c <= Math.min(this.columns - 1, column + 1); c++) {
+                int cell = r * this.columns + c;
+                if (cell != own) {
+                    full = this.scan(cell, i, x, y);
+                }
+            }
+        }
+        float separationX = this.separationX;
+        float separationY = this.separationY;
+        float alignX = this.alignX;
+        float alignY = this.alignY;
+        float centerX = this.centerX;
+        float centerY = this.centerY;
+        int neighbors = this.neighbors;
+
+        float vx = this.velX[i];
+        float vy = this.velY[i];
+        float forceX = 0, forceY = 0;
+        if (neighbors > 0) {
+            float inverse = 1f / neighbors;
+            forceX += SEPARATION_WEIGHT * separationX
+                    + ALIGNMENT_WEIGHT * (alignX * inverse - vx)
+                    + COHESION_WEIGHT * (centerX * inverse - x);
+            forceY += SEPARATION_WEIGHT * separationY
+                    + ALIGNMENT_WEIGHT * (alignY * inverse - vy)
+                    + COHESION_WEIGHT * (centerY * inverse - y);
+        }
+        float force2 = forceX * forceX + forceY * forceY;
+        if (force2 > MAX_FORCE * MAX_FORCE) {
+            float scale = MAX_FORCE / (float) Math.sqrt(force2);
+            forceX *= scale;
+            forceY *= scale;
+        }
+        /* Turns back before the borders, which keeps the fish under the sea line */
+        if (x < this.minX + MARGIN) {
+            forceX += TURN_FORCE;
+        } else if (x > this.maxX - MARGIN) {
+            forceX -= TURN_FORCE;
+        }
+        if (y < this.minY + MARGIN) {
+            forceY += TURN_FORCE;
+        } else if (y > this.maxY - MARGIN) {
+            forceY -= TURN_FORCE;
+        }
+        vx += forceX;
+        vy += forceY;
+        float speed2 = vx * vx + vy * vy;
+        if (speed2 > MAX_SPEED * MAX_SPEED) {
+            float scale = MAX_SPEED / (float) Math.sqrt(speed2);
+            vx *= scale;
+            vy *= scale;
+        } else if (speed2 == 0) {
+            vx = MIN_SPEED;
+        } else if (speed2 < MIN_SPEED * MIN_SPEED) {
+            float scale = MIN_SPEED / (float) Math.sqrt(speed2);
+            vx *= scale;
+            vy *= scale;
+        }
+        this.nextVelX[i] = vx;
+        this.nextVelY[i] = vy;
+    }
+
+    /**
+     * Adds the fish of a cell seen by a fish to the sums of the steering
+     * rules.
+     *
+     * @param cell the cell
+     * @param i    the fish steering
+     * @param x    the X position of the fish steering
+     * @param y    the Y position of the fish steering
+     * @return true once {@link #MAX_NEIGHBORS} neighbors were found
+     */
+    private boolean scan(int cell, int i, float x, float y) {
+        for (int k = this.cellStart[cell]; k < this.cellStart[cell + 1]; k++) {
+            int j = this.cellFish[k];
+            float dx = this.posX[j] - x;
+            float dy = this.posY[j] - y;
+            float distance2 = dx * dx + dy * dy;
+            if (j == i || distance2 >= VIEW_RADIUS * VIEW_RADIUS) {
+                continue;
+            }
+            this.alignX += this.velX[j];
+            this.alignY += this.velY[j];
+            this.centerX += this.posX[j];
+            this.centerY += this.posY[j];
+            if (distance2 < SEPARATION_RADIUS * SEPARATION_RADIUS && distance2 > 0) {
+                this.separationX -= dx / distance2;
+                this.separationY -= dy / distance2;
+            }
+            if (++this.neighbors == MAX_NEIGHBORS) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds a fish inside a rectangle.
+     *
+     * @param x      the left side of the rectangle
+     * @param y      the top side of the rectangle
+     * @param width  the width of the rectangle
+     * @param height the height of the rectangle
+     * @return the index of a fish inside the rectangle, or -1 if there is none
+     */
+    public int findIn(float x, float y, float width, float height) {
+        if (this.count == 0) {
+            return -1;
+        }
+        float right = x + width;
+        float bottom = y + height;
+        /* The grid was built before the fish last moved */
+        int fromColumn = this.columnOf(x - MAX_SPEED);
+        int toColumn = this.columnOf(right + MAX_SPEED);
+        int fromRow = this.rowOf(y - MAX_SPEED);
+        int toRow = this.rowOf(bottom + MAX_SPEED);
+        for (int r = fromRow; r <= toRow; r++) {
+            for (int c = fromColumn; c <= toColumn; c++) {
+                int cell = r * this.columns + c;
+                for (int k = this.cellStart[cell]; k < this.cellStart[cell + 1]; k++) {
+                    int j = this.cellFish[k];
+                    if (this.posX[j] >= x && this.posX[j] <= right
+                            && this.posY[j] >= y && this.posY[j] <= bottom) {
+                        return j;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Takes a caught fish out of the school; a new fish swims in from a side
+     * of the sea in its place, so the school keeps its size.
+     *
+     * @param i the fish
+     */
+    public void respawn(int i) {
+        this.place(i, this.random.nextInt(2) == 0 ? this.minX : this.maxX);
+        this.prevPosX[i] = this.posX[i];
+        this.prevPosY[i] = this.posY[i];
+    }
+
+    private void place(int i, double x) {
+        double angle = this.random.nextDouble() * Math.PI * 2;
+        this.posX[i] = (float) x;
+        this.posY[i] = (float) (this.minY + this.random.nextDouble() * (this.maxY - this.minY));
+        this.prevPosX[i] = this.posX[i];
+        this.prevPosY[i] = this.posY[i];
+        this.velX[i] = (float) (Math.cos(angle) * MAX_SPEED * 0.5);
+        this.velY[i] = (float) (Math.sin(angle) * MAX_SPEED * 0.5);
+    }
+
+    private int cellOf(float x, float y) {
+        return this.rowOf(y) * this.columns + this.columnOf(x);
+    }
+
+    private int columnOf(float x) {
+        int column = (int) ((x - this.minX) / VIEW_RADIUS);
+        return Math.max(0, Math.min(this.columns - 1, column));
+    }
+
+    private int rowOf(float y) {
+        int row = (int) ((y - this.minY) / VIEW_RADIUS);
+        return Math.max(0, Math.min(this.rows - 1, row));
+    }
+
+    private static float clamp(float value, float min, float max) {
+        return value < min ? min : (value > max ? max : value);
+    }
+
+    /**
+     * Gets the number of fish.
+     *
+     * @return the number of fish
+     */
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * Gets the largest number of fish.
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return this.posX.length;
+    }
+
+    /**
+     * Gets the horizontal position of a fish.
+     *
+     * @param i the fish
+     * @return the X position
+     */
+    public float getPosX(int i) {
+        return this.posX[i];
+    }
+
+    /**
+     * Gets the vertical position of a fish.
+     *
+     * @param i the fish
+     * @return the Y position
+     */
+    public float getPosY(int i) {
+        return this.posY[i];
+    }
+
+    /**
+     * Gets the horizontal velocity of a fish.
+     *
+     * @param i the fish
+     * @return the X velocity, in pixels per tick
+     */
+    public float getVelocityX(int i) {
+        return this.velX[i];
+    }
+
+    /**
+     * Gets the horizontal position at which a fish is drawn, between its
+     * previous and current positions.
+     *
+     * @param i     the fish
+     * @param alpha the interpolation factor, from 0 (previous) to 1 (current)
+     * @return the interpolated X position
+     */
+    public int getRenderX(int i, double alpha) {
+        return (int) Math.round(this.prevPosX[i] + (this.posX[i] - this.prevPosX[i]) * alpha);
+    }
+
+    /**
+     * Gets the vertical position at which a fish is drawn, between its
+     * previous and current positions.
+     *
+     * @param i     the fish
+     * @param alpha the interpolation factor, from 0 (previous) to 1 (current)
+     * @return the interpolated Y position
+     */
+    public int getRenderY(int i, double alpha) {
+        return (int) Math.round(this.prevPosY[i] + (this.posY[i] - this.prevPosY[i]) * alpha);
+    }
+
+    /**
+     * Gets the sprite of the fish.
+     *
+     * @return the sprite identifier
+     */
+    public int getSpriteId() {
+        return this.spriteId;
+    }
+
+    /**
+     * Sets the sprite of the fish.
+     *
+     * @param path the resource path of the sprite
+     */
+    public void setSprite(String path) {
+        this.spriteId = SpriteRegistry.register(path);
+    }
+}
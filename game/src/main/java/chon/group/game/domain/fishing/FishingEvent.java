@@ -0,0 +1,19 @@
+package chon.group.game.domain.fishing;
+
+/**
+ * The events raised by a {@link FishingLine} as it changes state.
+ */
+public enum FishingEvent {
+    /** The line was cast. */
+    CAST,
+    /** A fish bit and a key is prompted. */
+    BITE,
+    /** No fish bit and the line is reeled in empty. */
+    NO_BITE,
+    /** The prompted key was pressed and the fish is caught. */
+    CAUGHT,
+    /** Another key was pressed and the fish escaped. */
+    WRONG_KEY,
+    /** No key was pressed in time and the fish escaped. */
+    TIMED_OUT
+}
@@ -0,0 +1,393 @@
+package chon.group.game.domain.fishing;
+
+import java.util.List;
+
+import chon.group.game.core.GameRandom;
+import chon.group.game.core.InputState;
+import chon.group.game.core.Key;
+import chon.group.game.core.Timeout;
+import chon.group.game.core.TimerWheel;
+import chon.group.game.domain.agent.Agent;
+
+/**
+ * The {@code FishingLine} class is a fishing rod and its fish, driven through
+ * the {@link FishingState}s by the keys of one player.
+ * <p>
+ * The rod is moved sideways while idle and cast with {@code SPACE}. Once the
+ * line reaches the sea it waits for a bite; when a fish bites, one of the
+ * {@link #PROMPT_KEYS} is prompted and must be pressed before the reaction
+ * time runs out, which shrinks as the score grows. The line is then reeled
+ * back up, with the fish if the right key was pressed. With a
+ * {@link FishSchool} in the sea, a fish only bites if one swims close enough
+ * to the hook when the wait is over.
+ * </p>
+ * <p>
+ * Each tick runs the handler of the current state only, and the bite and
+ * the reaction time are timers of the environment, so any number of lines
+ * can be updated in a single pass.
+ * </p>
+ */
+public class FishingLine {
+
+    /** The keys that can be prompted when a fish bites. */
+    public static final List<Key> PROMPT_KEYS = List.of(
+            Key.A, Key.E, Key.M, Key.V, Key.UP, Key.DOWN, Key.RIGHT, Key.LEFT);
+
+    /** Vertical position of the rod when it is up. */
+    public static final int ROD_TOP = -138;
+
+    /** Vertical position of the rod when the line is in the sea. */
+    public static final int ROD_BOTTOM = 0;
+
+    /** Vertical distance covered by the line in a tick. */
+    private static final int LINE_STEP = 10;
+
+    /** Horizontal position of the fish while it is hidden. */
+    private static final int FISH_HIDDEN_X = -27;
+
+    /** Vertical position of the fish while it is hidden. */
+    private static final int FISH_HIDDEN_Y = -52;
+
+    /** Horizontal position of a caught fish, relative to the rod. */
+    private static final int FISH_HOOK_X = -5;
+
+    /** Vertical position of a caught fish, relative to the bottom of the rod. */
+    private static final int FISH_HOOK_Y = -21;
+
+    /** Shortest wait for a bite, in milliseconds. */
+    private static final int MIN_BITE_MILLIS = 2000;
+
+    /** Spread of the wait for a bite, in milliseconds. */
+    private static final int BITE_SPREAD_MILLIS = 2000;
+
+    /** Chance that a fish bites once the wait is over, without a school. */
+    private static final double BITE_CHANCE = 0.85;
+
+    /** Distance from the hook within which a fish of the school bites. */
+    private static final int CATCH_RADIUS = 24;
+
+    /** The rod. */
+    private final Agent rod;
+
+    /** The fish hooked by the line. */
+    private final Agent fish;
+
+    /** The source of the random outcomes. */
+    private final GameRandom random;
+
+    /** The keys of the player, or null if nobody plays the line. */
+    private InputState input;
+
+    /** The timers of the environment. */
+    private TimerWheel timers;
+
+    /** The fish swimming in the sea, or null. */
+    private FishSchool school;
+
+    /** The listener of the events, or null. */
+    private FishingListener listener;
+
+    /** The current state. */
+    private FishingState state = FishingState.IDLE;
+
+    /** The key prompted on the last bite. */
+    private Key promptKey;
+
+    /** Fish caught in a row. */
+    private int score = 0;
+
+    /** The pending bite or reaction timer. */
+    private long timer = TimerWheel.NONE;
+
+    /* Timeouts, created once and scheduled again on every cast. */
+    private final Timeout biteTimeout = this::bite;
+    private final Timeout reactionTimeout = this::timeOut;
+
+    /**
+     * Constructor to initialize an idle line.
+     *
+     * @param rod    the rod
+     * @param fish   the fish hooked by the line
+     * @param input  the keys of the player, or null
+     * @param random the source of the random outcomes
+     */
+    public FishingLine(Agent rod, Agent fish, InputState input, GameRandom random) {
+        this.rod = rod;
+        this.fish = fish;
+        this.input = input;
+        this.random = random;
+    }
+
+    /**
+     * Advances the line by a single tick.
+     */
+    public void update() {
+        switch (this.state) {
+            case IDLE:
+                this.idle();
+                break;
+            case CASTING:
+                this.lower();
+                break;
+            case WAITING:
+                this.ignoreCast();
+                break;
+            case PROMPT:
+                this.answer();
+                break;
+            case REELING:
+                this.reel();
+                break;
+        }
+    }
+
+    /**
+     * Casts the line on {@code SPACE}, or moves the rod sideways.
+     */
+    private void idle() {
+        if (this.input == null) {
+            return;
+        }
+        if (this.input.wasPressed(Key.SPACE)) {
+            this.input.consume(Key.SPACE);
+            this.hideFish();
+            this.state = FishingState.CASTING;
+            this.notify(FishingEvent.CAST);
+        } else {
+            this.steer();
+        }
+    }
+
+    /**
+     * Lowers the line until it reaches the sea, then waits for a bite.
+     */
+    private void lower() {
+        this.ignoreCast();
+        int posY = this.rod.getPosY();
+        if (posY + LINE_STEP >= ROD_BOTTOM) {
+            this.rod.setPosY(ROD_BOTTOM);
+            this.state = FishingState.WAITING;
+            int waitMillis = MIN_BITE_MILLIS + this.random.nextInt(BITE_SPREAD_MILLIS);
+            this.timer = this.timers.scheduleMillis(waitMillis, this.biteTimeout);
+        } else {
+            this.rod.setPosY(posY + LINE_STEP);
+        }
+    }
+
+    /**
+     * Ends the wait: either a fish bites and a key is prompted, or the line
+     * is reeled in empty.
+     */
+    private void bite() {
+        if (this.findBite()) {
+            this.promptKey = PROMPT_KEYS.get(this.random.nextInt(PROMPT_KEYS.size()));
+            double seconds = Math.max(0.85, 2.0 - this.score * 0.07);
+            this.timer = this.timers.scheduleMillis((long) (seconds * 1000), this.reactionTimeout);
+            this.state = FishingState.PROMPT;
+            this.notify(FishingEvent.BITE);
+        } else {
+            this.state = FishingState.REELING;
+            this.notify(FishingEvent.NO_BITE);
+        }
+    }
+
+    /**
+     * Looks for a fish of the school around the hook, taking it out of the
+     * school when found. Without a school, a fish bites by chance.
+     *
+     * @return true if a fish bites
+     */
+    private boolean findBite() {
+        if (this.school == null) {
+            return this.random.nextDouble() < BITE_CHANCE;
+        }
+        float hookX = this.rod.getPosX() + FISH_HOOK_X + this.fish.getWidth() / 2f;
+        float hookY = this.rod.getPosY() + this.rod.getHeight() + FISH_HOOK_Y + this.fish.getHeight() / 2f;
+        int found = this.school.findIn(hookX - CATCH_RADIUS, hookY - CATCH_RADIUS,
+                CATCH_RADIUS * 2, CATCH_RADIUS * 2);
+        if (found < 0) {
+            return false;
+        }
+        this.school.respawn(found);
+        return true;
+    }
+
+    /**
+     * Checks the key pressed against the prompted key, or lets the rod move
+     * while no key is pressed.
+     */
+    private void answer() {
+        Key pressed = (this.input == null) ? null : this.input.getLastPressed();
+        if (pressed == null || !this.input.wasPressed(pressed)) {
+            this.steer();
+            return;
+        }
+        /* The answer does not move the rod */
+        this.input.consume(pressed);
+        this.timers.cancel(this.timer);
+        this.state = FishingState.REELING;
+        if (pressed == this.promptKey) {
+            this.fish.setPosX(this.rod.getPosX() + FISH_HOOK_X);
+            this.fish.setPosY(this.rod.getPosY() + this.rod.getHeight() + FISH_HOOK_Y);
+            this.score++;
+            this.notify(FishingEvent.CAUGHT);
+        } else {
+            this.score = 0;
+            this.notify(FishingEvent.WRONG_KEY);
+        }
+        this.reel();
+    }
+
+    /**
+     * Lets the fish escape when the reaction time runs out.
+     */
+    private void timeOut() {
+        this.score = 0;
+        this.state = FishingState.REELING;
+        this.notify(FishingEvent.TIMED_OUT);
+    }
+
+    /**
+     * Raises the line, and the fish with it, until the rod is up.
+     */
+    private void reel() {
+        this.ignoreCast();
+        int posY = this.rod.getPosY();
+        if (posY - LINE_STEP <= ROD_TOP) {
+            this.rod.setPosY(ROD_TOP);
+            this.state = FishingState.IDLE;
+        } else {
+            this.fish.setPosY(this.fish.getPosY() - LINE_STEP);
+            this.rod.setPosY(posY - LINE_STEP);
+        }
+        this.steer();
+    }
+
+    /**
+     * Moves the rod sideways with the arrow keys, hiding the fish.
+     */
+    private void steer() {
+        if (this.input != null && this.input.isAnyDown()) {
+            this.rod.move(this.input);
+            this.hideFish();
+        }
+    }
+
+    /**
+     * Swallows {@code SPACE} while the line is already out.
+     */
+    private void ignoreCast() {
+        if (this.input != null) {
+            this.input.consume(Key.SPACE);
+        }
+    }
+
+    private void hideFish() {
+        this.fish.setPosX(FISH_HIDDEN_X);
+        this.fish.setPosY(FISH_HIDDEN_Y);
+    }
+
+    private void notify(FishingEvent event) {
+        if (this.listener != null) {
+            this.listener.onEvent(this, event);
+        }
+    }
+
+    /**
+     * Gets the rod.
+     *
+     * @return the rod
+     */
+    public Agent getRod() {
+        return rod;
+    }
+
+    /**
+     * Gets the fish hooked by the line.
+     *
+     * @return the fish
+     */
+    public Agent getFish() {
+        return fish;
+    }
+
+    /**
+     * Gets the current state.
+     *
+     * @return the state
+     */
+    public FishingState getState() {
+        return state;
+    }
+
+    /**
+     * Gets the key prompted on the last bite.
+     *
+     * @return the key, or null before the first bite
+     */
+    public Key getPromptKey() {
+        return promptKey;
+    }
+
+    /**
+     * Gets the number of fish caught in a row.
+     *
+     * @return the score
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the keys of the player.
+     *
+     * @return the input state, or null if nobody plays the line
+     */
+    public InputState getInput() {
+        return input;
+    }
+
+    /**
+     * Sets the keys of the player.
+     *
+     * @param input the new input state, or null
+     */
+    public void setInput(InputState input) {
+        this.input = input;
+    }
+
+    /**
+     * Sets the timers running the bite and the reaction time, cancelling the
+     * pending one.
+     *
+     * @param timers the timer wheel of the environment
+     */
+    public void setTimers(TimerWheel timers) {
+        if (this.timers != null) {
+            this.timers.cancel(this.timer);
+        }
+        this.timers = timers;
+        /* A line left waiting would never get its timer back */
+        if (this.state == FishingState.WAITING || this.state == FishingState.PROMPT) {
+            this.state = FishingState.REELING;
+        }
+    }
+
+    /**
+     * Sets the fish swimming in the sea, which bite the hook.
+     *
+     * @param school the school, or null to let fish bite by chance
+     */
+    public void setSchool(FishSchool school) {
+        this.school = school;
+    }
+
+    /**
+     * Sets the listener of the events.
+     *
+     * @param listener the new listener, or null
+     */
+    public void setListener(FishingListener listener) {
+        this.listener = listener;
+    }
+}
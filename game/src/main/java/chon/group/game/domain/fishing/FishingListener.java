@@ -0,0 +1,17 @@
+package chon.group.game.domain.fishing;
+
+/**
+ * The {@code FishingListener} interface is notified of the events of a
+ * {@link FishingLine}, for instance to play sounds or update the screen.
+ */
+@FunctionalInterface
+public interface FishingListener {
+
+    /**
+     * Called when a line raises an event, on the simulation thread.
+     *
+     * @param line  the line
+     * @param event the event
+     */
+    void onEvent(FishingLine line, FishingEvent event);
+}
@@ -0,0 +1,18 @@
+package chon.group.game.domain.fishing;
+
+/**
+ * The states of a {@link FishingLine}, visited in order and back to
+ * {@link #IDLE}.
+ */
+public enum FishingState {
+    /** The rod is up and can be moved sideways or cast. */
+    IDLE,
+    /** The line is going down to the sea. */
+    CASTING,
+    /** The line is in the sea, waiting for a bite. */
+    WAITING,
+    /** A fish bit and the player must press the prompted key in time. */
+    PROMPT,
+    /** The line is coming back up, with the fish if it was caught. */
+    REELING
+}
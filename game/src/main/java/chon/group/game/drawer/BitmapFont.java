@@ -0,0 +1,231 @@
+package chon.group.game.drawer;
+
+import javafx.geometry.Bounds;
+import javafx.geometry.VPos;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * The {@code BitmapFont} class renders every printable ASCII glyph of a font
+ * once into a texture, with its outline already baked in. Text is then drawn
+ * with a single {@code drawImage} call per glyph, instead of several
+ * {@code fillText} calls to fake the outline.
+ * <p>
+ * Glyphs can be baked at a higher resolution than they are drawn, so the
+ * text stays sharp when the canvas is scaled up. The font must be created on
+ * the JavaFX application thread.
+ * </p>
+ */
+public class BitmapFont {
+
+    /** The first glyph in the texture. */
+    private static final char FIRST = 32;
+
+    /** The last glyph in the texture. */
+    private static final char LAST = 126;
+
+    /** Transparent pixels kept between glyphs to avoid bleeding. */
+    private static final int PADDING = 1;
+
+    /** Maximum width of the glyph texture. */
+    private static final int MAX_WIDTH = 2048;
+
+    /** The texture holding every glyph. */
+    private final Image texture;
+
+    /** The X position of each glyph in the texture. */
+    private final double[] glyphX = new double[LAST - FIRST + 1];
+
+    /** The Y position of each glyph in the texture. */
+    private final double[] glyphY = new double[LAST - FIRST + 1];
+
+    /** The width of each glyph cell, including the outline. */
+    private final double[] glyphWidth = new double[LAST - FIRST + 1];
+
+    /** The horizontal advance of each glyph. */
+    private final double[] advance = new double[LAST - FIRST + 1];
+
+    /** The height of a glyph cell, including the outline. */
+    private final double cellHeight;
+
+    /** Distance from the top of a cell to the baseline. */
+    private final double baseline;
+
+    /** The outline thickness. */
+    private final double outline;
+
+    /** Texture pixels per drawn pixel. */
+    private final double resolution;
+
+    /** Reusable buffer used to draw numbers without creating strings. */
+    private final char[] digits = new char[11];
+
+    /**
+     * Bakes the glyphs of a font.
+     *
+     * @param font         the font to bake
+     * @param fill         the color of the glyphs
+     * @param outlineColor the color of the outline, or null for no outline
+     * @param outline      the outline thickness
+     * @param resolution   texture pixels per drawn pixel
+     */
+    public BitmapFont(Font font, Color fill, Color outlineColor, double outline, double resolution) {
+        this.outline = (outlineColor == null) ? 0 : outline;
+        this.resolution = resolution;
+        Font baked = new Font(font.getName(), font.getSize() * resolution);
+
+        Text probe = new Text();
+        probe.setFont(baked);
+        probe.setText("Hg");
+        Bounds lineBounds = probe.getLayoutBounds();
+        double border = Math.ceil(this.outline * resolution);
+        double ascent = -lineBounds.getMinY();
+        this.cellHeight = Math.ceil(lineBounds.getHeight()) + border * 2;
+        this.baseline = border + ascent;
+
+        double x = PADDING;
+        double y = PADDING;
+        double textureWidth = 0;
+        for (char c = FIRST; c <= LAST; c++) {
+            probe.setText(String.valueOf(c));
+            double width = probe.getLayoutBounds().getWidth();
+            double cellWidth = Math.ceil(width) + border * 2;
+            if (x + cellWidth + PADDING > MAX_WIDTH) {
+                x = PADDING;
+                y += this.cellHeight + PADDING;
+            }
+            this.glyphX[c - FIRST] = x;
+            this.glyphY[c - FIRST] = y;
+            this.glyphWidth[c - FIRST] = cellWidth;
+            this.advance[c - FIRST] = width;
+            x += cellWidth + PADDING;
+            textureWidth = Math.max(textureWidth, x);
+        }
+
+        Canvas canvas = new Canvas(Math.ceil(textureWidth), y + this.cellHeight + PADDING);
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.setFont(baked);
+        gc.setTextAlign(TextAlignment.LEFT);
+        gc.setTextBaseline(VPos.BASELINE);
+        int steps = (int) Math.ceil(this.outline);
+        for (char c = FIRST; c <= LAST; c++) {
+            String glyph = String.valueOf(c);
+            double originX = this.glyphX[c - FIRST] + border;
+            double originY = this.glyphY[c - FIRST] + this.baseline;
+            if (outlineColor != null && steps > 0) {
+                gc.setFill(outlineColor);
+                for (int dx = -steps; dx <= steps; dx++) {
+                    for (int dy = -steps; dy <= steps; dy++) {
+                        if (dx != 0 || dy != 0) {
+                            double offsetX = dx * this.outline / steps * resolution;
+                            double offsetY = dy * this.outline / steps * resolution;
+                            gc.fillText(glyph, originX + offsetX, originY + offsetY);
+                        }
+                    }
+                }
+            }
+            gc.setFill(fill);
+            gc.fillText(glyph, originX, originY);
+        }
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        this.texture = canvas.snapshot(parameters, null);
+    }
+
+    /**
+     * Draws a text with its baseline at the given position.
+     *
+     * @param gc    the command buffer of the frame
+     * @param text  the text to draw
+     * @param posX  the x-coordinate where the text starts
+     * @param posY  the y-coordinate of the baseline
+     * @param scale the scale factor for drawing
+     * @return the x-coordinate where the text ends
+     */
+    public double drawText(DrawCommandBuffer gc, CharSequence text, double posX, double posY, double scale) {
+        double x = posX;
+        for (int i = 0; i < text.length(); i++) {
+            x = this.drawGlyph(gc, text.charAt(i), x, posY, scale);
+        }
+        return x;
+    }
+
+    /**
+     * Draws a number with its baseline at the given position, without
+     * creating a string.
+     *
+     * @param gc    the command buffer of the frame
+     * @param value the number to draw
+     * @param posX  the x-coordinate where the number starts
+     * @param posY  the y-coordinate of the baseline
+     * @param scale the scale factor for drawing
+     * @return the x-coordinate where the number ends
+     */
+    public double drawInt(DrawCommandBuffer gc, int value, double posX, double posY, double scale) {
+        long remaining = Math.abs((long) value);
+        int count = 0;
+        do {
+            this.digits[count++] = (char) ('0' + (remaining % 10));
+            remaining /= 10;
+        } while (remaining > 0);
+        double x = posX;
+        if (value < 0) {
+            x = this.drawGlyph(gc, '-', x, posY, scale);
+        }
+        for (int i = count - 1; i >= 0; i--) {
+            x = this.drawGlyph(gc, this.digits[i], x, posY, scale);
+        }
+        return x;
+    }
+
+    /**
+     * Gets the drawn width of a text.
+     *
+     * @param text  the text to measure
+     * @param scale the scale factor for drawing
+     * @return the width of the text
+     */
+    public double measure(CharSequence text, double scale) {
+        double width = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= FIRST && c <= LAST) {
+                width += this.advance[c - FIRST];
+            }
+        }
+        return width / this.resolution * scale;
+    }
+
+    /**
+     * Gets the texture holding every glyph.
+     *
+     * @return the glyph texture
+     */
+    public Image getTexture() {
+        return texture;
+    }
+
+    private double drawGlyph(DrawCommandBuffer gc, char c, double posX, double posY, double scale) {
+        if (c < FIRST || c > LAST) {
+            c = '?';
+        }
+        int index = c - FIRST;
+        double factor = scale / this.resolution;
+        if (c != ' ') {
+            gc.drawImage(this.texture,
+                    this.glyphX[index], this.glyphY[index], this.glyphWidth[index], this.cellHeight,
+                    posX - Math.ceil(this.outline * this.resolution) * factor,
+                    posY - this.baseline * factor,
+                    this.glyphWidth[index] * factor,
+                    this.cellHeight * factor);
+        }
+        return posX + this.advance[index] * factor;
+    }
+
+}
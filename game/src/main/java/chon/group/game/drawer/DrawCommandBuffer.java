@@ -0,0 +1,506 @@
+package chon.group.game.drawer;
+
+import java.util.Arrays;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+
+/**
+ * The {@code DrawCommandBuffer} class records the drawing commands of a frame
+ * and replays them on a {@link GraphicsContext} in a single flush.
+ * <p>
+ * Commands are grouped in layers, following the order in which the mediator
+ * draws each part of the scene. Inside a layer, a command is only moved next
+ * to the commands sharing its render state (texture, fill color and opacity)
+ * if nothing drawn in between with another state overlaps it, so the result
+ * is the same as drawing in the recorded order. Each command goes into the
+ * first batch above every overlapping command of another state, and each
+ * batch is drawn state by state, in the order in which each state first
+ * appeared in the layer. An exact duplicate that lands in the same batch as
+ * its original is dropped. The flush only touches the graphics context when
+ * the state really changes.
+ * </p>
+ * <p>
+ * Finding the batches compares every command with the ones before it in its
+ * layer, so a layer of more than {@value #MAX_BATCHED_LAYER} commands is drawn
+ * in the recorded order instead.
+ * </p>
+ * <p>
+ * All storage is reused from one frame to the next.
+ * </p>
+ */
+public class DrawCommandBuffer {
+
+    /** Draws a sub-rectangle of an image. */
+    private static final int IMAGE = 0;
+
+    /** Fills a rectangle with the fill color. */
+    private static final int FILL_RECT = 1;
+
+    /** Clears a rectangle. */
+    private static final int CLEAR_RECT = 2;
+
+    /** Number of coordinates stored per command. */
+    private static final int COORDS = 8;
+
+    /** Number of bounds stored per command. */
+    private static final int BOUNDS = 4;
+
+    /** Largest layer whose commands are batched. */
+    private static final int MAX_BATCHED_LAYER = 1024;
+
+    /** Bits of the sort key used by the command index. */
+    private static final int INDEX_BITS = 20;
+
+    /** Bits of the sort key used by the rank of the render state. */
+    private static final int RANK_BITS = 12;
+
+    /** Bits of the sort key used by the batch. */
+    private static final int BATCH_BITS = 20;
+
+    /** The kind of each command. */
+    private int[] kind = new int[256];
+
+    /** The layer of each command. */
+    private int[] layer = new int[256];
+
+    /** The render state of each command. */
+    private int[] state = new int[256];
+
+    /** The coordinates of each command. */
+    private double[] coords = new double[256 * COORDS];
+
+    /** The pixels covered by each command on the canvas: left, top, right, bottom. */
+    private double[] bounds = new double[256 * BOUNDS];
+
+    /** The batch of each command inside its layer. */
+    private int[] batch = new int[256];
+
+    /** The previous identical command of each command, or -1. */
+    private int[] twin = new int[256];
+
+    /** The sort keys of the commands. */
+    private long[] keys = new long[256];
+
+    /** Number of commands recorded in the frame. */
+    private int count = 0;
+
+    /** The texture of each render state. */
+    private Image[] stateTexture = new Image[16];
+
+    /** The fill color of each render state. */
+    private Color[] stateFill = new Color[16];
+
+    /** The opacity of each render state. */
+    private double[] stateAlpha = new double[16];
+
+    /** Order of first appearance of each render state inside its layer. */
+    private int[] stateRank = new int[16];
+
+    /** The layer (plus one) in which each state rank was assigned. */
+    private int[] stateRankLayer = new int[16];
+
+    /** Number of render states used in the frame. */
+    private int stateCount = 0;
+
+    /** Hash table of command indices used to find duplicates. */
+    private int[] table = new int[512];
+
+    /** The layer of the next commands. */
+    private int currentLayer = 0;
+
+    /** The fill color of the next commands. */
+    private Color currentFill = Color.BLACK;
+
+    /** The opacity of the next commands. */
+    private double currentAlpha = 1.0;
+
+    /** Draw calls issued by the last flush. */
+    private int drawCalls = 0;
+
+    /** Fill and opacity changes issued by the last flush. */
+    private int stateChanges = 0;
+
+    /** Texture switches in the last flush. */
+    private int textureSwitches = 0;
+
+    /** Duplicated commands dropped by the last flush. */
+    private int duplicates = 0;
+
+    /**
+     * Constructor to initialize an empty buffer.
+     */
+    public DrawCommandBuffer() {
+        Arrays.fill(this.table, -1);
+    }
+
+    /**
+     * Starts a new layer. Commands are never reordered across layers.
+     */
+    public void nextLayer() {
+        this.currentLayer++;
+    }
+
+    /**
+     * Sets the fill color of the next rectangles.
+     *
+     * @param fill the fill color
+     */
+    public void setFill(Color fill) {
+        this.currentFill = fill;
+    }
+
+    /**
+     * Sets the opacity of the next commands.
+     *
+     * @param alpha the opacity from 0 to 1
+     */
+    public void setGlobalAlpha(double alpha) {
+        this.currentAlpha = alpha;
+    }
+
+    /**
+     * Records a sub-rectangle of an image to be drawn.
+     *
+     * @param image the source image
+     * @param sx    the x-coordinate of the sub-rectangle
+     * @param sy    the y-coordinate of the sub-rectangle
+     * @param sw    the width of the sub-rectangle
+     * @param sh    the height of the sub-rectangle
+     * @param dx    the x-coordinate on the canvas
+     * @param dy    the y-coordinate on the canvas
+     * @param dw    the width on the canvas
+     * @param dh    the height on the canvas
+     */
+    public void drawImage(Image image, double sx, double sy, double sw, double sh,
+            double dx, double dy, double dw, double dh) {
+        if (image == null) {
+            return;
+        }
+        this.record(IMAGE, this.stateOf(image, null), sx, sy, sw, sh, dx, dy, dw, dh);
+    }
+
+    /**
+     * Records a whole image to be drawn.
+     *
+     * @param image the source image
+     * @param dx    the x-coordinate on the canvas
+     * @param dy    the y-coordinate on the canvas
+     * @param dw    the width on the canvas
+     * @param dh    the height on the canvas
+     */
+    public void drawImage(Image image, double dx, double dy, double dw, double dh) {
+        if (image == null) {
+            return;
+        }
+        this.drawImage(image, 0, 0, image.getWidth(), image.getHeight(), dx, dy, dw, dh);
+    }
+
+    /**
+     * Records a rectangle filled with the current fill color.
+     *
+     * @param x      the x-coordinate
+     * @param y      the y-coordinate
+     * @param width  the width
+     * @param height the height
+     */
+    public void fillRect(double x, double y, double width, double height) {
+        this.record(FILL_RECT, this.stateOf(null, this.currentFill), 0, 0, 0, 0, x, y, width, height);
+    }
+
+    /**
+     * Records a rectangle to be cleared.
+     *
+     * @param x      the x-coordinate
+     * @param y      the y-coordinate
+     * @param width  the width
+     * @param height the height
+     */
+    public void clearRect(double x, double y, double width, double height) {
+        this.record(CLEAR_RECT, this.stateOf(null, null), 0, 0, 0, 0, x, y, width, height);
+    }
+
+    /**
+     * Replays the recorded commands on a graphics context and starts a new
+     * frame.
+     *
+     * @param gc the graphics context
+     */
+    public void flush(GraphicsContext gc) {
+        /* Sort each layer by batch, then by state rank, keeping the painter's order of overlapping commands. */
+        Arrays.fill(this.stateRankLayer, 0, this.stateCount, 0);
+        int kept = 0;
+        int dropped = 0;
+        int lastLayer = -1;
+        int layerStart = 0;
+        boolean batched = true;
+        int nextRank = 0;
+        for (int i = 0; i < this.count; i++) {
+            if (this.layer[i] != lastLayer) {
+                lastLayer = this.layer[i];
+                layerStart = i;
+                int layerEnd = i;
+                while (layerEnd < this.count && this.layer[layerEnd] == lastLayer) {
+                    layerEnd++;
+                }
+                batched = layerEnd - layerStart <= MAX_BATCHED_LAYER;
+                nextRank = 0;
+            }
+            int s = this.state[i];
+            if (this.stateRankLayer[s] != lastLayer + 1) {
+                this.stateRankLayer[s] = lastLayer + 1;
+                this.stateRank[s] = nextRank++;
+            }
+            int b = batched ? this.batchOf(i, layerStart) : i - layerStart;
+            this.batch[i] = b;
+            if (this.twin[i] >= 0 && this.batch[this.twin[i]] == b) {
+                dropped++;
+                continue;
+            }
+            this.keys[kept++] = ((long) this.layer[i] << (INDEX_BITS + RANK_BITS + BATCH_BITS))
+                    | ((long) b << (INDEX_BITS + RANK_BITS))
+                    | ((long) this.stateRank[s] << INDEX_BITS)
+                    | i;
+        }
+        Arrays.sort(this.keys, 0, kept);
+
+        int calls = 0;
+        int changes = 0;
+        int switches = 0;
+        Color fill = null;
+        double alpha = 1.0;
+        Image texture = null;
+        for (int k = 0; k < kept; k++) {
+            int i = (int) (this.keys[k] & ((1L << INDEX_BITS) - 1));
+            int s = this.state[i];
+            if (this.stateAlpha[s] != alpha) {
+                alpha = this.stateAlpha[s];
+                gc.setGlobalAlpha(alpha);
+                changes++;
+            }
+            int c = i * COORDS;
+            switch (this.kind[i]) {
+                case IMAGE:
+                    if (this.stateTexture[s] != texture) {
+                        texture = this.stateTexture[s];
+                        switches++;
+                    }
+                    gc.drawImage(texture,
+                            this.coords[c], this.coords[c + 1], this.coords[c + 2], this.coords[c + 3],
+                            this.coords[c + 4], this.coords[c + 5], this.coords[c + 6], this.coords[c + 7]);
+                    break;
+                case FILL_RECT:
+                    if (!this.stateFill[s].equals(fill)) {
+                        fill = this.stateFill[s];
+                        gc.setFill(fill);
+                        changes++;
+                    }
+                    gc.fillRect(this.coords[c + 4], this.coords[c + 5], this.coords[c + 6], this.coords[c + 7]);
+                    break;
+                default:
+                    gc.clearRect(this.coords[c + 4], this.coords[c + 5], this.coords[c + 6], this.coords[c + 7]);
+                    break;
+            }
+            calls++;
+        }
+        if (alpha != 1.0) {
+            gc.setGlobalAlpha(1.0);
+        }
+
+        this.drawCalls = calls;
+        this.stateChanges = changes;
+        this.textureSwitches = switches;
+        this.duplicates = dropped;
+        this.reset();
+    }
+
+    /**
+     * Discards the recorded commands without drawing them.
+     */
+    public void reset() {
+        Arrays.fill(this.stateTexture, 0, this.stateCount, null);
+        Arrays.fill(this.stateFill, 0, this.stateCount, null);
+        Arrays.fill(this.table, -1);
+        this.count = 0;
+        this.stateCount = 0;
+        this.currentLayer = 0;
+        this.currentFill = Color.BLACK;
+        this.currentAlpha = 1.0;
+    }
+
+    /**
+     * Gets the number of draw calls issued by the last flush.
+     *
+     * @return the draw calls
+     */
+    public int getDrawCalls() {
+        return drawCalls;
+    }
+
+    /**
+     * Gets the number of fill and opacity changes issued by the last flush.
+     *
+     * @return the state changes
+     */
+    public int getStateChanges() {
+        return stateChanges;
+    }
+
+    /**
+     * Gets the number of texture switches in the last flush.
+     *
+     * @return the texture switches
+     */
+    public int getTextureSwitches() {
+        return textureSwitches;
+    }
+
+    /**
+     * Gets the number of duplicated commands dropped by the last flush.
+     *
+     * @return the dropped duplicates
+     */
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * Finds or creates the render state for a texture or fill color and the
+     * current opacity. A frame uses only a handful of states, so a linear
+     * search is enough.
+     */
+    private int stateOf(Image texture, Color fill) {
+        for (int s = 0; s < this.stateCount; s++) {
+            if (this.stateTexture[s] == texture && this.stateAlpha[s] == this.currentAlpha
+                    && (fill == null ? this.stateFill[s] == null : fill.equals(this.stateFill[s]))) {
+                return s;
+            }
+        }
+        if (this.stateCount == this.stateTexture.length) {
+            int size = this.stateCount * 2;
+            this.stateTexture = Arrays.copyOf(this.stateTexture, size);
+            this.stateFill = Arrays.copyOf(this.stateFill, size);
+            this.stateAlpha = Arrays.copyOf(this.stateAlpha, size);
+            this.stateRank = Arrays.copyOf(this.stateRank, size);
+            this.stateRankLayer = Arrays.copyOf(this.stateRankLayer, size);
+        }
+        this.stateTexture[this.stateCount] = texture;
+        this.stateFill[this.stateCount] = fill;
+        this.stateAlpha[this.stateCount] = this.currentAlpha;
+        return this.stateCount++;
+    }
+
+    /**
+     * Finds the batch of a command: the first one above every earlier
+     * overlapping command of another state, and not below any earlier
+     * overlapping command of the same state.
+     */
+    private int batchOf(int i, int layerStart) {
+        int b = 0;
+        int s = this.state[i];
+        for (int k = layerStart; k < i; k++) {
+            if (this.overlaps(k, i)) {
+                int above = (this.state[k] == s) ? this.batch[k] : this.batch[k] + 1;
+                if (above > b) {
+                    b = above;
+                }
+            }
+        }
+        return b;
+    }
+
+    private boolean overlaps(int a, int b) {
+        int p = a * BOUNDS;
+        int q = b * BOUNDS;
+        return this.bounds[p] < this.bounds[q + 2] && this.bounds[q] < this.bounds[p + 2]
+                && this.bounds[p + 1] < this.bounds[q + 3] && this.bounds[q + 1] < this.bounds[p + 3];
+    }
+
+    private void record(int commandKind, int commandState, double sx, double sy, double sw, double sh,
+            double dx, double dy, double dw, double dh) {
+        if (this.count == this.kind.length) {
+            this.grow();
+        }
+        int i = this.count;
+        int c = i * COORDS;
+        this.kind[i] = commandKind;
+        this.layer[i] = this.currentLayer;
+        this.state[i] = commandState;
+        this.coords[c] = sx;
+        this.coords[c + 1] = sy;
+        this.coords[c + 2] = sw;
+        this.coords[c + 3] = sh;
+        this.coords[c + 4] = dx;
+        this.coords[c + 5] = dy;
+        this.coords[c + 6] = dw;
+        this.coords[c + 7] = dh;
+        /* Every pixel touched, even partly, so antialiased edges keep their order too */
+        int p = i * BOUNDS;
+        this.bounds[p] = Math.floor(Math.min(dx, dx + dw));
+        this.bounds[p + 1] = Math.floor(Math.min(dy, dy + dh));
+        this.bounds[p + 2] = Math.ceil(Math.max(dx, dx + dw));
+        this.bounds[p + 3] = Math.ceil(Math.max(dy, dy + dh));
+
+        /* Open addressing over the command indices to find exact duplicates, dropped on flush. */
+        this.twin[i] = -1;
+        int mask = this.table.length - 1;
+        int slot = this.hash(i) & mask;
+        while (this.table[slot] >= 0) {
+            if (this.sameCommand(this.table[slot], i)) {
+                this.twin[i] = this.table[slot];
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        this.table[slot] = i;
+        this.count++;
+    }
+
+    private int hash(int i) {
+        long h = this.kind[i] * 31L + this.layer[i];
+        h = h * 31 + this.state[i];
+        for (int c = i * COORDS; c < (i + 1) * COORDS; c++) {
+            h = h * 31 + Double.hashCode(this.coords[c]);
+        }
+        return (int) (h ^ (h >>> 32)) * 0x9E3779B9;
+    }
+
+    private boolean sameCommand(int a, int b) {
+        if (this.kind[a] != this.kind[b] || this.layer[a] != this.layer[b] || this.state[a] != this.state[b]) {
+            return false;
+        }
+        for (int c = 0; c < COORDS; c++) {
+            if (this.coords[a * COORDS + c] != this.coords[b * COORDS + c]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void grow() {
+        int size = this.kind.length * 2;
+        this.kind = Arrays.copyOf(this.kind, size);
+        this.layer = Arrays.copyOf(this.layer, size);
+        this.state = Arrays.copyOf(this.state, size);
+        this.keys = Arrays.copyOf(this.keys, size);
+        this.coords = Arrays.copyOf(this.coords, size * COORDS);
+        this.bounds = Arrays.copyOf(this.bounds, size * BOUNDS);
+        this.batch = Arrays.copyOf(this.batch, size);
+        this.twin = Arrays.copyOf(this.twin, size);
+        this.table = new int[size * 2];
+        Arrays.fill(this.table, -1);
+        int mask = this.table.length - 1;
+        for (int i = 0; i < this.count; i++) {
+            int slot = this.hash(i) & mask;
+            while (this.table[slot] >= 0) {
+                if (this.sameCommand(this.table[slot], i)) {
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            this.table[slot] = i;
+        }
+    }
+
+}
@@ -1,5 +1,7 @@
 package chon.group.game.drawer;
 
+import chon.group.game.core.FrameProfiler;
+
 /**
  * The {@code EnvironmentDrawer} interface defines methods for rendering
  * various elements in the game environment. It provides essential drawing
@@ -13,6 +15,20 @@ public interface EnvironmentDrawer {
      */
     void clearEnvironment();
 
+    /**
+     * Draws every element recorded since the last flush. Drawers may buffer
+     * their commands until this method is called at the end of a frame.
+     */
+    void flush();
+
+    /**
+     * Sets the fraction of a simulation tick elapsed since the last update,
+     * used to interpolate the positions drawn.
+     *
+     * @param alpha the interpolation factor between 0.0 and 1.0
+     */
+    void setInterpolation(double alpha);
+
     /**
      * Draws the background of the environment.
      */
@@ -26,6 +42,12 @@ public interface EnvironmentDrawer {
     void drawSea();
     void drawInputKey();
     void drawFish();
+
+    /**
+     * Draws the fish swimming below the sea line.
+     */
+    void drawSchool();
+
     /**
      * Draws the life bar for agents or players.
      */
@@ -36,6 +58,13 @@ public interface EnvironmentDrawer {
      */
     void drawStatusPanel();
 
+    /**
+     * Draws the player's score.
+     *
+     * @param score the current score
+     */
+    void drawScore(int score);
+
     /**
      * Draws the pause screen when the game is paused.
      */
@@ -56,4 +85,11 @@ public interface EnvironmentDrawer {
      */
     void drawGameOver();
 
+    /**
+     * Draws the profiler overlay, with the p50, p99 and max of each phase.
+     *
+     * @param profiler the profiler
+     */
+    void drawProfiler(FrameProfiler profiler);
+
 }
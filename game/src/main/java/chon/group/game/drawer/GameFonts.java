@@ -0,0 +1,167 @@
+package chon.group.game.drawer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import chon.group.game.logging.Logger;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+
+/**
+ * The {@code GameFonts} class holds the {@link BitmapFont}s of the game,
+ * baked once and shared by every {@link JavaFxDrawer}.
+ * <p>
+ * The fonts are baked by {@link #bake()} on the JavaFX application thread as
+ * soon as the startup assets, including the score font, are loaded, so no
+ * drawer bakes a texture during the first frames. A font asked for before
+ * that, or a message font in colors that were not baked, is baked on first
+ * use and reported.
+ * </p>
+ */
+public final class GameFonts {
+
+    private static final Logger LOG = Logger.get("assets");
+
+    /** Family of the score font, loaded from the resources by the asset loader. */
+    private static final String HUD_FONT_FAMILY = "Daydream";
+
+    /** Size of the score font. */
+    private static final int HUD_FONT_SIZE = 14;
+
+    /** Size of the status panel font. */
+    private static final int STATUS_FONT_SIZE = 14;
+
+    /** Size at which the message font is baked. */
+    static final int MESSAGE_FONT_SIZE = 25;
+
+    /** Size of the profiler overlay font. */
+    private static final int OVERLAY_FONT_SIZE = 8;
+
+    /** Glyph texture pixels per drawn pixel, keeping text sharp when scaled. */
+    private static final double FONT_RESOLUTION = 4;
+
+    /** Border color of the floating messages. */
+    public static final Color MESSAGE_BORDER = Color.BLACK;
+
+    /** Fill color of the floating messages. */
+    public static final Color MESSAGE_FILL = Color.WHEAT;
+
+    /** Baked font of the score. */
+    private static BitmapFont hudFont;
+
+    /** Baked font of the status panel. */
+    private static BitmapFont statusFont;
+
+    /** Baked font of the profiler overlay. */
+    private static BitmapFont overlayFont;
+
+    /** Baked fonts of the floating messages, one per pair of colors. */
+    private static final List<MessageFont> messageFonts = new ArrayList<MessageFont>();
+
+    /** If {@link #bake()} is running, so the fonts are expected to be baked. */
+    private static boolean baking = false;
+
+    private GameFonts() {
+    }
+
+    /**
+     * Bakes every font of the game, unless they are already baked. Must be
+     * called on the JavaFX application thread, once the score font is loaded.
+     */
+    public static void bake() {
+        long start = System.nanoTime();
+        baking = true;
+        try {
+            getHudFont();
+            getStatusFont();
+            getOverlayFont();
+            getMessageFont(MESSAGE_BORDER, MESSAGE_FILL);
+        } finally {
+            baking = false;
+        }
+        LOG.info("Baked the fonts in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Gets the font of the score.
+     *
+     * @return the score font
+     */
+    static BitmapFont getHudFont() {
+        if (hudFont == null) {
+            if (!baking)
+                LOG.warn("Baking the {} font on first use", "score");
+            hudFont = new BitmapFont(Font.font(HUD_FONT_FAMILY, HUD_FONT_SIZE),
+                    Color.WHITE, Color.BLACK, 2, FONT_RESOLUTION);
+        }
+        return hudFont;
+    }
+
+    /**
+     * Gets the font of the status panel.
+     *
+     * @return the status panel font
+     */
+    static BitmapFont getStatusFont() {
+        if (statusFont == null) {
+            if (!baking)
+                LOG.warn("Baking the {} font on first use", "status panel");
+            statusFont = new BitmapFont(Font.font("Verdana", FontWeight.BOLD, STATUS_FONT_SIZE),
+                    Color.BLACK, null, 0, FONT_RESOLUTION);
+        }
+        return statusFont;
+    }
+
+    /**
+     * Gets the font of the profiler overlay.
+     *
+     * @return the overlay font
+     */
+    static BitmapFont getOverlayFont() {
+        if (overlayFont == null) {
+            if (!baking)
+                LOG.warn("Baking the {} font on first use", "overlay");
+            overlayFont = new BitmapFont(Font.font("Monospaced", OVERLAY_FONT_SIZE),
+                    Color.WHITE, null, 0, FONT_RESOLUTION);
+        }
+        return overlayFont;
+    }
+
+    /**
+     * Gets the font of the floating messages in the given colors, baking it
+     * only the first time these colors are asked for.
+     *
+     * @param borderColor The border color.
+     * @param fillColor   The inside color.
+     * @return the message font
+     */
+    static BitmapFont getMessageFont(Color borderColor, Color fillColor) {
+        for (MessageFont baked : messageFonts) {
+            if (baked.border.equals(borderColor) && baked.fill.equals(fillColor)) {
+                return baked.font;
+            }
+        }
+        if (!baking)
+            LOG.warn("Baking a message font on first use, filled with {}", fillColor);
+        BitmapFont font = new BitmapFont(Font.font("Verdana", FontWeight.BOLD, MESSAGE_FONT_SIZE),
+                fillColor, borderColor, 1.5, FONT_RESOLUTION);
+        messageFonts.add(new MessageFont(borderColor, fillColor, font));
+        return font;
+    }
+
+    /**
+     * A message font with the colors it was baked in.
+     */
+    private static final class MessageFont {
+        private final Color border;
+        private final Color fill;
+        private final BitmapFont font;
+
+        private MessageFont(Color border, Color fill, BitmapFont font) {
+            this.border = border;
+            this.fill = fill;
+            this.font = font;
+        }
+    }
+}
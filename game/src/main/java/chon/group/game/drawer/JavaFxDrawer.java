@@ -3,8 +3,6 @@ package chon.group.game.drawer;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
 import javafx.scene.paint.Color;
-import javafx.scene.text.Font;
-import javafx.scene.text.FontWeight;
 
 /**
  * The {@code JavaFxDrawer} class is responsible for rendering various elements
@@ -15,6 +13,10 @@ public class JavaFxDrawer {
 
     /** The graphics context used to render the environment. */
     private final GraphicsContext gc;
+
+    /** The commands of the frame being drawn, flushed to the graphics context. */
+    private final DrawCommandBuffer buffer = new DrawCommandBuffer();
+
     /** The mediator instance, if necessary. */
     @SuppressWarnings("unused")
     private final EnvironmentDrawer mediator;
@@ -30,6 +32,31 @@ public class JavaFxDrawer {
         this.mediator = mediator;
     }
 
+    /**
+     * Starts a new layer of the frame. Commands are batched by render state
+     * inside a layer, but never reordered across layers.
+     */
+    public void beginLayer() {
+        this.buffer.nextLayer();
+    }
+
+    /**
+     * Draws every command recorded in the frame on the graphics context.
+     */
+    public void flush() {
+        this.buffer.flush(this.gc);
+    }
+
+    /**
+     * Gets the command buffer, which reports the draw calls and state changes
+     * of the last frame.
+     *
+     * @return the command buffer
+     */
+    public DrawCommandBuffer getCommandBuffer() {
+        return this.buffer;
+    }
+
     /**
      * Clears the canvas area, removing previously drawn elements.
      *
@@ -37,11 +64,31 @@ public class JavaFxDrawer {
      * @param height The height of the area to clear.
      */
     public void clearScreen(int width, int height) {
-        this.gc.clearRect(0, 0, width, height);
+        this.buffer.clearRect(0, 0, width, height);
     }
 
     public void drawImage(Image image, int posX, int posY, int width, int height, double scale) {
-        this.gc.drawImage(image, posX * scale, posY * scale, width * scale, height * scale);
+        this.buffer.drawImage(image, posX * scale, posY * scale, width * scale, height * scale);
+    }
+
+    /**
+     * Draws a sub-rectangle of an image, such as a sprite packed in an atlas.
+     *
+     * @param image     The source image.
+     * @param srcX      The x-coordinate of the sub-rectangle in the image.
+     * @param srcY      The y-coordinate of the sub-rectangle in the image.
+     * @param srcWidth  The width of the sub-rectangle.
+     * @param srcHeight The height of the sub-rectangle.
+     * @param posX      The x-coordinate position.
+     * @param posY      The y-coordinate position.
+     * @param width     The width to draw.
+     * @param height    The height to draw.
+     * @param scale     The scale factor for drawing.
+     */
+    public void drawImage(Image image, int srcX, int srcY, int srcWidth, int srcHeight,
+            int posX, int posY, int width, int height, double scale) {
+        this.buffer.drawImage(image, srcX, srcY, srcWidth, srcHeight,
+                posX * scale, posY * scale, width * scale, height * scale);
     }
 
     /**
@@ -61,16 +108,16 @@ public class JavaFxDrawer {
         int lifeSpan = Math.round((float) ((health * 100 / fullHealth) * width) / 100);
         int barY = 15;
 
-        this.gc.setFill(Color.BLACK);
-        this.gc.fillRect(
+        this.buffer.setFill(Color.BLACK);
+        this.buffer.fillRect(
             posX * scale,
             (posY - barY) * scale,
             width * scale,
             (barHeight + (borderThickness * 2)) * scale
         );
 
-        this.gc.setFill(color);
-        this.gc.fillRect(
+        this.buffer.setFill(color);
+        this.buffer.fillRect(
             (posX + borderThickness) * scale,
             (posY - (barY - borderThickness)) * scale,
             (lifeSpan - (borderThickness * 2)) * scale,
@@ -86,11 +133,23 @@ public class JavaFxDrawer {
      * @param scale The scale factor for drawing.
      */
     public void drawStatusPanel(int posX, int posY, double scale) {
-        Font theFont = Font.font("Verdana", FontWeight.BOLD, 14 * scale);
-        this.gc.setFont(theFont);
-        this.gc.setFill(Color.BLACK);
-        this.gc.fillText("X: " + posX, (posX + 10) * scale, (posY - 40) * scale);
-        this.gc.fillText("Y: " + posY, (posX + 10) * scale, (posY - 25) * scale);
+        BitmapFont font = GameFonts.getStatusFont();
+        double x = font.drawText(this.buffer, "X: ", (posX + 10) * scale, (posY - 40) * scale, scale);
+        font.drawInt(this.buffer, posX, x, (posY - 40) * scale, scale);
+        x = font.drawText(this.buffer, "Y: ", (posX + 10) * scale, (posY - 25) * scale, scale);
+        font.drawInt(this.buffer, posY, x, (posY - 25) * scale, scale);
+    }
+
+    /**
+     * Draws the score with an outline in the top-left corner.
+     *
+     * @param score The score value.
+     * @param scale The scale factor for drawing.
+     */
+    public void drawScore(int score, double scale) {
+        BitmapFont font = GameFonts.getHudFont();
+        double x = font.drawText(this.buffer, "Score: ", 5 * scale, 20 * scale, scale);
+        font.drawInt(this.buffer, score, x, 20 * scale, scale);
     }
 
     /**
@@ -109,11 +168,10 @@ public class JavaFxDrawer {
             double canvasHeight = gc.getCanvas().getHeight();
             double centerX = (canvasWidth - (imageWidth * scale)) / 2;
             double centerY = (canvasHeight - (imageHeight * scale)) / 2;
-            this.gc.drawImage(image, centerX, centerY, imageWidth * scale, imageHeight * scale);
+            this.buffer.drawImage(image, centerX, centerY, imageWidth * scale, imageHeight * scale);
         }
     }
 
-    // ...existing code...
     /**
      * Draws damage numbers that appear when agents take damage.
      * The numbers float upward and fade out over time.
@@ -129,21 +187,40 @@ public class JavaFxDrawer {
      */
     public void drawMessages(int fontSize, double opacity, Color borderColor, Color fillColor, String message,
             double posX, double posY, double scale) {
-        Font damageFont = Font.font("Verdana", FontWeight.BOLD, fontSize * scale);
-        gc.setFont(damageFont);
-
-        gc.setGlobalAlpha(opacity);
-
-        gc.setFill(borderColor);
-        double offset = 1.5 * scale;
-        gc.fillText(String.valueOf(message), posX * scale - offset, posY * scale);
-        gc.fillText(String.valueOf(message), posX * scale + offset, posY * scale);
-        gc.fillText(String.valueOf(message), posX * scale, posY * scale - offset);
-        gc.fillText(String.valueOf(message), posX * scale, posY * scale + offset);
+        BitmapFont font = GameFonts.getMessageFont(borderColor, fillColor);
+        this.buffer.setGlobalAlpha(opacity);
+        font.drawText(this.buffer, message, posX * scale, posY * scale,
+                scale * fontSize / GameFonts.MESSAGE_FONT_SIZE);
+        this.buffer.setGlobalAlpha(1.0);
+    }
 
-        gc.setFill(fillColor);
-        gc.fillText(String.valueOf(message), posX * scale, posY * scale);
+    /**
+     * Draws a translucent rectangle, used as the backdrop of overlays.
+     *
+     * @param posX    The x-coordinate position.
+     * @param posY    The y-coordinate position.
+     * @param width   The width of the rectangle.
+     * @param height  The height of the rectangle.
+     * @param color   The color of the rectangle.
+     * @param opacity The opacity value from 0 to 1.
+     * @param scale   The scale factor for drawing.
+     */
+    public void drawPanel(int posX, int posY, int width, int height, Color color, double opacity, double scale) {
+        this.buffer.setGlobalAlpha(opacity);
+        this.buffer.setFill(color);
+        this.buffer.fillRect(posX * scale, posY * scale, width * scale, height * scale);
+        this.buffer.setGlobalAlpha(1.0);
+    }
 
-        gc.setGlobalAlpha(1.0);
+    /**
+     * Draws a line of the profiler overlay in a small monospaced font.
+     *
+     * @param text  The text to be printed.
+     * @param posX  The x-coordinate of the text.
+     * @param posY  The y-coordinate of the text baseline.
+     * @param scale The scale factor for drawing.
+     */
+    public void drawOverlayText(CharSequence text, int posX, int posY, double scale) {
+        GameFonts.getOverlayFont().drawText(this.buffer, text, posX * scale, posY * scale, scale);
     }
 }
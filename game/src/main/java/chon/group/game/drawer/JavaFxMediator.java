@@ -1,13 +1,16 @@
 package chon.group.game.drawer;
 
-import java.util.Iterator;
-
-import chon.group.game.domain.agent.Agent;
-import chon.group.game.domain.agent.Shot;
+import chon.group.game.asset.AtlasRegion;
+import chon.group.game.asset.SpriteCache;
+import chon.group.game.core.Entity;
+import chon.group.game.core.EntityStore;
+import chon.group.game.core.FrameProfiler;
 import chon.group.game.domain.environment.Environment;
+import chon.group.game.domain.fishing.FishSchool;
+import chon.group.game.domain.fishing.FishingLine;
 import chon.group.game.messaging.Message;
+import chon.group.game.messaging.MessageBuffer;
 import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.image.Image;
 import javafx.scene.paint.Color;
 
 /**
@@ -22,6 +25,15 @@ public class JavaFxMediator implements EnvironmentDrawer {
     private final Environment environment;
     private final JavaFxDrawer drawer;
 
+    /** The fraction of a tick used to interpolate the positions drawn. */
+    private double alpha = 1.0;
+
+    /** Height of a line of the profiler overlay. */
+    private static final int PROFILER_LINE_HEIGHT = 9;
+
+    /** Reused text of a line of the profiler overlay. */
+    private final StringBuilder profilerLine = new StringBuilder(64);
+
     /**
      * Constructs a JavaFxMediator with the specified environment and graphics
      * context.
@@ -40,37 +52,78 @@ public class JavaFxMediator implements EnvironmentDrawer {
      */
     @Override
     public void clearEnvironment() {
+        drawer.beginLayer();
         drawer.clearScreen(this.environment.getWidth(), this.environment.getHeight());
     }
 
+    /**
+     * Draws every command recorded in the frame.
+     */
+    @Override
+    public void flush() {
+        drawer.flush();
+    }
+
+    /**
+     * Gets the command buffer, which reports the draw calls and state changes
+     * of the last frame.
+     *
+     * @return the command buffer
+     */
+    public DrawCommandBuffer getCommandBuffer() {
+        return drawer.getCommandBuffer();
+    }
+
+    @Override
+    public void setInterpolation(double alpha) {
+        this.alpha = alpha;
+    }
+
     @Override
     public void drawSea() {
-        drawer.drawImage (this.environment.getSeaImage(),
-            this.environment.getPosX(),
-            this.environment.getPosY() + 192,
-            this.environment.getWidth(),
-            this.environment.getHeight() - 192,
-            this.environment.getScale());
+        drawer.beginLayer();
+        this.drawSprite(this.environment.getSeaSprite(),
+                this.environment.getPosX(),
+                this.environment.getPosY() + Environment.SEA_LINE,
+                this.environment.getWidth(),
+                this.environment.getHeight() - Environment.SEA_LINE);
     }
 
     @Override
     public void drawFish() {
-        drawer.drawImage (this.environment.getFish().getImage(),
-            this.environment.getFish().getPosX(),
-            this.environment.getFish().getPosY(),
-            this.environment.getFish().getWidth(),
-            this.environment.getFish().getHeight(),
-            this.environment.getScale());
+        drawer.beginLayer();
+        if (this.environment.getLines().isEmpty()) {
+            this.drawEntity(this.environment.getFish());
+        }
+        for (FishingLine line : this.environment.getLines()) {
+            this.drawEntity(line.getFish());
+        }
+    }
+
+    @Override
+    public void drawSchool() {
+        drawer.beginLayer();
+        FishSchool school = this.environment.getSchool();
+        if (school == null) {
+            return;
+        }
+        for (int i = 0; i < school.size(); i++) {
+            this.drawSprite(school.getSpriteId(),
+                    school.getRenderX(i, this.alpha),
+                    school.getRenderY(i, this.alpha),
+                    FishSchool.FISH_WIDTH,
+                    FishSchool.FISH_HEIGHT);
+        }
     }
 
     @Override
     public void drawInputKey() {
-        drawer.drawImage(this.environment.getCatchKeyImage(),
+        drawer.beginLayer();
+        this.drawSprite(this.environment.getCatchKeySprite(),
                 this.environment.getPosX() + 142,
                 this.environment.getPosY() + 80,
                 36,
-                38,
-                this.environment.getScale());
+                38);
     }
 
     /**
@@ -78,53 +131,55 @@ public class JavaFxMediator implements EnvironmentDrawer {
      */
     @Override
     public void drawBackground() {
-        drawer.drawImage(this.environment.getImage(),
+        drawer.beginLayer();
+        this.drawSprite(this.environment.getBackgroundSprite(),
                 this.environment.getPosX(),
                 this.environment.getPosY(),
                 this.environment.getWidth(),
-                this.environment.getHeight(),
-                this.environment.getScale());
+                this.environment.getHeight());
     }
 
     /**
      * Renders all agents and the protagonist within the environment,
-     * including their health bars and status panels.
+     * including their health bars and status panels. The agents are read
+     * from the entity store by slot.
      */
     @Override
     public void drawAgents() {
-        for (Agent agent : this.environment.getAgents()) {
-            drawer.drawImage(agent.getImage(),
-                    agent.getPosX(),
-                    agent.getPosY(),
-                    agent.getWidth(),
-                    agent.getHeight(),
-                    this.environment.getScale());
-            drawer.drawLifeBar(agent.getHealth(),
-                    agent.getFullHealth(),
-                    agent.getWidth(),
-                    agent.getPosX(),
-                    agent.getPosY(),
+        drawer.beginLayer();
+        int[] slots = this.environment.getAgentSlots();
+        int count = this.environment.getAgents().size();
+        EntityStore.Page[] pages = EntityStore.getInstance().getPages();
+        for (int i = 0; i < count; i++) {
+            EntityStore.Page p = pages[EntityStore.pageOf(slots[i])];
+            int o = EntityStore.offsetOf(slots[i]);
+            int renderX = this.interpolate(p.prevPosX[o], p.posX[o]);
+            int renderY = this.interpolate(p.prevPosY[o], p.posY[o]);
+            this.drawSprite(p.currentSprite[o], renderX, renderY, p.width[o], p.height[o]);
+            drawer.drawLifeBar(p.health[o],
+                    p.fullHealth[o],
+                    p.width[o],
+                    renderX,
+                    renderY,
                     Color.DARKRED,
                     this.environment.getScale());
         }
-        drawer.drawImage(this.environment.getProtagonist().getImage(),
-                this.environment.getProtagonist().getPosX(),
-                this.environment.getProtagonist().getPosY(),
-                this.environment.getProtagonist().getWidth(),
-                this.environment.getProtagonist().getHeight(),
-                this.environment.getScale());
+        /* The rods of the other players */
+        for (FishingLine line : this.environment.getLines()) {
+            if (line.getRod() != this.environment.getProtagonist()) {
+                this.drawEntity(line.getRod());
+            }
+        }
+        this.drawEntity(this.environment.getProtagonist());
         drawer.drawLifeBar(this.environment.getProtagonist().getHealth(),
                 this.environment.getProtagonist().getFullHealth(),
                 this.environment.getProtagonist().getWidth(),
-                this.environment.getProtagonist().getPosX(),
-                this.environment.getProtagonist().getPosY(),
+                this.environment.getProtagonist().getRenderX(this.alpha),
+                this.environment.getProtagonist().getRenderY(this.alpha),
                 Color.GREEN,
                 this.environment.getScale());
-        drawer.drawStatusPanel(this.environment.getProtagonist().getPosX(),
-                this.environment.getProtagonist().getPosY(),
-                this.environment.getScale());
-        drawer.drawStatusPanel(this.environment.getProtagonist().getPosX(),
-                this.environment.getProtagonist().getPosY(),
+        drawer.drawStatusPanel(this.environment.getProtagonist().getRenderX(this.alpha),
+                this.environment.getProtagonist().getRenderY(this.alpha),
                 this.environment.getScale());
     }
 
@@ -133,12 +188,13 @@ public class JavaFxMediator implements EnvironmentDrawer {
      */
     @Override
     public void drawLifeBar() {
+        drawer.beginLayer();
         drawer.drawLifeBar(
                 this.environment.getProtagonist().getHealth(),
                 this.environment.getProtagonist().getFullHealth(),
                 this.environment.getProtagonist().getWidth(),
-                this.environment.getProtagonist().getPosX(),
-                this.environment.getProtagonist().getPosY(),
+                this.environment.getProtagonist().getRenderX(this.alpha),
+                this.environment.getProtagonist().getRenderY(this.alpha),
                 Color.GREEN,
                 this.environment.getScale());
     }
@@ -148,20 +204,34 @@ public class JavaFxMediator implements EnvironmentDrawer {
      */
     @Override
     public void drawStatusPanel() {
-        drawer.drawStatusPanel(this.environment.getProtagonist().getPosX(),
-                this.environment.getProtagonist().getPosY(),
+        drawer.beginLayer();
+        drawer.drawStatusPanel(this.environment.getProtagonist().getRenderX(this.alpha),
+                this.environment.getProtagonist().getRenderY(this.alpha),
                 this.environment.getScale());
     }
 
+    /**
+     * Draws the score on the top-left corner of the screen.
+     *
+     * @param score the current score
+     */
+    @Override
+    public void drawScore(int score) {
+        drawer.beginLayer();
+        drawer.drawScore(score, this.environment.getScale());
+    }
+
     /**
      * Draws the pause screen overlay, displaying a pause image centered within the
      * environment.
      */
     @Override
     public void drawPauseScreen() {
-        drawer.drawScreen(this.environment.getPauseImage(),
-                (int) this.environment.getPauseImage().getWidth(),
-                (int) this.environment.getPauseImage().getHeight(),
+        drawer.beginLayer();
+        AtlasRegion region = SpriteCache.getInstance().getRegion(this.environment.getPauseSprite());
+        drawer.drawScreen(region.getTexture(),
+                region.getWidth(),
+                region.getHeight(),
                 this.environment.getWidth(),
                 this.environment.getHeight(),
                 this.environment.getScale());
@@ -173,9 +243,12 @@ public class JavaFxMediator implements EnvironmentDrawer {
      */
     @Override
     public void drawGameOver() {
-        drawer.drawScreen(this.environment.getGameOverImage(),
-                (int) this.environment.getPauseImage().getWidth(),
-                (int) this.environment.getPauseImage().getHeight(),
+        drawer.beginLayer();
+        AtlasRegion region = SpriteCache.getInstance().getRegion(this.environment.getGameOverSprite());
+        AtlasRegion pause = SpriteCache.getInstance().getRegion(this.environment.getPauseSprite());
+        drawer.drawScreen(region.getTexture(),
+                pause.getWidth(),
+                pause.getHeight(),
                 this.environment.getWidth(),
                 this.environment.getHeight(),
                 this.environment.getScale());
@@ -187,31 +260,106 @@ public class JavaFxMediator implements EnvironmentDrawer {
      */
     @Override
     public void drawMessages() {
-        Iterator<Message> iterator = this.environment.getMessages().iterator();
-        while (iterator.hasNext()) {
-            Message message = iterator.next();
+        drawer.beginLayer();
+        MessageBuffer messages = this.environment.getMessages();
+        for (int i = 0; i < messages.size(); i++) {
+            Message message = messages.get(i);
             drawer.drawMessages(message.getSize(),
                     message.getOpacity(),
-                    Color.BLACK,
-                    Color.WHEAT,
-                    String.valueOf(message.getMessage()),
+                    GameFonts.MESSAGE_BORDER,
+                    GameFonts.MESSAGE_FILL,
+                    message.getMessage(),
                     message.getPosX(),
                     message.getPosY(),
                     this.environment.getScale());
         }
     }
 
+    /**
+     * Draws the shots in flight, read from the entity store by slot.
+     */
     @Override
     public void drawShots() {
-        Iterator<Shot> iterator = this.environment.getShots().iterator();
-        while (iterator.hasNext()) {
-            Shot shot = iterator.next();          
-            drawer.drawImage(shot.getImage(),
-                    shot.getPosX(),
-                    shot.getPosY(),
-                    shot.getWidth(),
-                    shot.getHeight(),
+        drawer.beginLayer();
+        int[] slots = this.environment.getShotSlots();
+        int count = this.environment.getShots().size();
+        EntityStore.Page[] pages = EntityStore.getInstance().getPages();
+        for (int i = 0; i < count; i++) {
+            EntityStore.Page p = pages[EntityStore.pageOf(slots[i])];
+            int o = EntityStore.offsetOf(slots[i]);
+            this.drawSprite(p.currentSprite[o],
+                    this.interpolate(p.prevPosX[o], p.posX[o]),
+                    this.interpolate(p.prevPosY[o], p.posY[o]),
+                    p.width[o],
+                    p.height[o]);
+        }
+    }
+
+    /**
+     * Draws the profiler overlay in the top-left corner, below the score.
+     *
+     * @param profiler the profiler
+     */
+    @Override
+    public void drawProfiler(FrameProfiler profiler) {
+        drawer.beginLayer();
+        int phases = profiler.getPhaseCount();
+        drawer.drawPanel(2, 26, 236, phases * PROFILER_LINE_HEIGHT + 4, Color.BLACK, 0.6,
+                this.environment.getScale());
+        for (int i = 0; i < phases; i++) {
+            this.profilerLine.setLength(0);
+            profiler.appendSummary(i, this.profilerLine);
+            drawer.drawOverlayText(this.profilerLine, 4, 26 + (i + 1) * PROFILER_LINE_HEIGHT,
                     this.environment.getScale());
         }
     }
+
+    /**
+     * Draws the current sprite of an entity, taking it from the texture atlas
+     * when the sprite is packed.
+     *
+     * @param entity the entity to be drawn
+     */
+    private void drawEntity(Entity entity) {
+        this.drawSprite(entity.getCurrentSprite(),
+                entity.getRenderX(this.alpha),
+                entity.getRenderY(this.alpha),
+                entity.getWidth(),
+                entity.getHeight());
+    }
+
+    /**
+     * Interpolates a coordinate between the last two ticks, as
+     * {@link Entity#getRenderX(double)} does.
+     *
+     * @param previous the coordinate before the last tick
+     * @param current  the coordinate after the last tick
+     * @return the coordinate to draw at
+     */
+    private int interpolate(int previous, int current) {
+        return (int) Math.round(previous + (current - previous) * this.alpha);
+    }
+
+    /**
+     * Draws a sprite, taking it from the texture atlas when it is packed.
+     *
+     * @param spriteId the identifier of the sprite
+     * @param posX     the x-coordinate position
+     * @param posY     the y-coordinate position
+     * @param width    the width to draw
+     * @param height   the height to draw
+     */
+    private void drawSprite(int spriteId, int posX, int posY, int width, int height) {
+        AtlasRegion region = SpriteCache.getInstance().getRegion(spriteId);
+        drawer.drawImage(region.getTexture(),
+                region.getX(),
+                region.getY(),
+                region.getWidth(),
+                region.getHeight(),
+                posX,
+                posY,
+                width,
+                height,
+                this.environment.getScale());
+    }
 }
@@ -0,0 +1,242 @@
+package chon.group.game.drawer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import chon.group.game.core.FrameProfiler;
+import chon.group.game.domain.environment.Environment;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+
+/**
+ * The {@code LayeredCanvas} class splits the screen into stacked canvases, so
+ * that the parts of the scene that rarely change are not redrawn every frame.
+ * <p>
+ * Each layer owns its canvas and its own {@link JavaFxMediator}, and therefore
+ * its own command buffer. Dynamic layers are redrawn on every frame, while
+ * static layers keep their pixels until they are marked dirty, for instance
+ * when the window is resized or when the score changes.
+ * </p>
+ * <p>
+ * The canvases either follow the size of the window, each scaling its
+ * drawing, or keep the logical size and are shown by a {@link VirtualScreen}.
+ * </p>
+ */
+public class LayeredCanvas {
+
+    /**
+     * The layers of the screen, from the bottom to the top.
+     */
+    public enum Layer {
+        /** The sky and the static scenery. */
+        BACKGROUND(false),
+        /** The agents and the fish. */
+        SPRITES(true),
+        /** The sea strip, drawn over the fish. */
+        SEA(false),
+        /** The school of fish, the shots, the key prompt and the messages. */
+        EFFECTS(true),
+        /** The score and the pause and game over screens. */
+        HUD(false);
+
+        /** If the layer is redrawn on every frame. */
+        private final boolean dynamic;
+
+        Layer(boolean dynamic) {
+            this.dynamic = dynamic;
+        }
+
+        /**
+         * Checks whether the layer is redrawn on every frame.
+         *
+         * @return true if the layer is dynamic, false if it is only redrawn
+         *         when dirty
+         */
+        public boolean isDynamic() {
+            return this.dynamic;
+        }
+    }
+
+    /** The logical width of the screen. */
+    private final int width;
+
+    /** The logical height of the screen. */
+    private final int height;
+
+    /** The canvases of the layers, indexed by their ordinal. */
+    private final Canvas[] canvases;
+
+    /** The mediators drawing into each layer. */
+    private final JavaFxMediator[] mediators;
+
+    /** The drawers handed out for each layer, possibly profiled. */
+    private final EnvironmentDrawer[] drawers;
+
+    /** If each static layer must be redrawn. */
+    private final boolean[] dirty;
+
+    /** How many times each layer has been redrawn. */
+    private final long[] redraws;
+
+    /**
+     * Creates the layers of the screen, with every layer initially dirty.
+     *
+     * @param environment the environment to be drawn
+     * @param width       the logical width of the screen
+     * @param height      the logical height of the screen
+     */
+    public LayeredCanvas(Environment environment, int width, int height) {
+        Layer[] layers = Layer.values();
+        this.width = width;
+        this.height = height;
+        this.canvases = new Canvas[layers.length];
+        this.mediators = new JavaFxMediator[layers.length];
+        this.drawers = new EnvironmentDrawer[layers.length];
+        this.dirty = new boolean[layers.length];
+        this.redraws = new long[layers.length];
+        for (int i = 0; i < layers.length; i++) {
+            this.canvases[i] = new Canvas(width, height);
+            GraphicsContext gc = this.canvases[i].getGraphicsContext2D();
+            gc.setImageSmoothing(false);
+            this.mediators[i] = new JavaFxMediator(environment, gc);
+            this.drawers[i] = this.mediators[i];
+            this.dirty[i] = true;
+        }
+    }
+
+    /**
+     * Gets the canvases of the layers, from the bottom to the top, to be
+     * stacked in the scene.
+     *
+     * @return the canvases
+     */
+    public List<Canvas> getCanvases() {
+        List<Canvas> list = new ArrayList<Canvas>(this.canvases.length);
+        Collections.addAll(list, this.canvases);
+        return list;
+    }
+
+    /**
+     * Sets the profiler timing the drawing calls of every layer.
+     *
+     * @param profiler the profiler, or null to stop profiling
+     */
+    public void setProfiler(FrameProfiler profiler) {
+        for (int i = 0; i < this.mediators.length; i++) {
+            this.drawers[i] = profiler == null
+                    ? this.mediators[i]
+                    : new ProfilingDrawer(this.mediators[i], profiler);
+        }
+    }
+
+    /**
+     * Resizes every layer, which erases their pixels and marks them dirty.
+     *
+     * @param canvasWidth  the new width of the canvases
+     * @param canvasHeight the new height of the canvases
+     */
+    public void resize(double canvasWidth, double canvasHeight) {
+        for (Canvas canvas : this.canvases) {
+            canvas.setWidth(canvasWidth);
+            canvas.setHeight(canvasHeight);
+        }
+        this.markAllDirty();
+    }
+
+    /**
+     * Marks a layer to be redrawn on the next frame.
+     *
+     * @param layer the layer
+     */
+    public void markDirty(Layer layer) {
+        this.dirty[layer.ordinal()] = true;
+    }
+
+    /**
+     * Marks every layer to be redrawn on the next frame.
+     */
+    public void markAllDirty() {
+        for (int i = 0; i < this.dirty.length; i++) {
+            this.dirty[i] = true;
+        }
+    }
+
+    /**
+     * Checks whether a layer must be redrawn on this frame.
+     *
+     * @param layer the layer
+     * @return true if the layer is dynamic or has been marked dirty
+     */
+    public boolean isDirty(Layer layer) {
+        return layer.isDynamic() || this.dirty[layer.ordinal()];
+    }
+
+    /**
+     * Starts redrawing a layer, erasing its canvas and scaling it to the
+     * logical size of the screen.
+     *
+     * @param layer the layer
+     * @param alpha the interpolation factor of the frame
+     * @return the drawer of the layer
+     */
+    public EnvironmentDrawer begin(Layer layer, double alpha) {
+        Canvas canvas = this.canvases[layer.ordinal()];
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.save();
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        gc.scale(canvas.getWidth() / this.width, canvas.getHeight() / this.height);
+        EnvironmentDrawer drawer = this.drawers[layer.ordinal()];
+        drawer.setInterpolation(alpha);
+        return drawer;
+    }
+
+    /**
+     * Finishes redrawing a layer, flushing its commands and clearing its
+     * dirty flag.
+     *
+     * @param layer the layer
+     */
+    public void end(Layer layer) {
+        int index = layer.ordinal();
+        this.drawers[index].flush();
+        this.canvases[index].getGraphicsContext2D().restore();
+        this.dirty[index] = false;
+        this.redraws[index]++;
+    }
+
+    /**
+     * Gets how many times a layer has been redrawn.
+     *
+     * @param layer the layer
+     * @return the number of redraws
+     */
+    public long getRedraws(Layer layer) {
+        return this.redraws[layer.ordinal()];
+    }
+
+    /**
+     * Gets the command buffer of a layer, which reports the draw calls and
+     * state changes of its last redraw.
+     *
+     * @param layer the layer
+     * @return the command buffer
+     */
+    public DrawCommandBuffer getCommandBuffer(Layer layer) {
+        return this.mediators[layer.ordinal()].getCommandBuffer();
+    }
+
+    /**
+     * Builds a short report of the redraws of each layer.
+     *
+     * @return the report
+     */
+    public String report() {
+        StringBuilder builder = new StringBuilder("Layer redraws:");
+        for (Layer layer : Layer.values()) {
+            builder.append(' ').append(layer.name().toLowerCase())
+                    .append('=').append(this.redraws[layer.ordinal()]);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,70 @@
+package chon.group.game.drawer;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+/**
+ * The {@code LoadingScreen} class draws a progress bar while the assets are
+ * being decoded. It only uses plain shapes, so it can be shown before any
+ * image or font of the game is available. The bar is laid out from the
+ * current size of the canvas, which may be bound to the size of the scene.
+ */
+public class LoadingScreen {
+
+    /** Width of the bar, relative to the width of the screen. */
+    private static final double BAR_WIDTH = 0.6;
+
+    /** Height of the bar, relative to the height of the screen. */
+    private static final double BAR_HEIGHT = 0.04;
+
+    /** Color of the background. */
+    private static final Color BACKGROUND = Color.rgb(20, 40, 70);
+
+    /** Color of the frame and of the filled part of the bar. */
+    private static final Color BAR = Color.rgb(240, 240, 240);
+
+    /** The canvas of the screen. */
+    private final Canvas canvas;
+
+    /**
+     * Creates the loading screen.
+     *
+     * @param width  the initial width of the screen
+     * @param height the initial height of the screen
+     */
+    public LoadingScreen(double width, double height) {
+        this.canvas = new Canvas(width, height);
+    }
+
+    /**
+     * Gets the canvas of the screen, to be added to the scene.
+     *
+     * @return the canvas
+     */
+    public Canvas getCanvas() {
+        return canvas;
+    }
+
+    /**
+     * Draws the screen with the bar filled up to the progress.
+     *
+     * @param progress the share of the assets loaded, from 0 to 1
+     */
+    public void draw(double progress) {
+        double width = this.canvas.getWidth();
+        double height = this.canvas.getHeight();
+        GraphicsContext gc = this.canvas.getGraphicsContext2D();
+        gc.setFill(BACKGROUND);
+        gc.fillRect(0, 0, width, height);
+
+        double barWidth = width * BAR_WIDTH;
+        double barHeight = Math.max(4, height * BAR_HEIGHT);
+        double x = (width - barWidth) / 2;
+        double y = (height - barHeight) / 2;
+        gc.setStroke(BAR);
+        gc.strokeRect(x, y, barWidth, barHeight);
+        gc.setFill(BAR);
+        gc.fillRect(x, y, barWidth * Math.min(1.0, Math.max(0.0, progress)), barHeight);
+    }
+}
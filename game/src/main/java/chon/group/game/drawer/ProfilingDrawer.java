@@ -0,0 +1,180 @@
+package chon.group.game.drawer;
+
+import chon.group.game.core.FrameProfiler;
+
+/**
+ * The {@code ProfilingDrawer} class wraps an {@link EnvironmentDrawer} and
+ * times each of its drawing calls with a {@link FrameProfiler}.
+ * <p>
+ * Drawers that buffer their commands do most of their work in
+ * {@link #flush()}, which is timed as a phase of its own.
+ * </p>
+ */
+public class ProfilingDrawer implements EnvironmentDrawer {
+
+    private final EnvironmentDrawer drawer;
+    private final FrameProfiler profiler;
+
+    /* The profiler phases of each drawing call. */
+    private final int clearPhase;
+    private final int flushPhase;
+    private final int backgroundPhase;
+    private final int agentsPhase;
+    private final int seaPhase;
+    private final int inputKeyPhase;
+    private final int fishPhase;
+    private final int schoolPhase;
+    private final int lifeBarPhase;
+    private final int statusPanelPhase;
+    private final int scorePhase;
+    private final int pauseScreenPhase;
+    private final int messagesPhase;
+    private final int shotsPhase;
+    private final int gameOverPhase;
+
+    /**
+     * Constructs a drawer timing the calls of another drawer.
+     *
+     * @param drawer   the drawer doing the actual drawing
+     * @param profiler the profiler recording the durations
+     */
+    public ProfilingDrawer(EnvironmentDrawer drawer, FrameProfiler profiler) {
+        this.drawer = drawer;
+        this.profiler = profiler;
+        this.clearPhase = profiler.phase("draw.clear");
+        this.flushPhase = profiler.phase("draw.flush");
+        this.backgroundPhase = profiler.phase("draw.background");
+        this.agentsPhase = profiler.phase("draw.agents");
+        this.seaPhase = profiler.phase("draw.sea");
+        this.inputKeyPhase = profiler.phase("draw.inputKey");
+        this.fishPhase = profiler.phase("draw.fish");
+        this.schoolPhase = profiler.phase("draw.school");
+        this.lifeBarPhase = profiler.phase("draw.lifeBar");
+        this.statusPanelPhase = profiler.phase("draw.statusPanel");
+        this.scorePhase = profiler.phase("draw.score");
+        this.pauseScreenPhase = profiler.phase("draw.pauseScreen");
+        this.messagesPhase = profiler.phase("draw.messages");
+        this.shotsPhase = profiler.phase("draw.shots");
+        this.gameOverPhase = profiler.phase("draw.gameOver");
+    }
+
+    @Override
+    public void clearEnvironment() {
+        profiler.begin(clearPhase);
+        drawer.clearEnvironment();
+        profiler.end(clearPhase);
+    }
+
+    @Override
+    public void flush() {
+        profiler.begin(flushPhase);
+        drawer.flush();
+        profiler.end(flushPhase);
+    }
+
+    @Override
+    public void setInterpolation(double alpha) {
+        drawer.setInterpolation(alpha);
+    }
+
+    @Override
+    public void drawBackground() {
+        profiler.begin(backgroundPhase);
+        drawer.drawBackground();
+        profiler.end(backgroundPhase);
+    }
+
+    @Override
+    public void drawAgents() {
+        profiler.begin(agentsPhase);
+        drawer.drawAgents();
+        profiler.end(agentsPhase);
+    }
+
+    @Override
+    public void drawSea() {
+        profiler.begin(seaPhase);
+        drawer.drawSea();
+        profiler.end(seaPhase);
+    }
+
+    @Override
+    public void drawInputKey() {
+        profiler.begin(inputKeyPhase);
+        drawer.drawInputKey();
+        profiler.end(inputKeyPhase);
+    }
+
+    @Override
+    public void drawFish() {
+        profiler.begin(fishPhase);
+        drawer.drawFish();
+        profiler.end(fishPhase);
+    }
+
+    @Override
+    public void drawSchool() {
+        profiler.begin(schoolPhase);
+        drawer.drawSchool();
+        profiler.end(schoolPhase);
+    }
+
+    @Override
+    public void drawLifeBar() {
+        profiler.begin(lifeBarPhase);
+        drawer.drawLifeBar();
+        profiler.end(lifeBarPhase);
+    }
+
+    @Override
+    public void drawStatusPanel() {
+        profiler.begin(statusPanelPhase);
+        drawer.drawStatusPanel();
+        profiler.end(statusPanelPhase);
+    }
+
+    @Override
+    public void drawScore(int score) {
+        profiler.begin(scorePhase);
+        drawer.drawScore(score);
+        profiler.end(scorePhase);
+    }
+
+    @Override
+    public void drawPauseScreen() {
+        profiler.begin(pauseScreenPhase);
+        drawer.drawPauseScreen();
+        profiler.end(pauseScreenPhase);
+    }
+
+    @Override
+    public void drawMessages() {
+        profiler.begin(messagesPhase);
+        drawer.drawMessages();
+        profiler.end(messagesPhase);
+    }
+
+    @Override
+    public void drawShots() {
+        profiler.begin(shotsPhase);
+        drawer.drawShots();
+        profiler.end(shotsPhase);
+    }
+
+    @Override
+    public void drawGameOver() {
+        profiler.begin(gameOverPhase);
+        drawer.drawGameOver();
+        profiler.end(gameOverPhase);
+    }
+
+    /**
+     * Draws the profiler overlay. The overlay itself is not timed.
+     *
+     * @param profiler the profiler
+     */
+    @Override
+    public void drawProfiler(FrameProfiler profiler) {
+        drawer.drawProfiler(profiler);
+    }
+}
@@ -0,0 +1,100 @@
+package chon.group.game.drawer;
+
+import java.util.List;
+
+import javafx.scene.Group;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.layout.Background;
+import javafx.scene.layout.BackgroundFill;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.transform.Scale;
+
+/**
+ * The {@code VirtualScreen} class shows layers drawn at the logical
+ * resolution of the game on a window of any size.
+ * <p>
+ * The layers keep their logical size and stay on the scene, stacked in a
+ * single node scaled by the largest whole factor that fits and centered on
+ * the window. The rest of the window is left black. The upscale is a
+ * transform applied by the renderer when it composes the scene, so nothing
+ * is read back from the layers or copied on the CPU: the cost of drawing
+ * the layers no longer depends on the size of the window, and each frame
+ * adds no work of its own.
+ * </p>
+ */
+public class VirtualScreen {
+
+    /** Color of the borders around the scaled frame. */
+    private static final Color BORDER = Color.BLACK;
+
+    /** The logical width of the screen. */
+    private final int width;
+
+    /** The logical height of the screen. */
+    private final int height;
+
+    /** The layers, stacked at the logical size. */
+    private final Group frame = new Group();
+
+    /** The upscale of the layers. */
+    private final Scale upscale = new Scale(1, 1, 0, 0);
+
+    /** The window, holding the scaled frame over a black background. */
+    private final Pane view = new Pane(this.frame);
+
+    /** The whole factor the frame is scaled by. */
+    private double scale = 1;
+
+    /**
+     * Creates the screen, taking over the canvases of the layers.
+     *
+     * @param layers the canvases of the layers, from the bottom to the top, at
+     *               the logical size
+     * @param width  the logical width of the screen
+     * @param height the logical height of the screen
+     */
+    public VirtualScreen(List<Canvas> layers, int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.frame.getChildren().addAll(layers);
+        this.frame.getTransforms().add(this.upscale);
+        this.view.setBackground(new Background(new BackgroundFill(BORDER, null, null)));
+    }
+
+    /**
+     * Gets the node of the window, to be added to the scene.
+     *
+     * @return the window node
+     */
+    public Pane getNode() {
+        return view;
+    }
+
+    /**
+     * Picks the largest whole scale at which the frame fits the window, and
+     * centers it. A window smaller than the logical size shrinks the frame
+     * instead.
+     *
+     * @param canvasWidth  the new width of the window
+     * @param canvasHeight the new height of the window
+     */
+    public void resize(double canvasWidth, double canvasHeight) {
+        double fit = Math.min(canvasWidth / this.width, canvasHeight / this.height);
+        this.scale = (fit >= 1) ? Math.floor(fit) : fit;
+        this.upscale.setX(this.scale);
+        this.upscale.setY(this.scale);
+        this.frame.setLayoutX(Math.floor((canvasWidth - this.width * this.scale) / 2));
+        this.frame.setLayoutY(Math.floor((canvasHeight - this.height * this.scale) / 2));
+    }
+
+    /**
+     * Gets the factor the frame is scaled by on the window.
+     *
+     * @return the scale, a whole number unless the window is smaller than
+     *         the logical size
+     */
+    public double getScale() {
+        return scale;
+    }
+}
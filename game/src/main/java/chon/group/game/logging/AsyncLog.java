@@ -0,0 +1,336 @@
+package chon.group.game.logging;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The {@code AsyncLog} class collects the log events of every
+ * {@link Logger} and writes them from a background thread.
+ * <p>
+ * Events are stored in a ring buffer allocated once. Producers claim a slot
+ * with a compare-and-set and never wait: when the ring is full the event is
+ * dropped and counted. A daemon thread drains the ring in batches, formats
+ * the events and writes them to stdout or to a file, flushing once per batch.
+ * </p>
+ * <p>
+ * Levels are set globally and per category, for instance with
+ * {@code configure("INFO,fishing=DEBUG,input=OFF")}.
+ * </p>
+ */
+public final class AsyncLog {
+
+    /** Default number of events held by the ring. */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    /** How long the writer sleeps when the ring is empty, in nanoseconds. */
+    private static final long IDLE_NANOS = 10_000_000L;
+
+    /** Format of the timestamps of the events. */
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss.SSS")
+            .withZone(ZoneId.systemDefault());
+
+    /** The single instance of the log. */
+    private static final AsyncLog INSTANCE = new AsyncLog(DEFAULT_CAPACITY);
+
+    /* The fields of the events, indexed by slot. */
+    private final long[] times;
+    private final LogLevel[] levels;
+    private final String[] categories;
+    private final String[] messages;
+    private final Object[] arguments;
+    private final Throwable[] errors;
+
+    /** The sequence published in each slot, or -1 while it is being written. */
+    private final AtomicLongArray published;
+
+    /** Mask turning a sequence number into a slot index. */
+    private final int mask;
+
+    /** Sequence of the next slot to claim. */
+    private final AtomicLong claimed = new AtomicLong();
+
+    /** Sequence of the next event to write, advanced by the writer thread. */
+    private final AtomicLong written = new AtomicLong();
+
+    /** Number of events dropped because the ring was full. */
+    private final LongAdder dropped = new LongAdder();
+
+    /** The level of the categories without a level of their own. */
+    private volatile LogLevel defaultLevel = LogLevel.INFO;
+
+    /** The levels set per category. */
+    private final Map<String, LogLevel> categoryLevels = new ConcurrentHashMap<String, LogLevel>();
+
+    /** The destination of the events. */
+    private volatile Writer output = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+
+    /** Reused buffer formatting the events. */
+    private final StringBuilder line = new StringBuilder(256);
+
+    /** The thread writing the events. */
+    private final Thread writer;
+
+    /** If the writer thread keeps running. */
+    private volatile boolean running = true;
+
+    private AsyncLog(int capacity) {
+        int size = Integer.highestOneBit(capacity);
+        this.times = new long[size];
+        this.levels = new LogLevel[size];
+        this.categories = new String[size];
+        this.messages = new String[size];
+        this.arguments = new Object[size];
+        this.errors = new Throwable[size];
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            this.published.set(i, i - size);
+        }
+        this.mask = size - 1;
+        this.writer = new Thread(this::run, "game-log");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Gets the single instance of the log.
+     *
+     * @return the log
+     */
+    public static AsyncLog getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Stores an event in the ring, or drops it if the ring is full.
+     *
+     * @param level    the level of the event
+     * @param category the category of the event
+     * @param message  the message, with an optional {@code {}} placeholder
+     * @param argument the value of the placeholder, or null
+     * @param error    the error, or null
+     * @return true if the event was stored
+     */
+    boolean offer(LogLevel level, String category, String message, Object argument, Throwable error) {
+        long sequence;
+        do {
+            sequence = this.claimed.get();
+            if (sequence - this.written.get() > this.mask) {
+                this.dropped.increment();
+                return false;
+            }
+        } while (!this.claimed.compareAndSet(sequence, sequence + 1));
+
+        int slot = (int) (sequence & this.mask);
+        this.times[slot] = System.currentTimeMillis();
+        this.levels[slot] = level;
+        this.categories[slot] = category;
+        this.messages[slot] = message;
+        this.arguments[slot] = argument;
+        this.errors[slot] = error;
+        /* Publishes the slot to the writer thread. */
+        this.published.lazySet(slot, sequence);
+        return true;
+    }
+
+    /**
+     * Gets the level of a category.
+     *
+     * @param category the category
+     * @return its own level, or the default level
+     */
+    public LogLevel getLevel(String category) {
+        return this.categoryLevels.getOrDefault(category, this.defaultLevel);
+    }
+
+    /**
+     * Sets the level of the categories without a level of their own.
+     *
+     * @param level the level
+     */
+    public void setLevel(LogLevel level) {
+        this.defaultLevel = level;
+        Logger.refreshLevels();
+    }
+
+    /**
+     * Sets the level of a category.
+     *
+     * @param category the category
+     * @param level    the level
+     */
+    public void setLevel(String category, LogLevel level) {
+        this.categoryLevels.put(category, level);
+        Logger.refreshLevels();
+    }
+
+    /**
+     * Sets the levels from a comma separated list, where a bare level is the
+     * default level and {@code category=LEVEL} sets the level of a category.
+     *
+     * @param levels the list of levels, such as {@code "WARN,fishing=DEBUG"}
+     * @throws IllegalArgumentException if a level is unknown
+     */
+    public void configure(String levels) {
+        for (String entry : levels.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int equals = trimmed.indexOf('=');
+            if (equals < 0) {
+                this.defaultLevel = LogLevel.valueOf(trimmed.toUpperCase());
+            } else {
+                this.categoryLevels.put(trimmed.substring(0, equals).trim(),
+                        LogLevel.valueOf(trimmed.substring(equals + 1).trim().toUpperCase()));
+            }
+        }
+        Logger.refreshLevels();
+    }
+
+    /**
+     * Appends the events to a file instead of stdout.
+     *
+     * @param path the file
+     * @throws IOException if the file cannot be opened
+     */
+    public void setOutput(Path path) throws IOException {
+        this.output = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Gets the number of events dropped because the ring was full.
+     *
+     * @return the number of dropped events
+     */
+    public long getDropped() {
+        return this.dropped.sum();
+    }
+
+    /**
+     * Writes the pending events and stops the writer thread. Events logged
+     * afterwards stay in the ring.
+     */
+    public void shutdown() {
+        this.running = false;
+        LockSupport.unpark(this.writer);
+        try {
+            this.writer.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The loop of the writer thread.
+     */
+    private void run() {
+        while (this.running) {
+            if (this.drain() == 0) {
+                LockSupport.parkNanos(IDLE_NANOS);
+            }
+        }
+        this.drain();
+    }
+
+    /**
+     * Writes every published event in a single batch.
+     *
+     * @return the number of events written
+     */
+    private int drain() {
+        Writer out = this.output;
+        long sequence = this.written.get();
+        int count = 0;
+        while (true) {
+            int slot = (int) (sequence & this.mask);
+            if (this.published.get(slot) != sequence) {
+                break;
+            }
+            this.format(slot);
+            this.arguments[slot] = null;
+            this.errors[slot] = null;
+            sequence++;
+            count++;
+            /* Hands the slot back to the producers. */
+            this.written.lazySet(sequence);
+            this.write(out, this.line);
+        }
+        long lost = this.dropped.sumThenReset();
+        if (lost > 0) {
+            this.line.setLength(0);
+            this.line.append("WARN  [log] ").append(lost).append(" events dropped\n");
+            this.write(out, this.line);
+        }
+        if (count > 0 || lost > 0) {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                /* Nowhere left to report it; the batch is lost. */
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Writes a formatted line, dropping it if the output fails.
+     *
+     * @param out  the output
+     * @param text the line
+     */
+    private void write(Writer out, CharSequence text) {
+        try {
+            out.append(text);
+        } catch (IOException e) {
+            /* Nowhere left to report it; the line is lost. */
+        }
+    }
+
+    /**
+     * Formats the event of a slot into the line buffer.
+     *
+     * @param slot the slot
+     */
+    private void format(int slot) {
+        StringBuilder builder = this.line;
+        builder.setLength(0);
+        TIME_FORMAT.formatTo(Instant.ofEpochMilli(this.times[slot]), builder);
+        builder.append(' ').append(this.levels[slot].name());
+        for (int i = this.levels[slot].name().length(); i < 5; i++) {
+            builder.append(' ');
+        }
+        builder.append(" [").append(this.categories[slot]).append("] ");
+        String message = this.messages[slot];
+        int placeholder = message.indexOf("{}");
+        if (placeholder < 0) {
+            builder.append(message);
+        } else {
+            builder.append(message, 0, placeholder)
+                    .append(this.arguments[slot])
+                    .append(message, placeholder + 2, message.length());
+        }
+        builder.append('\n');
+        Throwable error = this.errors[slot];
+        if (error != null) {
+            StringWriter trace = new StringWriter();
+            error.printStackTrace(new PrintWriter(trace));
+            builder.append(trace);
+        }
+    }
+}
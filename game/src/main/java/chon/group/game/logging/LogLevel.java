@@ -0,0 +1,24 @@
+package chon.group.game.logging;
+
+/**
+ * The {@code LogLevel} enum lists the severities of the log events, from the
+ * most verbose to the most severe. {@link #OFF} disables a logger.
+ */
+public enum LogLevel {
+    TRACE,
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR,
+    OFF;
+
+    /**
+     * Checks whether events of a level pass this threshold.
+     *
+     * @param level the level of an event
+     * @return true if the event must be logged
+     */
+    public boolean accepts(LogLevel level) {
+        return level != OFF && level.ordinal() >= this.ordinal();
+    }
+}
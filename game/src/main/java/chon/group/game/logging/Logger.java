@@ -0,0 +1,151 @@
+package chon.group.game.logging;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@code Logger} class writes the events of a category, such as
+ * {@code "fishing"} or {@code "engine"}, to the {@link AsyncLog}.
+ * <p>
+ * A logger only checks its level and hands the event to the ring buffer, so
+ * logging never blocks the caller. Messages may contain a single {@code {}}
+ * placeholder, replaced by the argument on the logging thread, which avoids
+ * building strings on the game loop.
+ * </p>
+ */
+public final class Logger {
+
+    /** The loggers created so far, by category. */
+    private static final ConcurrentHashMap<String, Logger> LOGGERS = new ConcurrentHashMap<String, Logger>();
+
+    /** The category of the logger. */
+    private final String category;
+
+    /** The lowest level logged. */
+    private volatile LogLevel level;
+
+    private Logger(String category, LogLevel level) {
+        this.category = category;
+        this.level = level;
+    }
+
+    /**
+     * Gets the logger of a category, creating it on first use with the level
+     * configured for that category.
+     *
+     * @param category the category
+     * @return the logger
+     */
+    public static Logger get(String category) {
+        return LOGGERS.computeIfAbsent(category,
+                name -> new Logger(name, AsyncLog.getInstance().getLevel(name)));
+    }
+
+    /**
+     * Applies the configured level to every logger already created.
+     */
+    static void refreshLevels() {
+        for (Logger logger : LOGGERS.values()) {
+            logger.level = AsyncLog.getInstance().getLevel(logger.category);
+        }
+    }
+
+    /**
+     * Gets the category of the logger.
+     *
+     * @return the category
+     */
+    public String getCategory() {
+        return this.category;
+    }
+
+    /**
+     * Checks whether events of a level are logged.
+     *
+     * @param level the level
+     * @return true if the events are logged
+     */
+    public boolean isEnabled(LogLevel level) {
+        return this.level.accepts(level);
+    }
+
+    /**
+     * Logs an event.
+     *
+     * @param level    the level of the event
+     * @param message  the message, with an optional {@code {}} placeholder
+     * @param argument the value of the placeholder, or null
+     * @param error    the error to print with the event, or null
+     */
+    public void log(LogLevel level, String message, Object argument, Throwable error) {
+        if (this.level.accepts(level)) {
+            AsyncLog.getInstance().offer(level, this.category, message, argument, error);
+        }
+    }
+
+    /**
+     * Logs a debug event.
+     *
+     * @param message the message
+     */
+    public void debug(String message) {
+        this.log(LogLevel.DEBUG, message, null, null);
+    }
+
+    /**
+     * Logs a debug event with an argument.
+     *
+     * @param message  the message, with a {@code {}} placeholder
+     * @param argument the value of the placeholder
+     */
+    public void debug(String message, Object argument) {
+        this.log(LogLevel.DEBUG, message, argument, null);
+    }
+
+    /**
+     * Logs an informative event.
+     *
+     * @param message the message
+     */
+    public void info(String message) {
+        this.log(LogLevel.INFO, message, null, null);
+    }
+
+    /**
+     * Logs an informative event with an argument.
+     *
+     * @param message  the message, with a {@code {}} placeholder
+     * @param argument the value of the placeholder
+     */
+    public void info(String message, Object argument) {
+        this.log(LogLevel.INFO, message, argument, null);
+    }
+
+    /**
+     * Logs a warning.
+     *
+     * @param message the message
+     */
+    public void warn(String message) {
+        this.log(LogLevel.WARN, message, null, null);
+    }
+
+    /**
+     * Logs a warning with an argument.
+     *
+     * @param message  the message, with a {@code {}} placeholder
+     * @param argument the value of the placeholder
+     */
+    public void warn(String message, Object argument) {
+        this.log(LogLevel.WARN, message, argument, null);
+    }
+
+    /**
+     * Logs an error.
+     *
+     * @param message the message
+     * @param error   the error, printed with its stack trace
+     */
+    public void error(String message, Throwable error) {
+        this.log(LogLevel.ERROR, message, null, error);
+    }
+}
@@ -1,25 +1,36 @@
 package chon.group.game.messaging;
 
+import chon.group.game.core.GameClock;
+
 /**
  * Represents a floating message that appears in the screen.
  * The message moves in a curved trajectory and fades out over time.
  */
 public class Message {
 
+    /** Value of messages that do not display a number. */
+    public static final int NO_VALUE = Integer.MIN_VALUE;
+
     private int size;
 
     /** The message to display */
     private String message;
 
+    /** The number displayed by the message, or {@link #NO_VALUE} */
+    private int value = NO_VALUE;
+
     /** Current X coordinate of the message */
     private double posX;
 
     /** Current Y coordinate of the message */
     private double posY;
 
-    /** Time when this message was created */
+    /** Game time when this message was created, in milliseconds */
     private long creationTime;
 
+    /** The clock measuring the age of the message */
+    private GameClock clock;
+
     /** Current opacity value between 0.0 (transparent) and 1.0 (opaque) */
     private double opacity;
 
@@ -47,11 +58,48 @@ public class Message {
      * @param posY    The initial y coordinate where the number will appear
      */
     public Message(String message, double posX, double posY, int size) {
+        this(message, posX, posY, size, GameClock.SYSTEM);
+    }
+
+    /**
+     * Creates a new message aging with a game clock.
+     *
+     * @param message The amount of message to display
+     * @param posX    The initial x coordinate where the number will appear
+     * @param posY    The initial y coordinate where the number will appear
+     * @param size    The font size
+     * @param clock   The clock measuring the age of the message
+     */
+    public Message(String message, double posX, double posY, int size, GameClock clock) {
+        this.clock = clock;
+        this.reset(message, NO_VALUE, posX, posY, size);
+    }
+
+    /**
+     * Sets the clock measuring the age of the message.
+     *
+     * @param clock the clock
+     */
+    void setClock(GameClock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Reinitializes a recycled message slot.
+     *
+     * @param message The text to display
+     * @param value   The number displayed, or {@link #NO_VALUE}
+     * @param posX    The initial x coordinate
+     * @param posY    The initial y coordinate
+     * @param size    The font size
+     */
+    void reset(String message, int value, double posX, double posY, int size) {
         this.message = message;
+        this.value = value;
         this.posX = posX;
         this.posY = posY;
         this.size = size;
-        this.creationTime = System.currentTimeMillis();
+        this.creationTime = clock.millis();
         this.opacity = 1.0;
     }
 
@@ -72,6 +120,15 @@ public class Message {
         return message;
     }
 
+    /**
+     * Gets the number displayed by the message.
+     * 
+     * @return The number, or {@link #NO_VALUE} for text messages
+     */
+    public int getValue() {
+        return value;
+    }
+
     /**
      * Gets the current X coordinate of the message.
      * 
@@ -107,8 +164,7 @@ public class Message {
      * @return false if the message's lifetime has expired, true otherwise
      */
     public boolean update() {
-        long currentTime = System.currentTimeMillis();
-        long age = currentTime - creationTime;
+        long age = clock.millis() - creationTime;
 
         if (age >= LIFETIME) {
             return false;
@@ -0,0 +1,255 @@
+package chon.group.game.messaging;
+
+import chon.group.game.core.GameClock;
+
+/**
+ * Stores the floating messages in a fixed-capacity ring of reusable
+ * {@link Message} slots.
+ * <p>
+ * Every message lives for the same time, so they expire in the order they
+ * were added: expired messages are always at the head of the ring and are
+ * dropped in constant time. When the ring is full, the oldest message is
+ * either dropped or merged into the new one, according to the
+ * {@link Overflow} policy.
+ * </p>
+ */
+public class MessageBuffer {
+
+    /** Default number of messages displayed at the same time. */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    /** Largest damage value with a pre-built text. */
+    private static final int INTERNED_VALUES = 1000;
+
+    /** Pre-built texts for the most common damage values. */
+    private static final String[] DAMAGE_TEXTS = new String[INTERNED_VALUES];
+
+    static {
+        for (int i = 0; i < INTERNED_VALUES; i++) {
+            DAMAGE_TEXTS[i] = String.valueOf(i).intern();
+        }
+    }
+
+    /**
+     * What happens to the oldest message when a new one arrives and the ring
+     * is full.
+     */
+    public enum Overflow {
+        /** The oldest message is discarded. */
+        DROP_OLDEST,
+        /** The value of the oldest message is added to the new damage message. */
+        MERGE_OLDEST
+    }
+
+    /** The reusable message slots. */
+    private final Message[] slots;
+
+    /** The slot of the oldest message. */
+    private int head = 0;
+
+    /** Number of live messages. */
+    private int size = 0;
+
+    /** The overflow policy. */
+    private Overflow overflow = Overflow.DROP_OLDEST;
+
+    /** Number of messages dropped or merged because the ring was full. */
+    private long overflowCount = 0;
+
+    /** The clock measuring the age of the messages. */
+    private GameClock clock = GameClock.SYSTEM;
+
+    /**
+     * Constructor to initialize the buffer with the default capacity.
+     */
+    public MessageBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor to initialize the buffer.
+     *
+     * @param capacity the maximum number of live messages
+     */
+    public MessageBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity must be positive.");
+        }
+        this.slots = new Message[capacity];
+        for (int i = 0; i < capacity; i++) {
+            this.slots[i] = new Message("", 0, 0, 0);
+        }
+    }
+
+    /**
+     * Gets the clock measuring the age of the messages.
+     *
+     * @return the clock
+     */
+    public GameClock getClock() {
+        return this.clock;
+    }
+
+    /**
+     * Sets the clock measuring the age of the messages.
+     *
+     * @param clock the clock
+     */
+    public void setClock(GameClock clock) {
+        this.clock = clock;
+        for (Message slot : this.slots) {
+            slot.setClock(clock);
+        }
+    }
+
+    /**
+     * Gets the text of a damage value, reusing a shared string for common
+     * values.
+     *
+     * @param damage the damage value
+     * @return the text of the value
+     */
+    public static String damageText(int damage) {
+        if (damage >= 0 && damage < INTERNED_VALUES) {
+            return DAMAGE_TEXTS[damage];
+        }
+        return String.valueOf(damage);
+    }
+
+    /**
+     * Adds a text message.
+     *
+     * @param message the text to display
+     * @param posX    the initial x coordinate
+     * @param posY    the initial y coordinate
+     * @param size    the font size
+     */
+    public void add(String message, double posX, double posY, int size) {
+        this.claim().reset(message, Message.NO_VALUE, posX, posY, size);
+    }
+
+    /**
+     * Adds a damage message.
+     *
+     * @param damage the damage value to display
+     * @param posX   the initial x coordinate
+     * @param posY   the initial y coordinate
+     * @param size   the font size
+     */
+    public void addDamage(int damage, double posX, double posY, int size) {
+        if (this.size == this.slots.length && this.overflow == Overflow.MERGE_OLDEST) {
+            int oldest = this.slots[this.head].getValue();
+            if (oldest != Message.NO_VALUE) {
+                damage += oldest;
+            }
+        }
+        this.claim().reset(damageText(damage), damage, posX, posY, size);
+    }
+
+    /**
+     * Updates every live message and drops the expired ones.
+     */
+    public void update() {
+        /* Expired messages are always at the head. */
+        while (this.size > 0 && !this.slots[this.head].update()) {
+            this.head = (this.head + 1) % this.slots.length;
+            this.size--;
+        }
+        for (int i = 1; i < this.size; i++) {
+            this.slots[(this.head + i) % this.slots.length].update();
+        }
+    }
+
+    /**
+     * Gets a live message, from the oldest to the newest.
+     *
+     * @param index the position of the message, from zero to the size
+     * @return the message
+     */
+    public Message get(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Message " + index + " of " + this.size);
+        }
+        return this.slots[(this.head + index) % this.slots.length];
+    }
+
+    /**
+     * Gets the number of live messages.
+     *
+     * @return the number of messages
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if there are no live messages.
+     *
+     * @return true if the buffer is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the maximum number of live messages.
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * Removes every live message.
+     */
+    public void clear() {
+        this.head = 0;
+        this.size = 0;
+    }
+
+    /**
+     * Gets the overflow policy.
+     *
+     * @return the overflow policy
+     */
+    public Overflow getOverflow() {
+        return overflow;
+    }
+
+    /**
+     * Sets the overflow policy.
+     *
+     * @param overflow the new overflow policy
+     */
+    public void setOverflow(Overflow overflow) {
+        this.overflow = overflow;
+    }
+
+    /**
+     * Gets the number of messages dropped or merged because the ring was full.
+     *
+     * @return the overflow count
+     */
+    public long getOverflowCount() {
+        return overflowCount;
+    }
+
+    /**
+     * Takes the slot for a new message, recycling the oldest one when the
+     * ring is full.
+     *
+     * @return the slot to be reset
+     */
+    private Message claim() {
+        if (this.size == this.slots.length) {
+            this.overflowCount++;
+            this.head = (this.head + 1) % this.slots.length;
+            this.size--;
+        }
+        int tail = (this.head + this.size) % this.slots.length;
+        this.size++;
+        return this.slots[tail];
+    }
+
+}